@@ -0,0 +1,42 @@
+package net.leng.benchmarks;
+
+import net.leng.array.ArrayMaker;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ArrayMakerBenchmark {
+    @Param({"1000", "100000", "1000000"})
+    private int size;
+
+    private double[] doubles;
+    private int[] ints;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        doubles = new double[size];
+        ints = new int[size];
+        for (int i = 0; i < size; i++) {
+            doubles[i] = random.nextGaussian();
+            ints[i] = random.nextInt();
+        }
+    }
+
+    @Benchmark
+    public double[] makeSortedDoubleArray() {
+        return ArrayMaker.makeSortedArray(doubles);
+    }
+
+    @Benchmark
+    public int[] makeSortedIntArray() {
+        return ArrayMaker.makeSortedArray(ints);
+    }
+}
@@ -0,0 +1,99 @@
+package net.leng.benchmarks;
+
+import net.leng.math.Calculus;
+import net.leng.math.Dual;
+import net.leng.math.MoreMath;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.DoubleFunction;
+import java.util.function.DoubleUnaryOperator;
+
+/** The primitive calculus of {@link Calculus} against the boxed one of {@link MoreMath}, and against {@link Dual},
+ * over the same functions. Run with -prof gc; gc.alloc.rate.norm should be 0 B/op for limit and derivative, whose
+ * loops evaluate the function at every one of {@link #POINTS} points.
+ * */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CalculusBenchmark {
+    private static final int POINTS = 1000;
+
+    private final double[] xs = new double[POINTS];
+
+    /** Kept in fields, as a calibration loop would keep its model, so that the JIT cannot see through them. */
+    private DoubleUnaryOperator primitive;
+    private DoubleFunction<Double> boxed;
+
+    @Setup
+    public void setup() {
+        for (int i = 0; i < POINTS; i++) {
+            xs[i] = i * 0.01;
+        }
+        primitive = x -> Math.exp(-x) * Math.sin(x);
+        boxed = x -> Math.exp(-x) * Math.sin(x);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(POINTS)
+    public double derivative() {
+        double sum = 0;
+        for (double x : xs) {
+            sum += Calculus.derivative(primitive, x);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(POINTS)
+    public double derivativeBoxed() {
+        double sum = 0;
+        for (double x : xs) {
+            sum += MoreMath.derivative(boxed, x);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(POINTS)
+    public double derivativeDual() {
+        double sum = 0;
+        for (double x : xs) {
+            sum += Dual.derivative(v -> v.negate().exp().multiply(v.sin()), x);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(POINTS)
+    public double limit() {
+        double sum = 0;
+        for (double x : xs) {
+            sum += Calculus.limit(primitive, x);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(POINTS)
+    public double limitBoxed() {
+        double sum = 0;
+        for (double x : xs) {
+            sum += MoreMath.limit(boxed, x);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public double integral() {
+        return Calculus.integral(primitive, 0, Double.POSITIVE_INFINITY);
+    }
+
+    @Benchmark
+    public double integralBoxed() {
+        return MoreMath.integral(boxed, 0, Double.POSITIVE_INFINITY);
+    }
+}
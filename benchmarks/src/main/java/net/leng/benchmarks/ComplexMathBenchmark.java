@@ -0,0 +1,34 @@
+package net.leng.benchmarks;
+
+import net.leng.math.directionalnum.ComplexMath;
+import net.leng.math.directionalnum.ComplexNumber;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ComplexMathBenchmark {
+    private ComplexNumber base;
+    private ComplexNumber exponent;
+
+    @Setup
+    public void setup() {
+        base = ComplexNumber.of(1.5, -0.5);
+        exponent = ComplexNumber.of(0.25, 2);
+    }
+
+    @Benchmark
+    public ComplexNumber pow() {
+        return ComplexMath.pow(base, exponent);
+    }
+
+    @Benchmark
+    public ComplexNumber exp() {
+        return ComplexMath.exp(base);
+    }
+}
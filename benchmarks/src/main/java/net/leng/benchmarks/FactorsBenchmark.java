@@ -0,0 +1,28 @@
+package net.leng.benchmarks;
+
+import net.leng.math.operations.Factors;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.HashMap;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FactorsBenchmark {
+    @Param({"9973", "1000003"})
+    private int number;
+
+    @Benchmark
+    public boolean isPrime() {
+        return Factors.isPrime(number);
+    }
+
+    @Benchmark
+    public HashMap<Integer, Integer> findPrimeFactorization() {
+        return Factors.findPrimeFactorization(number);
+    }
+}
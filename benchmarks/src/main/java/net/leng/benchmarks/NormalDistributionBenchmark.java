@@ -0,0 +1,23 @@
+package net.leng.benchmarks;
+
+import net.leng.math.Statistics;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/** Single calls of the normal distribution functions, which take no array and so have no size to vary. The batched
+ * forms are in {@link StatisticsBenchmark}.
+ * */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NormalDistributionBenchmark {
+    /** The same interval the baseline measured, when normalCdf still integrated the density numerically. */
+    @Benchmark
+    public double normalCdf() {
+        return Statistics.normalCdf(1000, 1, 999.5, 1000.5);
+    }
+}
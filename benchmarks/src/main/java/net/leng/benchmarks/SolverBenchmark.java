@@ -0,0 +1,55 @@
+package net.leng.benchmarks;
+
+import net.leng.math.solver.BatchSolver;
+import net.leng.math.solver.Minimizer;
+import net.leng.math.solver.RootFinder;
+import net.leng.math.solver.Solution;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.DoubleUnaryOperator;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SolverBenchmark {
+    private static final int PROBLEMS = 10000;
+
+    private final DoubleUnaryOperator cubic = x -> x * x * x - 2 * x - 5;
+    private final double[] targets = new double[PROBLEMS];
+
+    @Setup
+    public void setup() {
+        for (int i = 0; i < PROBLEMS; i++) {
+            targets[i] = 1 + i * 0.01;
+        }
+    }
+
+    @Benchmark
+    public Solution brent() {
+        return RootFinder.brent(cubic, 2, 3);
+    }
+
+    @Benchmark
+    public Solution newton() {
+        return RootFinder.newton(cubic, x -> 3 * x * x - 2, 2, 3);
+    }
+
+    @Benchmark
+    public Solution illinois() {
+        return RootFinder.illinois(cubic, 2, 3);
+    }
+
+    @Benchmark
+    public Solution minimize() {
+        return Minimizer.brent(Math::cos, 2, 5);
+    }
+
+    @Benchmark
+    public Solution[] batch() {
+        return BatchSolver.solve(PROBLEMS, i -> RootFinder.brent(x -> x * x - targets[i], 0, targets[i] + 1));
+    }
+}
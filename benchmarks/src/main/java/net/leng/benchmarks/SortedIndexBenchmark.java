@@ -0,0 +1,75 @@
+package net.leng.benchmarks;
+
+import net.leng.array.SortedIndex;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/** Lookups in a {@link SortedIndex} against {@link Arrays#binarySearch(long[], long)} over the same values. Every
+ * method runs all {@link #QUERIES} queries, half of which are present, so the scores are per batch of queries.
+ * */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SortedIndexBenchmark {
+    private static final int QUERIES = 1 << 12;
+
+    @Param({"1024", "65536", "1048576", "16777216"})
+    private int size;
+
+    private long[] sorted;
+    private SortedIndex index;
+    private final long[] queries = new long[QUERIES];
+    private final int[] bounds = new int[QUERIES];
+    private final boolean[] found = new boolean[QUERIES];
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        sorted = random.longs(size).toArray();
+        Arrays.sort(sorted);
+        index = SortedIndex.of(sorted);
+        for (int i = 0; i < QUERIES; i++) {
+            queries[i] = (i & 1) == 0 ? sorted[random.nextInt(size)] : random.nextLong();
+        }
+    }
+
+    @Benchmark
+    public void binarySearch(Blackhole blackhole) {
+        for (long q : queries) {
+            blackhole.consume(Arrays.binarySearch(sorted, q));
+        }
+    }
+
+    @Benchmark
+    public void lowerBound(Blackhole blackhole) {
+        for (long q : queries) {
+            blackhole.consume(index.lowerBound(q));
+        }
+    }
+
+    @Benchmark
+    public void contains(Blackhole blackhole) {
+        for (long q : queries) {
+            blackhole.consume(index.contains(q));
+        }
+    }
+
+    @Benchmark
+    public int[] lowerBoundBatch() {
+        index.lowerBound(queries, bounds);
+        return bounds;
+    }
+
+    @Benchmark
+    public boolean[] containsBatch() {
+        index.contains(queries, found);
+        return found;
+    }
+}
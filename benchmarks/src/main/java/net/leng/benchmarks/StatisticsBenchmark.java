@@ -0,0 +1,52 @@
+package net.leng.benchmarks;
+
+import net.leng.math.Statistics;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StatisticsBenchmark {
+    @Param({"1000", "100000"})
+    private int size;
+
+    private double[] values;
+    private double[] scores;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        values = new double[size];
+        scores = new double[size];
+        for (int i = 0; i < size; i++) {
+            values[i] = random.nextGaussian();
+        }
+    }
+
+    @Benchmark
+    public double median() {
+        return Statistics.median(values);
+    }
+
+    @Benchmark
+    public double variance() {
+        return Statistics.variance(values);
+    }
+
+    @Benchmark
+    public double varianceParallel() {
+        return Statistics.varianceParallel(values);
+    }
+
+    @Benchmark
+    public double[] normalCdfBatch() {
+        Statistics.normalCdf(0, 1, values, scores);
+        return scores;
+    }
+}
@@ -0,0 +1,21 @@
+package net.leng.benchmarks;
+
+import net.leng.strings.XSampaConversion;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class XSampaConversionBenchmark {
+    private String text = "\"kOnt@d_<Er dE t@uslE dufAsed\\o: \"h{p@\\nIs \"t_hINz";
+
+    @Benchmark
+    public String convert() {
+        return XSampaConversion.convert(text);
+    }
+}
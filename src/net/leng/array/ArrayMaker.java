@@ -1,9 +1,14 @@
 package net.leng.array;
 
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
 import java.util.function.Function;
 
 public class ArrayMaker {
+    /** Arrays no longer than this are sorted sequentially by the makeSortedArrayParallel overloads
+     * unless the caller passes a threshold of their own. */
+    public static final int PARALLEL_SORT_THRESHOLD = 1 << 16;
+
     public static <T extends Comparable<T>> T[] makeSortedArray(T[] list) {
         int len = list.length;
         T[] sorted = (T[])(new Comparable[len]);
@@ -20,110 +25,641 @@ public class ArrayMaker {
     }
 
     public static byte[] makeSortedArray(byte[] list) {
-        int len = list.length;
-        byte[] sorted = new byte[len];
-        for (int i = 0; i < len; i++) {
-            byte item = list[i];
-            int ind = i;
-            while (ind > 0 && list[ind-1] > item) {
-                sorted[ind] = sorted[ind-1];
-                ind--;
-            }
-            sorted[ind] = item;
-        }
+        byte[] sorted = list.clone();
+        Sorter.sort(sorted, 0, sorted.length);
         return sorted;
     }
 
     public static char[] makeSortedArray(char[] list) {
-        int len = list.length;
-        char[] sorted = new char[len];
-        for (int i = 0; i < len; i++) {
-            char item = list[i];
-            int ind = i;
-            while (ind > 0 && list[ind-1] > item) {
-                sorted[ind] = sorted[ind-1];
-                ind--;
-            }
-            sorted[ind] = item;
-        }
+        char[] sorted = list.clone();
+        Sorter.sort(sorted, 0, sorted.length);
         return sorted;
     }
 
     public static double[] makeSortedArray(double[] list) {
-        int len = list.length;
-        double[] sorted = new double[len];
-        for (int i = 0; i < len; i++) {
-            double item = list[i];
-            int ind = i;
-            while (ind > 0 && list[ind-1] > item) {
-                sorted[ind] = sorted[ind-1];
-                ind--;
-            }
-            sorted[ind] = item;
-        }
+        double[] sorted = list.clone();
+        Sorter.sort(sorted, 0, sorted.length);
         return sorted;
     }
 
     public static float[] makeSortedArray(float[] list) {
-        int len = list.length;
-        float[] sorted = new float[len];
-        for (int i = 0; i < len; i++) {
-            float item = list[i];
-            int ind = i;
-            while (ind > 0 && list[ind-1] > item) {
-                sorted[ind] = sorted[ind-1];
-                ind--;
-            }
-            sorted[ind] = item;
-        }
+        float[] sorted = list.clone();
+        Sorter.sort(sorted, 0, sorted.length);
         return sorted;
     }
 
     public static int[] makeSortedArray(int[] list) {
-        int len = list.length;
-        int[] sorted = new int[len];
-        for (int i = 0; i < len; i++) {
-            int item = list[i];
-            int ind = i;
-            while (ind > 0 && list[ind-1] > item) {
-                sorted[ind] = sorted[ind-1];
-                ind--;
-            }
-            sorted[ind] = item;
-        }
+        int[] sorted = list.clone();
+        Sorter.sort(sorted, 0, sorted.length);
         return sorted;
     }
 
     public static long[] makeSortedArray(long[] list) {
-        int len = list.length;
-        long[] sorted = new long[len];
-        for (int i = 0; i < len; i++) {
-            long item = list[i];
-            int ind = i;
-            while (ind > 0 && list[ind-1] > item) {
-                sorted[ind] = sorted[ind-1];
-                ind--;
-            }
-            sorted[ind] = item;
-        }
+        long[] sorted = list.clone();
+        Sorter.sort(sorted, 0, sorted.length);
         return sorted;
     }
 
     public static short[] makeSortedArray(short[] list) {
-        int len = list.length;
-        short[] sorted = new short[len];
-        for (int i = 0; i < len; i++) {
-            short item = list[i];
-            int ind = i;
-            while (ind > 0 && list[ind-1] > item) {
-                sorted[ind] = sorted[ind-1];
-                ind--;
-            }
-            sorted[ind] = item;
-        }
+        short[] sorted = list.clone();
+        Sorter.sort(sorted, 0, sorted.length);
+        return sorted;
+    }
+
+    public static byte[] makeSortedArrayParallel(byte[] list) {
+        return makeSortedArrayParallel(list, ForkJoinPool.commonPool(), PARALLEL_SORT_THRESHOLD);
+    }
+
+    public static byte[] makeSortedArrayParallel(byte[] list, ForkJoinPool pool) {
+        return makeSortedArrayParallel(list, pool, PARALLEL_SORT_THRESHOLD);
+    }
+
+    /** Sorts a copy of the list, splitting the work across the given pool.
+     * @param list The array to be sorted, which is left untouched.
+     * @param pool The pool the work is split across.
+     * @param threshold Arrays of this length or shorter are sorted sequentially on the calling thread.
+     * @return A sorted copy of the list.
+     * */
+    public static byte[] makeSortedArrayParallel(byte[] list, ForkJoinPool pool, int threshold) {
+        byte[] sorted = list.clone();
+        ParallelSorter.sort(sorted, 0, sorted.length, pool, threshold);
+        return sorted;
+    }
+
+    public static char[] makeSortedArrayParallel(char[] list) {
+        return makeSortedArrayParallel(list, ForkJoinPool.commonPool(), PARALLEL_SORT_THRESHOLD);
+    }
+
+    public static char[] makeSortedArrayParallel(char[] list, ForkJoinPool pool) {
+        return makeSortedArrayParallel(list, pool, PARALLEL_SORT_THRESHOLD);
+    }
+
+    /** Sorts a copy of the list, splitting the work across the given pool.
+     * @param list The array to be sorted, which is left untouched.
+     * @param pool The pool the work is split across.
+     * @param threshold Arrays of this length or shorter are sorted sequentially on the calling thread.
+     * @return A sorted copy of the list.
+     * */
+    public static char[] makeSortedArrayParallel(char[] list, ForkJoinPool pool, int threshold) {
+        char[] sorted = list.clone();
+        ParallelSorter.sort(sorted, 0, sorted.length, pool, threshold);
         return sorted;
     }
 
+    public static double[] makeSortedArrayParallel(double[] list) {
+        return makeSortedArrayParallel(list, ForkJoinPool.commonPool(), PARALLEL_SORT_THRESHOLD);
+    }
+
+    public static double[] makeSortedArrayParallel(double[] list, ForkJoinPool pool) {
+        return makeSortedArrayParallel(list, pool, PARALLEL_SORT_THRESHOLD);
+    }
+
+    /** Sorts a copy of the list, splitting the work across the given pool.
+     * @param list The array to be sorted, which is left untouched.
+     * @param pool The pool the work is split across.
+     * @param threshold Arrays of this length or shorter are sorted sequentially on the calling thread.
+     * @return A sorted copy of the list.
+     * */
+    public static double[] makeSortedArrayParallel(double[] list, ForkJoinPool pool, int threshold) {
+        double[] sorted = list.clone();
+        ParallelSorter.sort(sorted, 0, sorted.length, pool, threshold);
+        return sorted;
+    }
+
+    public static float[] makeSortedArrayParallel(float[] list) {
+        return makeSortedArrayParallel(list, ForkJoinPool.commonPool(), PARALLEL_SORT_THRESHOLD);
+    }
+
+    public static float[] makeSortedArrayParallel(float[] list, ForkJoinPool pool) {
+        return makeSortedArrayParallel(list, pool, PARALLEL_SORT_THRESHOLD);
+    }
+
+    /** Sorts a copy of the list, splitting the work across the given pool.
+     * @param list The array to be sorted, which is left untouched.
+     * @param pool The pool the work is split across.
+     * @param threshold Arrays of this length or shorter are sorted sequentially on the calling thread.
+     * @return A sorted copy of the list.
+     * */
+    public static float[] makeSortedArrayParallel(float[] list, ForkJoinPool pool, int threshold) {
+        float[] sorted = list.clone();
+        ParallelSorter.sort(sorted, 0, sorted.length, pool, threshold);
+        return sorted;
+    }
+
+    public static int[] makeSortedArrayParallel(int[] list) {
+        return makeSortedArrayParallel(list, ForkJoinPool.commonPool(), PARALLEL_SORT_THRESHOLD);
+    }
+
+    public static int[] makeSortedArrayParallel(int[] list, ForkJoinPool pool) {
+        return makeSortedArrayParallel(list, pool, PARALLEL_SORT_THRESHOLD);
+    }
+
+    /** Sorts a copy of the list, splitting the work across the given pool.
+     * @param list The array to be sorted, which is left untouched.
+     * @param pool The pool the work is split across.
+     * @param threshold Arrays of this length or shorter are sorted sequentially on the calling thread.
+     * @return A sorted copy of the list.
+     * */
+    public static int[] makeSortedArrayParallel(int[] list, ForkJoinPool pool, int threshold) {
+        int[] sorted = list.clone();
+        ParallelSorter.sort(sorted, 0, sorted.length, pool, threshold);
+        return sorted;
+    }
+
+    public static long[] makeSortedArrayParallel(long[] list) {
+        return makeSortedArrayParallel(list, ForkJoinPool.commonPool(), PARALLEL_SORT_THRESHOLD);
+    }
+
+    public static long[] makeSortedArrayParallel(long[] list, ForkJoinPool pool) {
+        return makeSortedArrayParallel(list, pool, PARALLEL_SORT_THRESHOLD);
+    }
+
+    /** Sorts a copy of the list, splitting the work across the given pool.
+     * @param list The array to be sorted, which is left untouched.
+     * @param pool The pool the work is split across.
+     * @param threshold Arrays of this length or shorter are sorted sequentially on the calling thread.
+     * @return A sorted copy of the list.
+     * */
+    public static long[] makeSortedArrayParallel(long[] list, ForkJoinPool pool, int threshold) {
+        long[] sorted = list.clone();
+        ParallelSorter.sort(sorted, 0, sorted.length, pool, threshold);
+        return sorted;
+    }
+
+    public static short[] makeSortedArrayParallel(short[] list) {
+        return makeSortedArrayParallel(list, ForkJoinPool.commonPool(), PARALLEL_SORT_THRESHOLD);
+    }
+
+    public static short[] makeSortedArrayParallel(short[] list, ForkJoinPool pool) {
+        return makeSortedArrayParallel(list, pool, PARALLEL_SORT_THRESHOLD);
+    }
+
+    /** Sorts a copy of the list, splitting the work across the given pool.
+     * @param list The array to be sorted, which is left untouched.
+     * @param pool The pool the work is split across.
+     * @param threshold Arrays of this length or shorter are sorted sequentially on the calling thread.
+     * @return A sorted copy of the list.
+     * */
+    public static short[] makeSortedArrayParallel(short[] list, ForkJoinPool pool, int threshold) {
+        short[] sorted = list.clone();
+        ParallelSorter.sort(sorted, 0, sorted.length, pool, threshold);
+        return sorted;
+    }
+
+    public static void sortInPlace(byte[] list) {
+        Sorter.sort(list, 0, list.length);
+    }
+
+    /** Sorts the elements of list between from (inclusive) and to (exclusive) without copying the array.
+     * @param list The array that is sorted in place.
+     * @param from The index of the first element to be sorted.
+     * @param to The index after the last element to be sorted.
+     * */
+    public static void sortInPlace(byte[] list, int from, int to) {
+        checkRange(list.length, from, to);
+        Sorter.sort(list, from, to);
+    }
+
+    public static void sortInPlace(byte[] list, ByteComparator comparator) {
+        Sorter.sort(list, 0, list.length, comparator);
+    }
+
+    /** Sorts the elements of list between from (inclusive) and to (exclusive) in the order imposed by the comparator.
+     * The sort is stable and never boxes the elements it compares.
+     * @param list The array that is sorted in place.
+     * @param from The index of the first element to be sorted.
+     * @param to The index after the last element to be sorted.
+     * @param comparator The order the elements are sorted in.
+     * */
+    public static void sortInPlace(byte[] list, int from, int to, ByteComparator comparator) {
+        checkRange(list.length, from, to);
+        Sorter.sort(list, from, to, comparator);
+    }
+
+    public static void sortInPlace(char[] list) {
+        Sorter.sort(list, 0, list.length);
+    }
+
+    /** Sorts the elements of list between from (inclusive) and to (exclusive) without copying the array.
+     * @param list The array that is sorted in place.
+     * @param from The index of the first element to be sorted.
+     * @param to The index after the last element to be sorted.
+     * */
+    public static void sortInPlace(char[] list, int from, int to) {
+        checkRange(list.length, from, to);
+        Sorter.sort(list, from, to);
+    }
+
+    public static void sortInPlace(char[] list, CharComparator comparator) {
+        Sorter.sort(list, 0, list.length, comparator);
+    }
+
+    /** Sorts the elements of list between from (inclusive) and to (exclusive) in the order imposed by the comparator.
+     * The sort is stable and never boxes the elements it compares.
+     * @param list The array that is sorted in place.
+     * @param from The index of the first element to be sorted.
+     * @param to The index after the last element to be sorted.
+     * @param comparator The order the elements are sorted in.
+     * */
+    public static void sortInPlace(char[] list, int from, int to, CharComparator comparator) {
+        checkRange(list.length, from, to);
+        Sorter.sort(list, from, to, comparator);
+    }
+
+    public static void sortInPlace(double[] list) {
+        Sorter.sort(list, 0, list.length);
+    }
+
+    /** Sorts the elements of list between from (inclusive) and to (exclusive) without copying the array.
+     * @param list The array that is sorted in place.
+     * @param from The index of the first element to be sorted.
+     * @param to The index after the last element to be sorted.
+     * */
+    public static void sortInPlace(double[] list, int from, int to) {
+        checkRange(list.length, from, to);
+        Sorter.sort(list, from, to);
+    }
+
+    public static void sortInPlace(double[] list, DoubleComparator comparator) {
+        Sorter.sort(list, 0, list.length, comparator);
+    }
+
+    /** Sorts the elements of list between from (inclusive) and to (exclusive) in the order imposed by the comparator.
+     * The sort is stable and never boxes the elements it compares.
+     * @param list The array that is sorted in place.
+     * @param from The index of the first element to be sorted.
+     * @param to The index after the last element to be sorted.
+     * @param comparator The order the elements are sorted in.
+     * */
+    public static void sortInPlace(double[] list, int from, int to, DoubleComparator comparator) {
+        checkRange(list.length, from, to);
+        Sorter.sort(list, from, to, comparator);
+    }
+
+    public static void sortInPlace(float[] list) {
+        Sorter.sort(list, 0, list.length);
+    }
+
+    /** Sorts the elements of list between from (inclusive) and to (exclusive) without copying the array.
+     * @param list The array that is sorted in place.
+     * @param from The index of the first element to be sorted.
+     * @param to The index after the last element to be sorted.
+     * */
+    public static void sortInPlace(float[] list, int from, int to) {
+        checkRange(list.length, from, to);
+        Sorter.sort(list, from, to);
+    }
+
+    public static void sortInPlace(float[] list, FloatComparator comparator) {
+        Sorter.sort(list, 0, list.length, comparator);
+    }
+
+    /** Sorts the elements of list between from (inclusive) and to (exclusive) in the order imposed by the comparator.
+     * The sort is stable and never boxes the elements it compares.
+     * @param list The array that is sorted in place.
+     * @param from The index of the first element to be sorted.
+     * @param to The index after the last element to be sorted.
+     * @param comparator The order the elements are sorted in.
+     * */
+    public static void sortInPlace(float[] list, int from, int to, FloatComparator comparator) {
+        checkRange(list.length, from, to);
+        Sorter.sort(list, from, to, comparator);
+    }
+
+    public static void sortInPlace(int[] list) {
+        Sorter.sort(list, 0, list.length);
+    }
+
+    /** Sorts the elements of list between from (inclusive) and to (exclusive) without copying the array.
+     * @param list The array that is sorted in place.
+     * @param from The index of the first element to be sorted.
+     * @param to The index after the last element to be sorted.
+     * */
+    public static void sortInPlace(int[] list, int from, int to) {
+        checkRange(list.length, from, to);
+        Sorter.sort(list, from, to);
+    }
+
+    public static void sortInPlace(int[] list, IntComparator comparator) {
+        Sorter.sort(list, 0, list.length, comparator);
+    }
+
+    /** Sorts the elements of list between from (inclusive) and to (exclusive) in the order imposed by the comparator.
+     * The sort is stable and never boxes the elements it compares.
+     * @param list The array that is sorted in place.
+     * @param from The index of the first element to be sorted.
+     * @param to The index after the last element to be sorted.
+     * @param comparator The order the elements are sorted in.
+     * */
+    public static void sortInPlace(int[] list, int from, int to, IntComparator comparator) {
+        checkRange(list.length, from, to);
+        Sorter.sort(list, from, to, comparator);
+    }
+
+    public static void sortInPlace(long[] list) {
+        Sorter.sort(list, 0, list.length);
+    }
+
+    /** Sorts the elements of list between from (inclusive) and to (exclusive) without copying the array.
+     * @param list The array that is sorted in place.
+     * @param from The index of the first element to be sorted.
+     * @param to The index after the last element to be sorted.
+     * */
+    public static void sortInPlace(long[] list, int from, int to) {
+        checkRange(list.length, from, to);
+        Sorter.sort(list, from, to);
+    }
+
+    public static void sortInPlace(long[] list, LongComparator comparator) {
+        Sorter.sort(list, 0, list.length, comparator);
+    }
+
+    /** Sorts the elements of list between from (inclusive) and to (exclusive) in the order imposed by the comparator.
+     * The sort is stable and never boxes the elements it compares.
+     * @param list The array that is sorted in place.
+     * @param from The index of the first element to be sorted.
+     * @param to The index after the last element to be sorted.
+     * @param comparator The order the elements are sorted in.
+     * */
+    public static void sortInPlace(long[] list, int from, int to, LongComparator comparator) {
+        checkRange(list.length, from, to);
+        Sorter.sort(list, from, to, comparator);
+    }
+
+    public static void sortInPlace(short[] list) {
+        Sorter.sort(list, 0, list.length);
+    }
+
+    /** Sorts the elements of list between from (inclusive) and to (exclusive) without copying the array.
+     * @param list The array that is sorted in place.
+     * @param from The index of the first element to be sorted.
+     * @param to The index after the last element to be sorted.
+     * */
+    public static void sortInPlace(short[] list, int from, int to) {
+        checkRange(list.length, from, to);
+        Sorter.sort(list, from, to);
+    }
+
+    public static void sortInPlace(short[] list, ShortComparator comparator) {
+        Sorter.sort(list, 0, list.length, comparator);
+    }
+
+    /** Sorts the elements of list between from (inclusive) and to (exclusive) in the order imposed by the comparator.
+     * The sort is stable and never boxes the elements it compares.
+     * @param list The array that is sorted in place.
+     * @param from The index of the first element to be sorted.
+     * @param to The index after the last element to be sorted.
+     * @param comparator The order the elements are sorted in.
+     * */
+    public static void sortInPlace(short[] list, int from, int to, ShortComparator comparator) {
+        checkRange(list.length, from, to);
+        Sorter.sort(list, from, to, comparator);
+    }
+
+    public static byte select(byte[] list, int k) {
+        return select(list, 0, list.length, k);
+    }
+
+    /** Finds the k-th smallest element (counting from 0) of list between from (inclusive) and to (exclusive) in linear
+     * time. The range is rearranged on the way: list[k] ends up holding that element, with nothing greater before it
+     * and nothing smaller after it.
+     * @param list The array that is searched and rearranged in place.
+     * @param from The index of the first element of the range.
+     * @param to The index after the last element of the range.
+     * @param k The index the element would have if the range was sorted.
+     * @return The element that would be at index k if the range was sorted.
+     * */
+    public static byte select(byte[] list, int from, int to, int k) {
+        checkRange(list.length, from, to);
+        if (k < from || k >= to) throw new IllegalArgumentException("k must lie inside the range");
+        return Selector.select(list, from, to, k);
+    }
+
+    /** Rearranges list so that its first k elements are its k smallest, in sorted order. The order of the rest is unspecified.
+     * */
+    public static void partialSort(byte[] list, int k) {
+        if (k < 0 || k > list.length) throw new IllegalArgumentException("k must be between 0 and the length of the list");
+        Selector.partialSort(list, 0, list.length, k);
+    }
+
+    /** @return The k largest elements of list in descending order. The list itself is left untouched. */
+    public static byte[] topK(byte[] list, int k) {
+        if (k < 0 || k > list.length) throw new IllegalArgumentException("k must be between 0 and the length of the list");
+        return Selector.topK(list, k);
+    }
+
+    public static char select(char[] list, int k) {
+        return select(list, 0, list.length, k);
+    }
+
+    /** Finds the k-th smallest element (counting from 0) of list between from (inclusive) and to (exclusive) in linear
+     * time. The range is rearranged on the way: list[k] ends up holding that element, with nothing greater before it
+     * and nothing smaller after it.
+     * @param list The array that is searched and rearranged in place.
+     * @param from The index of the first element of the range.
+     * @param to The index after the last element of the range.
+     * @param k The index the element would have if the range was sorted.
+     * @return The element that would be at index k if the range was sorted.
+     * */
+    public static char select(char[] list, int from, int to, int k) {
+        checkRange(list.length, from, to);
+        if (k < from || k >= to) throw new IllegalArgumentException("k must lie inside the range");
+        return Selector.select(list, from, to, k);
+    }
+
+    /** Rearranges list so that its first k elements are its k smallest, in sorted order. The order of the rest is unspecified.
+     * */
+    public static void partialSort(char[] list, int k) {
+        if (k < 0 || k > list.length) throw new IllegalArgumentException("k must be between 0 and the length of the list");
+        Selector.partialSort(list, 0, list.length, k);
+    }
+
+    /** @return The k largest elements of list in descending order. The list itself is left untouched. */
+    public static char[] topK(char[] list, int k) {
+        if (k < 0 || k > list.length) throw new IllegalArgumentException("k must be between 0 and the length of the list");
+        return Selector.topK(list, k);
+    }
+
+    public static short select(short[] list, int k) {
+        return select(list, 0, list.length, k);
+    }
+
+    /** Finds the k-th smallest element (counting from 0) of list between from (inclusive) and to (exclusive) in linear
+     * time. The range is rearranged on the way: list[k] ends up holding that element, with nothing greater before it
+     * and nothing smaller after it.
+     * @param list The array that is searched and rearranged in place.
+     * @param from The index of the first element of the range.
+     * @param to The index after the last element of the range.
+     * @param k The index the element would have if the range was sorted.
+     * @return The element that would be at index k if the range was sorted.
+     * */
+    public static short select(short[] list, int from, int to, int k) {
+        checkRange(list.length, from, to);
+        if (k < from || k >= to) throw new IllegalArgumentException("k must lie inside the range");
+        return Selector.select(list, from, to, k);
+    }
+
+    /** Rearranges list so that its first k elements are its k smallest, in sorted order. The order of the rest is unspecified.
+     * */
+    public static void partialSort(short[] list, int k) {
+        if (k < 0 || k > list.length) throw new IllegalArgumentException("k must be between 0 and the length of the list");
+        Selector.partialSort(list, 0, list.length, k);
+    }
+
+    /** @return The k largest elements of list in descending order. The list itself is left untouched. */
+    public static short[] topK(short[] list, int k) {
+        if (k < 0 || k > list.length) throw new IllegalArgumentException("k must be between 0 and the length of the list");
+        return Selector.topK(list, k);
+    }
+
+    public static int select(int[] list, int k) {
+        return select(list, 0, list.length, k);
+    }
+
+    /** Finds the k-th smallest element (counting from 0) of list between from (inclusive) and to (exclusive) in linear
+     * time. The range is rearranged on the way: list[k] ends up holding that element, with nothing greater before it
+     * and nothing smaller after it.
+     * @param list The array that is searched and rearranged in place.
+     * @param from The index of the first element of the range.
+     * @param to The index after the last element of the range.
+     * @param k The index the element would have if the range was sorted.
+     * @return The element that would be at index k if the range was sorted.
+     * */
+    public static int select(int[] list, int from, int to, int k) {
+        checkRange(list.length, from, to);
+        if (k < from || k >= to) throw new IllegalArgumentException("k must lie inside the range");
+        return Selector.select(list, from, to, k);
+    }
+
+    /** Rearranges list so that its first k elements are its k smallest, in sorted order. The order of the rest is unspecified.
+     * */
+    public static void partialSort(int[] list, int k) {
+        if (k < 0 || k > list.length) throw new IllegalArgumentException("k must be between 0 and the length of the list");
+        Selector.partialSort(list, 0, list.length, k);
+    }
+
+    /** @return The k largest elements of list in descending order. The list itself is left untouched. */
+    public static int[] topK(int[] list, int k) {
+        if (k < 0 || k > list.length) throw new IllegalArgumentException("k must be between 0 and the length of the list");
+        return Selector.topK(list, k);
+    }
+
+    public static long select(long[] list, int k) {
+        return select(list, 0, list.length, k);
+    }
+
+    /** Finds the k-th smallest element (counting from 0) of list between from (inclusive) and to (exclusive) in linear
+     * time. The range is rearranged on the way: list[k] ends up holding that element, with nothing greater before it
+     * and nothing smaller after it.
+     * @param list The array that is searched and rearranged in place.
+     * @param from The index of the first element of the range.
+     * @param to The index after the last element of the range.
+     * @param k The index the element would have if the range was sorted.
+     * @return The element that would be at index k if the range was sorted.
+     * */
+    public static long select(long[] list, int from, int to, int k) {
+        checkRange(list.length, from, to);
+        if (k < from || k >= to) throw new IllegalArgumentException("k must lie inside the range");
+        return Selector.select(list, from, to, k);
+    }
+
+    /** Rearranges list so that its first k elements are its k smallest, in sorted order. The order of the rest is unspecified.
+     * */
+    public static void partialSort(long[] list, int k) {
+        if (k < 0 || k > list.length) throw new IllegalArgumentException("k must be between 0 and the length of the list");
+        Selector.partialSort(list, 0, list.length, k);
+    }
+
+    /** @return The k largest elements of list in descending order. The list itself is left untouched. */
+    public static long[] topK(long[] list, int k) {
+        if (k < 0 || k > list.length) throw new IllegalArgumentException("k must be between 0 and the length of the list");
+        return Selector.topK(list, k);
+    }
+
+    public static float select(float[] list, int k) {
+        return select(list, 0, list.length, k);
+    }
+
+    /** Finds the k-th smallest element (counting from 0) of list between from (inclusive) and to (exclusive) in linear
+     * time. The range is rearranged on the way: list[k] ends up holding that element, with nothing greater before it
+     * and nothing smaller after it.
+     * @param list The array that is searched and rearranged in place.
+     * @param from The index of the first element of the range.
+     * @param to The index after the last element of the range.
+     * @param k The index the element would have if the range was sorted.
+     * @return The element that would be at index k if the range was sorted.
+     * */
+    public static float select(float[] list, int from, int to, int k) {
+        checkRange(list.length, from, to);
+        if (k < from || k >= to) throw new IllegalArgumentException("k must lie inside the range");
+        return Selector.select(list, from, to, k);
+    }
+
+    /** Rearranges list so that its first k elements are its k smallest, in sorted order. The order of the rest is unspecified.
+     * */
+    public static void partialSort(float[] list, int k) {
+        if (k < 0 || k > list.length) throw new IllegalArgumentException("k must be between 0 and the length of the list");
+        Selector.partialSort(list, 0, list.length, k);
+    }
+
+    /** @return The k largest elements of list in descending order. The list itself is left untouched. */
+    public static float[] topK(float[] list, int k) {
+        if (k < 0 || k > list.length) throw new IllegalArgumentException("k must be between 0 and the length of the list");
+        return Selector.topK(list, k);
+    }
+
+    public static double select(double[] list, int k) {
+        return select(list, 0, list.length, k);
+    }
+
+    /** Finds the k-th smallest element (counting from 0) of list between from (inclusive) and to (exclusive) in linear
+     * time. The range is rearranged on the way: list[k] ends up holding that element, with nothing greater before it
+     * and nothing smaller after it.
+     * @param list The array that is searched and rearranged in place.
+     * @param from The index of the first element of the range.
+     * @param to The index after the last element of the range.
+     * @param k The index the element would have if the range was sorted.
+     * @return The element that would be at index k if the range was sorted.
+     * */
+    public static double select(double[] list, int from, int to, int k) {
+        checkRange(list.length, from, to);
+        if (k < from || k >= to) throw new IllegalArgumentException("k must lie inside the range");
+        return Selector.select(list, from, to, k);
+    }
+
+    /** Finds several order statistics of list at once, as if {@link #select(double[], int)} was called for each,
+     * but without searching again the parts of the list an earlier selection has already ruled out.
+     * @param list The array that is searched and rearranged in place.
+     * @param ks The indices the elements would have if the list was sorted, in any order.
+     * @return The element at each of those indices of the sorted list, in the order of ks.
+     * */
+    public static double[] selectAll(double[] list, int... ks) {
+        int[] sorted = ks.clone();
+        Sorter.sort(sorted, 0, sorted.length);
+        if (sorted.length > 0 && (sorted[0] < 0 || sorted[sorted.length - 1] >= list.length)) {
+            throw new IllegalArgumentException("k must lie inside the range");
+        }
+        Selector.selectAll(list, 0, list.length, sorted, 0, sorted.length);
+        double[] found = new double[ks.length];
+        for (int i = 0; i < ks.length; i++) {
+            found[i] = list[ks[i]];
+        }
+        return found;
+    }
+
+    /** Rearranges list so that its first k elements are its k smallest, in sorted order. The order of the rest is unspecified.
+     * */
+    public static void partialSort(double[] list, int k) {
+        if (k < 0 || k > list.length) throw new IllegalArgumentException("k must be between 0 and the length of the list");
+        Selector.partialSort(list, 0, list.length, k);
+    }
+
+    /** @return The k largest elements of list in descending order. The list itself is left untouched. */
+    public static double[] topK(double[] list, int k) {
+        if (k < 0 || k > list.length) throw new IllegalArgumentException("k must be between 0 and the length of the list");
+        return Selector.topK(list, k);
+    }
+
     public static <T> T[] makeSortedArray(T[] list, Comparator<T> comparator) {
         int len = list.length;
         T[] sorted = (T[])(new Object[len]);
@@ -139,114 +675,52 @@ public class ArrayMaker {
         return sorted;
     }
 
+    /** Boxes both operands on every comparison, {@link #sortInPlace(byte[], ByteComparator)} does not. */
     public static byte[] makeSortedArray(byte[] list, Comparator<Byte> comparator) {
-        int len = list.length;
-        byte[] sorted = new byte[len];
-        for (int i = 0; i < len; i++) {
-            byte item = list[i];
-            int ind = i;
-            while (ind > 0 && comparator.compare(list[ind-1], item) > 0) {
-                sorted[ind] = sorted[ind-1];
-                ind--;
-            }
-            sorted[ind] = item;
-        }
+        byte[] sorted = list.clone();
+        Sorter.sort(sorted, 0, sorted.length, (ByteComparator)comparator::compare);
         return sorted;
     }
 
-
+    /** Boxes both operands on every comparison, {@link #sortInPlace(char[], CharComparator)} does not. */
     public static char[] makeSortedArray(char[] list, Comparator<Character> comparator) {
-        int len = list.length;
-        char[] sorted = new char[len];
-        for (int i = 0; i < len; i++) {
-            char item = list[i];
-            int ind = i;
-            while (ind > 0 && comparator.compare(list[ind-1], item) > 0) {
-                sorted[ind] = sorted[ind-1];
-                ind--;
-            }
-            sorted[ind] = item;
-        }
+        char[] sorted = list.clone();
+        Sorter.sort(sorted, 0, sorted.length, (CharComparator)comparator::compare);
         return sorted;
     }
 
-
+    /** Boxes both operands on every comparison, {@link #sortInPlace(double[], DoubleComparator)} does not. */
     public static double[] makeSortedArray(double[] list, Comparator<Double> comparator) {
-        int len = list.length;
-        double[] sorted = new double[len];
-        for (int i = 0; i < len; i++) {
-            double item = list[i];
-            int ind = i;
-            while (ind > 0 && comparator.compare(list[ind-1], item) > 0) {
-                sorted[ind] = sorted[ind-1];
-                ind--;
-            }
-            sorted[ind] = item;
-        }
+        double[] sorted = list.clone();
+        Sorter.sort(sorted, 0, sorted.length, (DoubleComparator)comparator::compare);
         return sorted;
     }
 
-
+    /** Boxes both operands on every comparison, {@link #sortInPlace(float[], FloatComparator)} does not. */
     public static float[] makeSortedArray(float[] list, Comparator<Float> comparator) {
-        int len = list.length;
-        float[] sorted = new float[len];
-        for (int i = 0; i < len; i++) {
-            float item = list[i];
-            int ind = i;
-            while (ind > 0 && comparator.compare(list[ind-1], item) > 0) {
-                sorted[ind] = sorted[ind-1];
-                ind--;
-            }
-            sorted[ind] = item;
-        }
+        float[] sorted = list.clone();
+        Sorter.sort(sorted, 0, sorted.length, (FloatComparator)comparator::compare);
         return sorted;
     }
 
-
+    /** Boxes both operands on every comparison, {@link #sortInPlace(int[], IntComparator)} does not. */
     public static int[] makeSortedArray(int[] list, Comparator<Integer> comparator) {
-        int len = list.length;
-        int[] sorted = new int[len];
-        for (int i = 0; i < len; i++) {
-            int item = list[i];
-            int ind = i;
-            while (ind > 0 && comparator.compare(list[ind-1], item) > 0) {
-                sorted[ind] = sorted[ind-1];
-                ind--;
-            }
-            sorted[ind] = item;
-        }
+        int[] sorted = list.clone();
+        Sorter.sort(sorted, 0, sorted.length, (IntComparator)comparator::compare);
         return sorted;
     }
 
-
+    /** Boxes both operands on every comparison, {@link #sortInPlace(long[], LongComparator)} does not. */
     public static long[] makeSortedArray(long[] list, Comparator<Long> comparator) {
-        int len = list.length;
-        long[] sorted = new long[len];
-        for (int i = 0; i < len; i++) {
-            long item = list[i];
-            int ind = i;
-            while (ind > 0 && comparator.compare(list[ind-1], item) > 0) {
-                sorted[ind] = sorted[ind-1];
-                ind--;
-            }
-            sorted[ind] = item;
-        }
+        long[] sorted = list.clone();
+        Sorter.sort(sorted, 0, sorted.length, (LongComparator)comparator::compare);
         return sorted;
     }
 
-
+    /** Boxes both operands on every comparison, {@link #sortInPlace(short[], ShortComparator)} does not. */
     public static short[] makeSortedArray(short[] list, Comparator<Short> comparator) {
-        int len = list.length;
-        short[] sorted = new short[len];
-        for (int i = 0; i < len; i++) {
-            short item = list[i];
-            int ind = i;
-            while (ind > 0 && comparator.compare(list[ind-1], item) > 0) {
-                sorted[ind] = sorted[ind-1];
-                ind--;
-            }
-            sorted[ind] = item;
-        }
+        short[] sorted = list.clone();
+        Sorter.sort(sorted, 0, sorted.length, (ShortComparator)comparator::compare);
         return sorted;
     }
 
@@ -260,9 +734,92 @@ public class ArrayMaker {
         return comb.intersection();
     }
 
+    /** The multiset difference keeps every element of a as many times as it occurs in a beyond its occurrences in b.
+     * */
+    public static <T> T[] difference(T[] a, T[] b) {
+        CombinedArray<T> comb = new CombinedArray<>(a, b);
+        return comb.difference();
+    }
+
+    /** The multiset union keeps every element as many times as it occurs in whichever of a and b holds more of it.
+     * Sorted inputs are merged in one pass and give a sorted result, other inputs are counted in a primitive hash table
+     * and give the elements in the order they first appear.
+     * */
+    public static int[] union(int[] a, int[] b) {
+        return Multisets.combine(a, b, Multisets.Operation.UNION);
+    }
+
+    /** The multiset intersection keeps every element as many times as it occurs in whichever of a and b holds less of it.
+     * Sorted inputs are merged in one pass and give a sorted result, other inputs are counted in a primitive hash table
+     * and give the elements in the order they first appear.
+     * */
+    public static int[] intersection(int[] a, int[] b) {
+        return Multisets.combine(a, b, Multisets.Operation.INTERSECTION);
+    }
+
+    /** The multiset difference keeps every element of a as many times as it occurs in a beyond its occurrences in b.
+     * Sorted inputs are merged in one pass and give a sorted result, other inputs are counted in a primitive hash table
+     * and give the elements in the order they first appear.
+     * */
+    public static int[] difference(int[] a, int[] b) {
+        return Multisets.combine(a, b, Multisets.Operation.DIFFERENCE);
+    }
+
+    /** The multiset union keeps every element as many times as it occurs in whichever of a and b holds more of it.
+     * Sorted inputs are merged in one pass and give a sorted result, other inputs are counted in a primitive hash table
+     * and give the elements in the order they first appear.
+     * */
+    public static long[] union(long[] a, long[] b) {
+        return Multisets.combine(a, b, Multisets.Operation.UNION);
+    }
+
+    /** The multiset intersection keeps every element as many times as it occurs in whichever of a and b holds less of it.
+     * Sorted inputs are merged in one pass and give a sorted result, other inputs are counted in a primitive hash table
+     * and give the elements in the order they first appear.
+     * */
+    public static long[] intersection(long[] a, long[] b) {
+        return Multisets.combine(a, b, Multisets.Operation.INTERSECTION);
+    }
+
+    /** The multiset difference keeps every element of a as many times as it occurs in a beyond its occurrences in b.
+     * Sorted inputs are merged in one pass and give a sorted result, other inputs are counted in a primitive hash table
+     * and give the elements in the order they first appear.
+     * */
+    public static long[] difference(long[] a, long[] b) {
+        return Multisets.combine(a, b, Multisets.Operation.DIFFERENCE);
+    }
+
+    /** The multiset union keeps every element as many times as it occurs in whichever of a and b holds more of it.
+     * Sorted inputs are merged in one pass and give a sorted result, other inputs are counted in a primitive hash table
+     * and give the elements in the order they first appear.
+     * */
+    public static double[] union(double[] a, double[] b) {
+        return Multisets.combine(a, b, Multisets.Operation.UNION);
+    }
+
+    /** The multiset intersection keeps every element as many times as it occurs in whichever of a and b holds less of it.
+     * Sorted inputs are merged in one pass and give a sorted result, other inputs are counted in a primitive hash table
+     * and give the elements in the order they first appear.
+     * */
+    public static double[] intersection(double[] a, double[] b) {
+        return Multisets.combine(a, b, Multisets.Operation.INTERSECTION);
+    }
+
+    /** The multiset difference keeps every element of a as many times as it occurs in a beyond its occurrences in b.
+     * Sorted inputs are merged in one pass and give a sorted result, other inputs are counted in a primitive hash table
+     * and give the elements in the order they first appear.
+     * */
+    public static double[] difference(double[] a, double[] b) {
+        return Multisets.combine(a, b, Multisets.Operation.DIFFERENCE);
+    }
+
+    /** Applies the formula to every item and returns the results in a new array of the same type as items.
+     * Numeric columns should go through {@link ArrayTransforms#map(double[], java.util.function.DoubleUnaryOperator, double[])}
+     * and its siblings instead, which never box an element.
+     * */
     public static <T> T[] createArrayFromFormula(T[] items, Function<T, T> formula) {
         int len = items.length;
-        T[] arr = (T[])(new Object[len]);
+        T[] arr = Arrays.copyOf(items, len);
         for (int i = 0; i < len; i++) {
             T t = items[i];
             arr[i] = formula.apply(t);
@@ -270,8 +827,14 @@ public class ArrayMaker {
         return arr;
     }
 
-    private static <T> T[] createArrayFromMap(Map<T, Integer> map, Set<T> items, int len) {
-        T[] arr = (T[])(new Object[len]);
+    private static void checkRange(int length, int from, int to) {
+        if (from > to) throw new IllegalArgumentException("from(" + from + ") > to(" + to + ")");
+        if (from < 0) throw new ArrayIndexOutOfBoundsException(from);
+        if (to > length) throw new ArrayIndexOutOfBoundsException(to);
+    }
+
+    private static <T> T[] createArrayFromMap(T[] type, Map<T, Integer> map, Set<T> items, int len) {
+        T[] arr = Arrays.copyOf(type, len);
         int ind = 0;
         for (T item : items) {
             int loops = map.getOrDefault(item, 0);
@@ -283,10 +846,12 @@ public class ArrayMaker {
     }
 
     private static class CombinedArray<T> {
+        private T[] type;
         private Map<T, Integer> aMap;
         private Map<T, Integer> bMap;
         private Set<T> items;
         private CombinedArray(T[] a, T[] b) {
+            type = a;
             boolean comp = a instanceof Comparable[] && b instanceof Comparable[];
             items = comp ? new TreeSet<>() : new HashSet<>();
             aMap = comp ? new TreeMap<>() : new HashMap<>();
@@ -312,7 +877,7 @@ public class ArrayMaker {
                 arrLen += max;
                 map.put(item, max);
             }
-            return createArrayFromMap(map, items, arrLen);
+            return createArrayFromMap(type, map, items, arrLen);
         }
 
         public T[] intersection() {
@@ -325,7 +890,20 @@ public class ArrayMaker {
                 arrLen += min;
                 map.put(item, min);
             }
-            return createArrayFromMap(map, items, arrLen);
+            return createArrayFromMap(type, map, items, arrLen);
+        }
+
+        public T[] difference() {
+            Map<T, Integer> map = new HashMap<>();
+            int arrLen = 0;
+            for (T item : items) {
+                int aCnt = aMap.getOrDefault(item, 0);
+                int bCnt = bMap.getOrDefault(item, 0);
+                int diff = Math.max(aCnt - bCnt, 0);
+                arrLen += diff;
+                map.put(item, diff);
+            }
+            return createArrayFromMap(type, map, items, arrLen);
         }
     }
 }
@@ -0,0 +1,16 @@
+package net.leng.array;
+
+/** A comparison function over two byte values that, unlike {@link java.util.Comparator}, never boxes its operands.
+ * */
+@FunctionalInterface
+public interface ByteComparator {
+    /** Compares two values for order.
+     * @return A negative number, zero or a positive number if a is less than, equal to or greater than b.
+     * */
+    int compare(byte a, byte b);
+
+    /** @return A comparator that imposes the reverse ordering of this one. */
+    default ByteComparator reversed() {
+        return (a, b) -> compare(b, a);
+    }
+}
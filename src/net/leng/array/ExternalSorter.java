@@ -0,0 +1,224 @@
+package net.leng.array;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/** Sorts files of raw little-endian doubles or longs that are too large to be loaded into a single array.
+ * <p>
+ * The input is read through memory-mapped runs that fit the memory budget, each run is sorted by the same engine as
+ * {@link ArrayMaker#sortInPlace(double[])} and written to a temporary file next to the output, and the sorted runs are
+ * then merged k ways into the output through mapped windows that share the same budget. A file that fits into a
+ * single run is sorted without a temporary file.
+ * <p>
+ * doubles end up in the same order as {@link java.util.Arrays#sort(double[])} would put them in.
+ * */
+public class ExternalSorter {
+    /** The memory budget used when the caller does not give one. */
+    public static final long DEFAULT_MEMORY_BUDGET = 64L << 20;
+
+    /** The smallest budget accepted, below which the run count grows out of hand. */
+    private static final long MIN_MEMORY_BUDGET = 1L << 16;
+
+    /** Runs are capped so that one of them always fits into a single mapping. */
+    private static final int MAX_RUN = 1 << 27;
+
+    /** Merge windows are never made smaller than this many elements. */
+    private static final int MIN_WINDOW = 1 << 10;
+
+    private ExternalSorter() {} // ensures no one has access to the object
+
+    private enum Kind {
+        LONG,
+        DOUBLE;
+
+        /** @return a key whose unsigned order is the sorted order of the element stored as bits. */
+        long key(long bits) {
+            return this == LONG ? bits ^ Long.MIN_VALUE : Sorter.key(Double.longBitsToDouble(bits));
+        }
+    }
+
+    public static void sortDoubles(Path input, Path output) throws IOException {
+        sortDoubles(input, output, DEFAULT_MEMORY_BUDGET);
+    }
+
+    /** Sorts a file of little-endian doubles into another file.
+     * @param input The file to be sorted, which is left untouched.
+     * @param output The file the sorted doubles are written to, replacing anything it held before.
+     * @param memoryBudget Roughly how many bytes of memory the sort may hold at once, mapped windows included.
+     * */
+    public static void sortDoubles(Path input, Path output, long memoryBudget) throws IOException {
+        sort(input, output, memoryBudget, Kind.DOUBLE);
+    }
+
+    public static void sortLongs(Path input, Path output) throws IOException {
+        sortLongs(input, output, DEFAULT_MEMORY_BUDGET);
+    }
+
+    /** Sorts a file of little-endian longs into another file.
+     * @param input The file to be sorted, which is left untouched.
+     * @param output The file the sorted longs are written to, replacing anything it held before.
+     * @param memoryBudget Roughly how many bytes of memory the sort may hold at once, mapped windows included.
+     * */
+    public static void sortLongs(Path input, Path output, long memoryBudget) throws IOException {
+        sort(input, output, memoryBudget, Kind.LONG);
+    }
+
+    private static void sort(Path input, Path output, long memoryBudget, Kind kind) throws IOException {
+        if (memoryBudget < MIN_MEMORY_BUDGET) {
+            throw new IllegalArgumentException("Memory budget must be at least " + MIN_MEMORY_BUDGET + " bytes");
+        }
+        if (Files.exists(output) && Files.isSameFile(input, output)) {
+            throw new IllegalArgumentException("Input and output must be different files");
+        }
+        try (FileChannel in = FileChannel.open(input, StandardOpenOption.READ)) {
+            long bytes = in.size();
+            if ((bytes & 7) != 0) throw new IllegalArgumentException("File size must be a multiple of 8 bytes");
+            long n = bytes >>> 3;
+            // The run and the scratch buffer of the radix sort are both held in memory.
+            int runLen = (int)Math.min(Math.min(memoryBudget >>> 4, MAX_RUN), Math.max(n, 1));
+            try (FileChannel out = FileChannel.open(output, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                if (n <= runLen) {
+                    sortRuns(in, out, n, runLen, kind);
+                    return;
+                }
+                Path temp = Files.createTempFile(output.toAbsolutePath().getParent(), "runs", ".tmp");
+                try (FileChannel runs = FileChannel.open(temp, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                    sortRuns(in, runs, n, runLen, kind);
+                    merge(runs, out, n, runLen, memoryBudget, kind);
+                } finally {
+                    Files.deleteIfExists(temp);
+                }
+            }
+        }
+    }
+
+    /** Sorts every run of the source in memory and writes it to the same position of the destination. */
+    private static void sortRuns(FileChannel src, FileChannel dst, long n, int runLen, Kind kind) throws IOException {
+        if (kind == Kind.DOUBLE) {
+            double[] run = new double[runLen];
+            double[] scratch = new double[runLen];
+            for (long start = 0; start < n; start += runLen) {
+                int len = (int)Math.min(runLen, n - start);
+                map(src, FileChannel.MapMode.READ_ONLY, start, len).asDoubleBuffer().get(run, 0, len);
+                Sorter.sort(run, 0, len, scratch, 0);
+                map(dst, FileChannel.MapMode.READ_WRITE, start, len).asDoubleBuffer().put(run, 0, len);
+            }
+        } else {
+            long[] run = new long[runLen];
+            long[] scratch = new long[runLen];
+            for (long start = 0; start < n; start += runLen) {
+                int len = (int)Math.min(runLen, n - start);
+                map(src, FileChannel.MapMode.READ_ONLY, start, len).asLongBuffer().get(run, 0, len);
+                Sorter.sort(run, 0, len, scratch, 0);
+                map(dst, FileChannel.MapMode.READ_WRITE, start, len).asLongBuffer().put(run, 0, len);
+            }
+        }
+    }
+
+    /** Merges the sorted runs of the source into the destination through a heap of run indices. */
+    private static void merge(FileChannel runs, FileChannel dst, long n, int runLen, long memoryBudget, Kind kind)
+            throws IOException {
+        int k = (int)((n + runLen - 1) / runLen);
+        int window = (int)Math.max(MIN_WINDOW, Math.min(MAX_RUN, (memoryBudget >>> 3) / (k + 1)));
+        Run[] readers = new Run[k];
+        int[] heap = new int[k];
+        int size = 0;
+        for (int r = 0; r < k; r++) {
+            long start = (long)r * runLen;
+            readers[r] = new Run(runs, start, Math.min(start + runLen, n), window, kind);
+            if (readers[r].advance()) {
+                heap[size] = r;
+                siftUp(heap, size++, readers);
+            }
+        }
+        LongBuffer out = null;
+        long written = 0;
+        while (size > 0) {
+            if (out == null || !out.hasRemaining()) {
+                out = map(dst, FileChannel.MapMode.READ_WRITE, written, (int)Math.min(window, n - written)).asLongBuffer();
+            }
+            Run top = readers[heap[0]];
+            out.put(top.bits);
+            written++;
+            if (!top.advance()) {
+                heap[0] = heap[--size];
+            }
+            if (size > 0) siftDown(heap, size, readers);
+        }
+    }
+
+    private static void siftUp(int[] heap, int i, Run[] runs) {
+        int r = heap[i];
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (Long.compareUnsigned(runs[r].key, runs[heap[parent]].key) >= 0) break;
+            heap[i] = heap[parent];
+            i = parent;
+        }
+        heap[i] = r;
+    }
+
+    private static void siftDown(int[] heap, int size, Run[] runs) {
+        int i = 0;
+        int r = heap[0];
+        int half = size >>> 1;
+        while (i < half) {
+            int child = 2 * i + 1;
+            int right = child + 1;
+            if (right < size && Long.compareUnsigned(runs[heap[right]].key, runs[heap[child]].key) < 0) child = right;
+            if (Long.compareUnsigned(runs[heap[child]].key, runs[r].key) >= 0) break;
+            heap[i] = heap[child];
+            i = child;
+        }
+        heap[i] = r;
+    }
+
+    private static MappedByteBuffer map(FileChannel channel, FileChannel.MapMode mode, long start, int len)
+            throws IOException {
+        MappedByteBuffer buffer = channel.map(mode, start << 3, (long)len << 3);
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        return buffer;
+    }
+
+    /** Reads one sorted run through a mapped window that slides along it. */
+    private static final class Run {
+        private final FileChannel channel;
+        private final long end;
+        private final int window;
+        private final Kind kind;
+        private long next;
+        private LongBuffer buffer;
+        private long bits;
+        private long key;
+
+        private Run(FileChannel channel, long start, long end, int window, Kind kind) {
+            this.channel = channel;
+            this.next = start;
+            this.end = end;
+            this.window = window;
+            this.kind = kind;
+        }
+
+        /** Moves on to the next element of the run.
+         * @return false once the run is exhausted.
+         * */
+        private boolean advance() throws IOException {
+            if (buffer == null || !buffer.hasRemaining()) {
+                if (next >= end) return false;
+                int len = (int)Math.min(window, end - next);
+                buffer = map(channel, FileChannel.MapMode.READ_ONLY, next, len).asLongBuffer();
+                next += len;
+            }
+            bits = buffer.get();
+            key = kind.key(bits);
+            return true;
+        }
+    }
+}
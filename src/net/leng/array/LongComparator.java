@@ -0,0 +1,16 @@
+package net.leng.array;
+
+/** A comparison function over two long values that, unlike {@link java.util.Comparator}, never boxes its operands.
+ * */
+@FunctionalInterface
+public interface LongComparator {
+    /** Compares two values for order.
+     * @return A negative number, zero or a positive number if a is less than, equal to or greater than b.
+     * */
+    int compare(long a, long b);
+
+    /** @return A comparator that imposes the reverse ordering of this one. */
+    default LongComparator reversed() {
+        return (a, b) -> compare(b, a);
+    }
+}
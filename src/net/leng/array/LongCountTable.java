@@ -0,0 +1,101 @@
+package net.leng.array;
+
+import java.util.Arrays;
+
+/** An open addressing hash table from long keys to a pair of occurrence counts, one for each side of a
+ * multiset operation. Keys are kept in the order they were first added so that results come out in a
+ * predictable order, and neither keys nor counts are ever boxed.
+ * */
+final class LongCountTable {
+    private static final int EMPTY = 0;
+
+    /** Entry index plus one for every slot, or {@link #EMPTY}. */
+    private int[] slots;
+    private long[] keys;
+    private int[] aCounts;
+    private int[] bCounts;
+    private int size;
+
+    LongCountTable(int expected) {
+        int capacity = Integer.highestOneBit(Math.max(expected, 8) * 2 - 1) << 1;
+        slots = new int[capacity];
+        keys = new long[Math.max(expected, 8)];
+        aCounts = new int[keys.length];
+        bCounts = new int[keys.length];
+    }
+
+    int size() {
+        return size;
+    }
+
+    long key(int entry) {
+        return keys[entry];
+    }
+
+    int aCount(int entry) {
+        return aCounts[entry];
+    }
+
+    int bCount(int entry) {
+        return bCounts[entry];
+    }
+
+    void addA(long key) {
+        aCounts[entry(key)]++;
+    }
+
+    void addB(long key) {
+        bCounts[entry(key)]++;
+    }
+
+    /** @return the entry index of the key, adding it first if it is missing. */
+    private int entry(long key) {
+        int mask = slots.length - 1;
+        int slot = mix(key) & mask;
+        while (true) {
+            int e = slots[slot];
+            if (e == EMPTY) break;
+            if (keys[e - 1] == key) return e - 1;
+            slot = (slot + 1) & mask;
+        }
+        if (size == keys.length) grow();
+        int e = size++;
+        keys[e] = key;
+        if (size << 1 > slots.length) {
+            rehash();
+        } else {
+            slots[slot] = e + 1;
+        }
+        return e;
+    }
+
+    private void grow() {
+        int len = keys.length << 1;
+        keys = Arrays.copyOf(keys, len);
+        aCounts = Arrays.copyOf(aCounts, len);
+        bCounts = Arrays.copyOf(bCounts, len);
+    }
+
+    private void rehash() {
+        int[] table = new int[slots.length << 1];
+        int mask = table.length - 1;
+        for (int e = 0; e < size; e++) {
+            int slot = mix(keys[e]) & mask;
+            while (table[slot] != EMPTY) {
+                slot = (slot + 1) & mask;
+            }
+            table[slot] = e + 1;
+        }
+        slots = table;
+    }
+
+    /** The finalizer of MurmurHash3, so that sequential ids spread across the whole table. */
+    private static int mix(long key) {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        key *= 0xc4ceb9fe1a85ec53L;
+        key ^= key >>> 33;
+        return (int)key;
+    }
+}
@@ -0,0 +1,194 @@
+package net.leng.array;
+
+import java.util.Arrays;
+
+/** Multiset union, intersection and difference over primitive arrays.
+ * <p>
+ * When both inputs are already sorted the two arrays are merged in a single linear pass and the result is sorted as
+ * well. Otherwise the occurrences are counted in a {@link LongCountTable} and the result lists every element in the
+ * order it first appears in a, then in b. Either way each element is repeated as many times as the operation calls
+ * for: the larger of its two counts for a union, the smaller for an intersection and the surplus of a over b for a
+ * difference.
+ * <p>
+ * doubles are told apart the same way {@link Double#equals} does, so -0.0 and 0.0 are different elements while
+ * every NaN is the same one.
+ * */
+final class Multisets {
+    enum Operation {
+        UNION,
+        INTERSECTION,
+        DIFFERENCE;
+
+        /** @return how many times an element occurring a times in the first array and b times in the second is kept. */
+        int count(int a, int b) {
+            return switch (this) {
+                case UNION -> Math.max(a, b);
+                case INTERSECTION -> Math.min(a, b);
+                case DIFFERENCE -> Math.max(a - b, 0);
+            };
+        }
+
+        /** @return the longest result this operation can produce from arrays of length a and b. */
+        private int bound(int a, int b) {
+            return switch (this) {
+                case UNION -> a + b;
+                case INTERSECTION -> Math.min(a, b);
+                case DIFFERENCE -> a;
+            };
+        }
+    }
+
+    private Multisets() {} // ensures no one has access to the object
+
+    static int[] combine(int[] a, int[] b, Operation op) {
+        if (isSorted(a) && isSorted(b)) {
+            int[] out = new int[op.bound(a.length, b.length)];
+            int len = 0;
+            int i = 0, j = 0;
+            while (i < a.length || j < b.length) {
+                int v;
+                if (j == b.length || (i < a.length && a[i] < b[j])) v = a[i];
+                else v = b[j];
+                int ca = 0, cb = 0;
+                while (i < a.length && a[i] == v) {
+                    i++;
+                    ca++;
+                }
+                while (j < b.length && b[j] == v) {
+                    j++;
+                    cb++;
+                }
+                int c = op.count(ca, cb);
+                Arrays.fill(out, len, len + c, v);
+                len += c;
+            }
+            return len == out.length ? out : Arrays.copyOf(out, len);
+        }
+        LongCountTable table = new LongCountTable(a.length + b.length);
+        for (int v : a) {
+            table.addA(v);
+        }
+        for (int v : b) {
+            table.addB(v);
+        }
+        int[] out = new int[length(table, op)];
+        int len = 0;
+        for (int e = 0; e < table.size(); e++) {
+            int c = op.count(table.aCount(e), table.bCount(e));
+            Arrays.fill(out, len, len + c, (int)table.key(e));
+            len += c;
+        }
+        return out;
+    }
+
+    static long[] combine(long[] a, long[] b, Operation op) {
+        if (isSorted(a) && isSorted(b)) {
+            long[] out = new long[op.bound(a.length, b.length)];
+            int len = 0;
+            int i = 0, j = 0;
+            while (i < a.length || j < b.length) {
+                long v;
+                if (j == b.length || (i < a.length && a[i] < b[j])) v = a[i];
+                else v = b[j];
+                int ca = 0, cb = 0;
+                while (i < a.length && a[i] == v) {
+                    i++;
+                    ca++;
+                }
+                while (j < b.length && b[j] == v) {
+                    j++;
+                    cb++;
+                }
+                int c = op.count(ca, cb);
+                Arrays.fill(out, len, len + c, v);
+                len += c;
+            }
+            return len == out.length ? out : Arrays.copyOf(out, len);
+        }
+        LongCountTable table = new LongCountTable(a.length + b.length);
+        for (long v : a) {
+            table.addA(v);
+        }
+        for (long v : b) {
+            table.addB(v);
+        }
+        long[] out = new long[length(table, op)];
+        int len = 0;
+        for (int e = 0; e < table.size(); e++) {
+            int c = op.count(table.aCount(e), table.bCount(e));
+            Arrays.fill(out, len, len + c, table.key(e));
+            len += c;
+        }
+        return out;
+    }
+
+    static double[] combine(double[] a, double[] b, Operation op) {
+        if (isSorted(a) && isSorted(b)) {
+            double[] out = new double[op.bound(a.length, b.length)];
+            int len = 0;
+            int i = 0, j = 0;
+            while (i < a.length || j < b.length) {
+                double v;
+                if (j == b.length || (i < a.length && Double.compare(a[i], b[j]) < 0)) v = a[i];
+                else v = b[j];
+                int ca = 0, cb = 0;
+                while (i < a.length && Double.compare(a[i], v) == 0) {
+                    i++;
+                    ca++;
+                }
+                while (j < b.length && Double.compare(b[j], v) == 0) {
+                    j++;
+                    cb++;
+                }
+                int c = op.count(ca, cb);
+                Arrays.fill(out, len, len + c, v);
+                len += c;
+            }
+            return len == out.length ? out : Arrays.copyOf(out, len);
+        }
+        LongCountTable table = new LongCountTable(a.length + b.length);
+        for (double v : a) {
+            table.addA(Double.doubleToLongBits(v));
+        }
+        for (double v : b) {
+            table.addB(Double.doubleToLongBits(v));
+        }
+        double[] out = new double[length(table, op)];
+        int len = 0;
+        for (int e = 0; e < table.size(); e++) {
+            int c = op.count(table.aCount(e), table.bCount(e));
+            Arrays.fill(out, len, len + c, Double.longBitsToDouble(table.key(e)));
+            len += c;
+        }
+        return out;
+    }
+
+    private static int length(LongCountTable table, Operation op) {
+        int len = 0;
+        for (int e = 0; e < table.size(); e++) {
+            len += op.count(table.aCount(e), table.bCount(e));
+        }
+        return len;
+    }
+
+    private static boolean isSorted(int[] a) {
+        for (int i = 1; i < a.length; i++) {
+            if (a[i-1] > a[i]) return false;
+        }
+        return true;
+    }
+
+    private static boolean isSorted(long[] a) {
+        for (int i = 1; i < a.length; i++) {
+            if (a[i-1] > a[i]) return false;
+        }
+        return true;
+    }
+
+    private static boolean isSorted(double[] a) {
+        for (int i = 1; i < a.length; i++) {
+            if (Double.compare(a[i-1], a[i]) > 0) return false;
+        }
+        return true;
+    }
+}
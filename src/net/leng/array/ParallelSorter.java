@@ -0,0 +1,643 @@
+package net.leng.array;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+
+/** Fork-join counterpart to {@link Sorter}.
+ * <p>
+ * int, long, float and double ranges are cut into leaves that are radix sorted by {@link Sorter} and then merged
+ * back together, with every merge itself split across the pool. The sorted run alternates between the array and
+ * a single scratch buffer on each level so nothing is copied back between merges. byte, char and short ranges are
+ * counting sorted with the histogram built in parallel.
+ * <p>
+ * Ranges no longer than the threshold are sorted sequentially on the calling thread.
+ * */
+final class ParallelSorter {
+    /** Leaves are never made shorter than this, whatever the parallelism of the pool is. */
+    private static final int MIN_LEAF = 1 << 13;
+
+    /** Merges shorter than this are not split any further. */
+    private static final int MERGE_GRAIN = 1 << 13;
+
+    private ParallelSorter() {} // ensures no one has access to the object
+
+    private static int leafSize(ForkJoinPool pool, int n) {
+        return Math.max(MIN_LEAF, n / (pool.getParallelism() << 2));
+    }
+
+    private static void checkThreshold(int threshold) {
+        if (threshold < 1) throw new IllegalArgumentException("Threshold must be positive");
+    }
+
+    static void sort(byte[] a, int from, int to, ForkJoinPool pool, int threshold) {
+        checkThreshold(threshold);
+        int n = to - from;
+        if (n <= threshold) {
+            Sorter.sort(a, from, to);
+            return;
+        }
+        int[] count = pool.invoke(new ByteHistogram(a, from, to, leafSize(pool, n)));
+        int ind = from;
+        for (int d = 0; d < count.length; d++) {
+            Arrays.fill(a, ind, ind + count[d], (byte)(d - 128));
+            ind += count[d];
+        }
+    }
+
+    static void sort(char[] a, int from, int to, ForkJoinPool pool, int threshold) {
+        checkThreshold(threshold);
+        int n = to - from;
+        if (n <= threshold) {
+            Sorter.sort(a, from, to);
+            return;
+        }
+        int[] count = pool.invoke(new CharHistogram(a, from, to, leafSize(pool, n)));
+        int ind = from;
+        for (int d = 0; d < count.length; d++) {
+            Arrays.fill(a, ind, ind + count[d], (char)d);
+            ind += count[d];
+        }
+    }
+
+    static void sort(short[] a, int from, int to, ForkJoinPool pool, int threshold) {
+        checkThreshold(threshold);
+        int n = to - from;
+        if (n <= threshold) {
+            Sorter.sort(a, from, to);
+            return;
+        }
+        int[] count = pool.invoke(new ShortHistogram(a, from, to, leafSize(pool, n)));
+        int ind = from;
+        for (int d = 0; d < count.length; d++) {
+            Arrays.fill(a, ind, ind + count[d], (short)(d - 32768));
+            ind += count[d];
+        }
+    }
+
+    static void sort(int[] a, int from, int to, ForkJoinPool pool, int threshold) {
+        checkThreshold(threshold);
+        int n = to - from;
+        if (n <= threshold) {
+            Sorter.sort(a, from, to);
+            return;
+        }
+        int[] buf = new int[n];
+        pool.invoke(new IntSort(a, buf, from, from, to, false, leafSize(pool, n)));
+    }
+
+    static void sort(long[] a, int from, int to, ForkJoinPool pool, int threshold) {
+        checkThreshold(threshold);
+        int n = to - from;
+        if (n <= threshold) {
+            Sorter.sort(a, from, to);
+            return;
+        }
+        long[] buf = new long[n];
+        pool.invoke(new LongSort(a, buf, from, from, to, false, leafSize(pool, n)));
+    }
+
+    static void sort(float[] a, int from, int to, ForkJoinPool pool, int threshold) {
+        checkThreshold(threshold);
+        int n = to - from;
+        if (n <= threshold) {
+            Sorter.sort(a, from, to);
+            return;
+        }
+        float[] buf = new float[n];
+        pool.invoke(new FloatSort(a, buf, from, from, to, false, leafSize(pool, n)));
+    }
+
+    static void sort(double[] a, int from, int to, ForkJoinPool pool, int threshold) {
+        checkThreshold(threshold);
+        int n = to - from;
+        if (n <= threshold) {
+            Sorter.sort(a, from, to);
+            return;
+        }
+        double[] buf = new double[n];
+        pool.invoke(new DoubleSort(a, buf, from, from, to, false, leafSize(pool, n)));
+    }
+
+    @SuppressWarnings("serial")
+    private static final class ByteHistogram extends RecursiveTask<int[]> {
+        private final byte[] a;
+        private final int lo;
+        private final int hi;
+        private final int leaf;
+
+        private ByteHistogram(byte[] a, int lo, int hi, int leaf) {
+            this.a = a;
+            this.lo = lo;
+            this.hi = hi;
+            this.leaf = leaf;
+        }
+
+        @Override
+        protected int[] compute() {
+            if (hi - lo <= leaf) {
+                int[] count = new int[1 << 8];
+                for (int i = lo; i < hi; i++) {
+                    count[a[i] + 128]++;
+                }
+                return count;
+            }
+            int mid = (lo + hi) >>> 1;
+            ByteHistogram left = new ByteHistogram(a, lo, mid, leaf);
+            left.fork();
+            int[] count = new ByteHistogram(a, mid, hi, leaf).compute();
+            int[] other = left.join();
+            for (int d = 0; d < count.length; d++) {
+                count[d] += other[d];
+            }
+            return count;
+        }
+    }
+
+    @SuppressWarnings("serial")
+    private static final class CharHistogram extends RecursiveTask<int[]> {
+        private final char[] a;
+        private final int lo;
+        private final int hi;
+        private final int leaf;
+
+        private CharHistogram(char[] a, int lo, int hi, int leaf) {
+            this.a = a;
+            this.lo = lo;
+            this.hi = hi;
+            this.leaf = leaf;
+        }
+
+        @Override
+        protected int[] compute() {
+            if (hi - lo <= leaf) {
+                int[] count = new int[1 << 16];
+                for (int i = lo; i < hi; i++) {
+                    count[a[i]]++;
+                }
+                return count;
+            }
+            int mid = (lo + hi) >>> 1;
+            CharHistogram left = new CharHistogram(a, lo, mid, leaf);
+            left.fork();
+            int[] count = new CharHistogram(a, mid, hi, leaf).compute();
+            int[] other = left.join();
+            for (int d = 0; d < count.length; d++) {
+                count[d] += other[d];
+            }
+            return count;
+        }
+    }
+
+    @SuppressWarnings("serial")
+    private static final class ShortHistogram extends RecursiveTask<int[]> {
+        private final short[] a;
+        private final int lo;
+        private final int hi;
+        private final int leaf;
+
+        private ShortHistogram(short[] a, int lo, int hi, int leaf) {
+            this.a = a;
+            this.lo = lo;
+            this.hi = hi;
+            this.leaf = leaf;
+        }
+
+        @Override
+        protected int[] compute() {
+            if (hi - lo <= leaf) {
+                int[] count = new int[1 << 16];
+                for (int i = lo; i < hi; i++) {
+                    count[a[i] + 32768]++;
+                }
+                return count;
+            }
+            int mid = (lo + hi) >>> 1;
+            ShortHistogram left = new ShortHistogram(a, lo, mid, leaf);
+            left.fork();
+            int[] count = new ShortHistogram(a, mid, hi, leaf).compute();
+            int[] other = left.join();
+            for (int d = 0; d < count.length; d++) {
+                count[d] += other[d];
+            }
+            return count;
+        }
+    }
+
+    /** Sorts a[lo, hi) leaving the result in a, or in w when toW is set.
+     * Index i of a corresponds to index i - base of w.
+     * */
+    @SuppressWarnings("serial")
+    private static final class IntSort extends RecursiveAction {
+        private final int[] a;
+        private final int[] w;
+        private final int base;
+        private final int lo;
+        private final int hi;
+        private final boolean toW;
+        private final int leaf;
+
+        private IntSort(int[] a, int[] w, int base, int lo, int hi, boolean toW, int leaf) {
+            this.a = a;
+            this.w = w;
+            this.base = base;
+            this.lo = lo;
+            this.hi = hi;
+            this.toW = toW;
+            this.leaf = leaf;
+        }
+
+        @Override
+        protected void compute() {
+            if (hi - lo <= leaf) {
+                Sorter.sort(a, lo, hi, w, lo - base);
+                if (toW) System.arraycopy(a, lo, w, lo - base, hi - lo);
+                return;
+            }
+            int mid = (lo + hi) >>> 1;
+            invokeAll(new IntSort(a, w, base, lo, mid, !toW, leaf), new IntSort(a, w, base, mid, hi, !toW, leaf));
+            if (toW) {
+                new IntMerge(a, lo, mid, mid, hi, w, lo - base).compute();
+            } else {
+                new IntMerge(w, lo - base, mid - base, mid - base, hi - base, a, lo).compute();
+            }
+        }
+    }
+
+    @SuppressWarnings("serial")
+    private static final class IntMerge extends RecursiveAction {
+        private final int[] src;
+        private final int lo1;
+        private final int hi1;
+        private final int lo2;
+        private final int hi2;
+        private final int[] dst;
+        private final int k;
+
+        private IntMerge(int[] src, int lo1, int hi1, int lo2, int hi2, int[] dst, int k) {
+            this.src = src;
+            this.lo1 = lo1;
+            this.hi1 = hi1;
+            this.lo2 = lo2;
+            this.hi2 = hi2;
+            this.dst = dst;
+            this.k = k;
+        }
+
+        @Override
+        protected void compute() {
+            int n1 = hi1 - lo1;
+            int n2 = hi2 - lo2;
+            if (n1 + n2 <= MERGE_GRAIN) {
+                int i = lo1, j = lo2, o = k;
+                while (i < hi1 && j < hi2) {
+                    dst[o++] = src[j] < src[i] ? src[j++] : src[i++];
+                }
+                System.arraycopy(src, i, dst, o, hi1 - i);
+                System.arraycopy(src, j, dst, o + hi1 - i, hi2 - j);
+                return;
+            }
+            int m1, m2;
+            if (n1 >= n2) {
+                m1 = (lo1 + hi1) >>> 1;
+                m2 = lowerBound(src, lo2, hi2, src[m1]);
+            } else {
+                m2 = (lo2 + hi2) >>> 1;
+                m1 = upperBound(src, lo1, hi1, src[m2]);
+            }
+            invokeAll(new IntMerge(src, lo1, m1, lo2, m2, dst, k),
+                    new IntMerge(src, m1, hi1, m2, hi2, dst, k + (m1 - lo1) + (m2 - lo2)));
+        }
+
+        private static int lowerBound(int[] a, int lo, int hi, int key) {
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (a[mid] < key) lo = mid + 1;
+                else hi = mid;
+            }
+            return lo;
+        }
+
+        private static int upperBound(int[] a, int lo, int hi, int key) {
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (a[mid] <= key) lo = mid + 1;
+                else hi = mid;
+            }
+            return lo;
+        }
+    }
+
+    /** Sorts a[lo, hi) leaving the result in a, or in w when toW is set.
+     * Index i of a corresponds to index i - base of w.
+     * */
+    @SuppressWarnings("serial")
+    private static final class LongSort extends RecursiveAction {
+        private final long[] a;
+        private final long[] w;
+        private final int base;
+        private final int lo;
+        private final int hi;
+        private final boolean toW;
+        private final int leaf;
+
+        private LongSort(long[] a, long[] w, int base, int lo, int hi, boolean toW, int leaf) {
+            this.a = a;
+            this.w = w;
+            this.base = base;
+            this.lo = lo;
+            this.hi = hi;
+            this.toW = toW;
+            this.leaf = leaf;
+        }
+
+        @Override
+        protected void compute() {
+            if (hi - lo <= leaf) {
+                Sorter.sort(a, lo, hi, w, lo - base);
+                if (toW) System.arraycopy(a, lo, w, lo - base, hi - lo);
+                return;
+            }
+            int mid = (lo + hi) >>> 1;
+            invokeAll(new LongSort(a, w, base, lo, mid, !toW, leaf), new LongSort(a, w, base, mid, hi, !toW, leaf));
+            if (toW) {
+                new LongMerge(a, lo, mid, mid, hi, w, lo - base).compute();
+            } else {
+                new LongMerge(w, lo - base, mid - base, mid - base, hi - base, a, lo).compute();
+            }
+        }
+    }
+
+    @SuppressWarnings("serial")
+    private static final class LongMerge extends RecursiveAction {
+        private final long[] src;
+        private final int lo1;
+        private final int hi1;
+        private final int lo2;
+        private final int hi2;
+        private final long[] dst;
+        private final int k;
+
+        private LongMerge(long[] src, int lo1, int hi1, int lo2, int hi2, long[] dst, int k) {
+            this.src = src;
+            this.lo1 = lo1;
+            this.hi1 = hi1;
+            this.lo2 = lo2;
+            this.hi2 = hi2;
+            this.dst = dst;
+            this.k = k;
+        }
+
+        @Override
+        protected void compute() {
+            int n1 = hi1 - lo1;
+            int n2 = hi2 - lo2;
+            if (n1 + n2 <= MERGE_GRAIN) {
+                int i = lo1, j = lo2, o = k;
+                while (i < hi1 && j < hi2) {
+                    dst[o++] = src[j] < src[i] ? src[j++] : src[i++];
+                }
+                System.arraycopy(src, i, dst, o, hi1 - i);
+                System.arraycopy(src, j, dst, o + hi1 - i, hi2 - j);
+                return;
+            }
+            int m1, m2;
+            if (n1 >= n2) {
+                m1 = (lo1 + hi1) >>> 1;
+                m2 = lowerBound(src, lo2, hi2, src[m1]);
+            } else {
+                m2 = (lo2 + hi2) >>> 1;
+                m1 = upperBound(src, lo1, hi1, src[m2]);
+            }
+            invokeAll(new LongMerge(src, lo1, m1, lo2, m2, dst, k),
+                    new LongMerge(src, m1, hi1, m2, hi2, dst, k + (m1 - lo1) + (m2 - lo2)));
+        }
+
+        private static int lowerBound(long[] a, int lo, int hi, long key) {
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (a[mid] < key) lo = mid + 1;
+                else hi = mid;
+            }
+            return lo;
+        }
+
+        private static int upperBound(long[] a, int lo, int hi, long key) {
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (a[mid] <= key) lo = mid + 1;
+                else hi = mid;
+            }
+            return lo;
+        }
+    }
+
+    /** Sorts a[lo, hi) leaving the result in a, or in w when toW is set.
+     * Index i of a corresponds to index i - base of w.
+     * */
+    @SuppressWarnings("serial")
+    private static final class FloatSort extends RecursiveAction {
+        private final float[] a;
+        private final float[] w;
+        private final int base;
+        private final int lo;
+        private final int hi;
+        private final boolean toW;
+        private final int leaf;
+
+        private FloatSort(float[] a, float[] w, int base, int lo, int hi, boolean toW, int leaf) {
+            this.a = a;
+            this.w = w;
+            this.base = base;
+            this.lo = lo;
+            this.hi = hi;
+            this.toW = toW;
+            this.leaf = leaf;
+        }
+
+        @Override
+        protected void compute() {
+            if (hi - lo <= leaf) {
+                Sorter.sort(a, lo, hi, w, lo - base);
+                if (toW) System.arraycopy(a, lo, w, lo - base, hi - lo);
+                return;
+            }
+            int mid = (lo + hi) >>> 1;
+            invokeAll(new FloatSort(a, w, base, lo, mid, !toW, leaf), new FloatSort(a, w, base, mid, hi, !toW, leaf));
+            if (toW) {
+                new FloatMerge(a, lo, mid, mid, hi, w, lo - base).compute();
+            } else {
+                new FloatMerge(w, lo - base, mid - base, mid - base, hi - base, a, lo).compute();
+            }
+        }
+    }
+
+    @SuppressWarnings("serial")
+    private static final class FloatMerge extends RecursiveAction {
+        private final float[] src;
+        private final int lo1;
+        private final int hi1;
+        private final int lo2;
+        private final int hi2;
+        private final float[] dst;
+        private final int k;
+
+        private FloatMerge(float[] src, int lo1, int hi1, int lo2, int hi2, float[] dst, int k) {
+            this.src = src;
+            this.lo1 = lo1;
+            this.hi1 = hi1;
+            this.lo2 = lo2;
+            this.hi2 = hi2;
+            this.dst = dst;
+            this.k = k;
+        }
+
+        @Override
+        protected void compute() {
+            int n1 = hi1 - lo1;
+            int n2 = hi2 - lo2;
+            if (n1 + n2 <= MERGE_GRAIN) {
+                int i = lo1, j = lo2, o = k;
+                while (i < hi1 && j < hi2) {
+                    dst[o++] = Float.compare(src[j], src[i]) < 0 ? src[j++] : src[i++];
+                }
+                System.arraycopy(src, i, dst, o, hi1 - i);
+                System.arraycopy(src, j, dst, o + hi1 - i, hi2 - j);
+                return;
+            }
+            int m1, m2;
+            if (n1 >= n2) {
+                m1 = (lo1 + hi1) >>> 1;
+                m2 = lowerBound(src, lo2, hi2, src[m1]);
+            } else {
+                m2 = (lo2 + hi2) >>> 1;
+                m1 = upperBound(src, lo1, hi1, src[m2]);
+            }
+            invokeAll(new FloatMerge(src, lo1, m1, lo2, m2, dst, k),
+                    new FloatMerge(src, m1, hi1, m2, hi2, dst, k + (m1 - lo1) + (m2 - lo2)));
+        }
+
+        private static int lowerBound(float[] a, int lo, int hi, float key) {
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (Float.compare(a[mid], key) < 0) lo = mid + 1;
+                else hi = mid;
+            }
+            return lo;
+        }
+
+        private static int upperBound(float[] a, int lo, int hi, float key) {
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (Float.compare(a[mid], key) <= 0) lo = mid + 1;
+                else hi = mid;
+            }
+            return lo;
+        }
+    }
+
+    /** Sorts a[lo, hi) leaving the result in a, or in w when toW is set.
+     * Index i of a corresponds to index i - base of w.
+     * */
+    @SuppressWarnings("serial")
+    private static final class DoubleSort extends RecursiveAction {
+        private final double[] a;
+        private final double[] w;
+        private final int base;
+        private final int lo;
+        private final int hi;
+        private final boolean toW;
+        private final int leaf;
+
+        private DoubleSort(double[] a, double[] w, int base, int lo, int hi, boolean toW, int leaf) {
+            this.a = a;
+            this.w = w;
+            this.base = base;
+            this.lo = lo;
+            this.hi = hi;
+            this.toW = toW;
+            this.leaf = leaf;
+        }
+
+        @Override
+        protected void compute() {
+            if (hi - lo <= leaf) {
+                Sorter.sort(a, lo, hi, w, lo - base);
+                if (toW) System.arraycopy(a, lo, w, lo - base, hi - lo);
+                return;
+            }
+            int mid = (lo + hi) >>> 1;
+            invokeAll(new DoubleSort(a, w, base, lo, mid, !toW, leaf), new DoubleSort(a, w, base, mid, hi, !toW, leaf));
+            if (toW) {
+                new DoubleMerge(a, lo, mid, mid, hi, w, lo - base).compute();
+            } else {
+                new DoubleMerge(w, lo - base, mid - base, mid - base, hi - base, a, lo).compute();
+            }
+        }
+    }
+
+    @SuppressWarnings("serial")
+    private static final class DoubleMerge extends RecursiveAction {
+        private final double[] src;
+        private final int lo1;
+        private final int hi1;
+        private final int lo2;
+        private final int hi2;
+        private final double[] dst;
+        private final int k;
+
+        private DoubleMerge(double[] src, int lo1, int hi1, int lo2, int hi2, double[] dst, int k) {
+            this.src = src;
+            this.lo1 = lo1;
+            this.hi1 = hi1;
+            this.lo2 = lo2;
+            this.hi2 = hi2;
+            this.dst = dst;
+            this.k = k;
+        }
+
+        @Override
+        protected void compute() {
+            int n1 = hi1 - lo1;
+            int n2 = hi2 - lo2;
+            if (n1 + n2 <= MERGE_GRAIN) {
+                int i = lo1, j = lo2, o = k;
+                while (i < hi1 && j < hi2) {
+                    dst[o++] = Double.compare(src[j], src[i]) < 0 ? src[j++] : src[i++];
+                }
+                System.arraycopy(src, i, dst, o, hi1 - i);
+                System.arraycopy(src, j, dst, o + hi1 - i, hi2 - j);
+                return;
+            }
+            int m1, m2;
+            if (n1 >= n2) {
+                m1 = (lo1 + hi1) >>> 1;
+                m2 = lowerBound(src, lo2, hi2, src[m1]);
+            } else {
+                m2 = (lo2 + hi2) >>> 1;
+                m1 = upperBound(src, lo1, hi1, src[m2]);
+            }
+            invokeAll(new DoubleMerge(src, lo1, m1, lo2, m2, dst, k),
+                    new DoubleMerge(src, m1, hi1, m2, hi2, dst, k + (m1 - lo1) + (m2 - lo2)));
+        }
+
+        private static int lowerBound(double[] a, int lo, int hi, double key) {
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (Double.compare(a[mid], key) < 0) lo = mid + 1;
+                else hi = mid;
+            }
+            return lo;
+        }
+
+        private static int upperBound(double[] a, int lo, int hi, double key) {
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (Double.compare(a[mid], key) <= 0) lo = mid + 1;
+                else hi = mid;
+            }
+            return lo;
+        }
+    }
+}
@@ -0,0 +1,705 @@
+package net.leng.array;
+
+/** Order statistics for the primitive overloads of {@link ArrayMaker}.
+ * <p>
+ * int, long, float and double ranges are selected with introselect: a quickselect on a median of three pivot with
+ * a three way partition, which falls back to median of medians pivots for good once two partitions in a row have not
+ * halved the range. The medians of medians are themselves selected with median of medians pivots throughout, so every
+ * such partition discards at least 3/10 of the range. That keeps the expected cost at a few passes over the range and
+ * the worst case linear.
+ * byte, char and short ranges are already counting sorted in linear time by {@link Sorter}, so they are simply sorted.
+ * <p>
+ * The top k values are gathered with a bounded min-heap, which leaves the input untouched.
+ * */
+final class Selector {
+    /** Ranges of this length or shorter are insertion sorted instead of partitioned. */
+    private static final int INSERTION_THRESHOLD = 16;
+
+    private Selector() {} // ensures no one has access to the object
+
+    static byte select(byte[] a, int from, int to, int k) {
+        Sorter.sort(a, from, to);
+        return a[k];
+    }
+
+    static char select(char[] a, int from, int to, int k) {
+        Sorter.sort(a, from, to);
+        return a[k];
+    }
+
+    static short select(short[] a, int from, int to, int k) {
+        Sorter.sort(a, from, to);
+        return a[k];
+    }
+
+    /** Rearranges a[from, to) so that a[k] holds the value it would hold were the range sorted, every element before it
+     * is no greater and every element after it is no smaller.
+     * @return a[k] once the range has been rearranged.
+     * */
+    static int select(int[] a, int from, int to, int k) {
+        return select(a, from, to, k, false);
+    }
+
+    /** @param linear Whether every pivot is to be a median of medians from the start. */
+    private static int select(int[] a, int from, int to, int k, boolean linear) {
+        int lo = from;
+        int hi = to;
+        int checkpoint = hi - lo;
+        int partitions = 0;
+        while (hi - lo > INSERTION_THRESHOLD) {
+            if (!linear && partitions == 2) {
+                linear = hi - lo > checkpoint >>> 1;
+                checkpoint = hi - lo;
+                partitions = 0;
+            }
+            partitions++;
+            int p = linear ? medianOfMedians(a, lo, hi) : medianOfThree(a[lo], a[(lo + hi) >>> 1], a[hi - 1]);
+            int lt = lo, i = lo, gt = hi - 1;
+            while (i <= gt) {
+                int c = Integer.compare(a[i], p);
+                if (c < 0) swap(a, lt++, i++);
+                else if (c > 0) swap(a, i, gt--);
+                else i++;
+            }
+            if (k < lt) hi = lt;
+            else if (k > gt) lo = gt + 1;
+            else return a[k];
+        }
+        Sorter.insertionSort(a, lo, hi);
+        return a[k];
+    }
+
+    private static int medianOfThree(int x, int y, int z) {
+        if (y < x) {
+            int t = x; x = y; y = t;
+        }
+        if (z < y) {
+            y = z;
+            if (y < x) y = x;
+        }
+        return y;
+    }
+
+    /** Moves the median of every group of five in a[lo, hi) to the front of the range and selects their median. */
+    private static int medianOfMedians(int[] a, int lo, int hi) {
+        int groups = (hi - lo) / 5;
+        for (int g = 0; g < groups; g++) {
+            int s = lo + 5 * g;
+            Sorter.insertionSort(a, s, s + 5);
+            swap(a, lo + g, s + 2);
+        }
+        return select(a, lo, lo + groups, lo + (groups >>> 1), true);
+    }
+
+    private static void swap(int[] a, int i, int j) {
+        int t = a[i];
+        a[i] = a[j];
+        a[j] = t;
+    }
+
+    /** Rearranges a[from, to) so that a[k] holds the value it would hold were the range sorted, every element before it
+     * is no greater and every element after it is no smaller.
+     * @return a[k] once the range has been rearranged.
+     * */
+    static long select(long[] a, int from, int to, int k) {
+        return select(a, from, to, k, false);
+    }
+
+    /** @param linear Whether every pivot is to be a median of medians from the start. */
+    private static long select(long[] a, int from, int to, int k, boolean linear) {
+        int lo = from;
+        int hi = to;
+        int checkpoint = hi - lo;
+        int partitions = 0;
+        while (hi - lo > INSERTION_THRESHOLD) {
+            if (!linear && partitions == 2) {
+                linear = hi - lo > checkpoint >>> 1;
+                checkpoint = hi - lo;
+                partitions = 0;
+            }
+            partitions++;
+            long p = linear ? medianOfMedians(a, lo, hi) : medianOfThree(a[lo], a[(lo + hi) >>> 1], a[hi - 1]);
+            int lt = lo, i = lo, gt = hi - 1;
+            while (i <= gt) {
+                int c = Long.compare(a[i], p);
+                if (c < 0) swap(a, lt++, i++);
+                else if (c > 0) swap(a, i, gt--);
+                else i++;
+            }
+            if (k < lt) hi = lt;
+            else if (k > gt) lo = gt + 1;
+            else return a[k];
+        }
+        Sorter.insertionSort(a, lo, hi);
+        return a[k];
+    }
+
+    private static long medianOfThree(long x, long y, long z) {
+        if (y < x) {
+            long t = x; x = y; y = t;
+        }
+        if (z < y) {
+            y = z;
+            if (y < x) y = x;
+        }
+        return y;
+    }
+
+    /** Moves the median of every group of five in a[lo, hi) to the front of the range and selects their median. */
+    private static long medianOfMedians(long[] a, int lo, int hi) {
+        int groups = (hi - lo) / 5;
+        for (int g = 0; g < groups; g++) {
+            int s = lo + 5 * g;
+            Sorter.insertionSort(a, s, s + 5);
+            swap(a, lo + g, s + 2);
+        }
+        return select(a, lo, lo + groups, lo + (groups >>> 1), true);
+    }
+
+    private static void swap(long[] a, int i, int j) {
+        long t = a[i];
+        a[i] = a[j];
+        a[j] = t;
+    }
+
+    /** Rearranges a[from, to) so that a[k] holds the value it would hold were the range sorted, every element before it
+     * is no greater and every element after it is no smaller.
+     * @return a[k] once the range has been rearranged.
+     * */
+    static float select(float[] a, int from, int to, int k) {
+        return select(a, from, to, k, false);
+    }
+
+    /** @param linear Whether every pivot is to be a median of medians from the start. */
+    private static float select(float[] a, int from, int to, int k, boolean linear) {
+        int lo = from;
+        int hi = to;
+        int checkpoint = hi - lo;
+        int partitions = 0;
+        while (hi - lo > INSERTION_THRESHOLD) {
+            if (!linear && partitions == 2) {
+                linear = hi - lo > checkpoint >>> 1;
+                checkpoint = hi - lo;
+                partitions = 0;
+            }
+            partitions++;
+            float p = linear ? medianOfMedians(a, lo, hi) : medianOfThree(a[lo], a[(lo + hi) >>> 1], a[hi - 1]);
+            int lt = lo, i = lo, gt = hi - 1;
+            while (i <= gt) {
+                int c = Float.compare(a[i], p);
+                if (c < 0) swap(a, lt++, i++);
+                else if (c > 0) swap(a, i, gt--);
+                else i++;
+            }
+            if (k < lt) hi = lt;
+            else if (k > gt) lo = gt + 1;
+            else return a[k];
+        }
+        Sorter.insertionSort(a, lo, hi);
+        return a[k];
+    }
+
+    private static float medianOfThree(float x, float y, float z) {
+        if (Float.compare(y, x) < 0) {
+            float t = x; x = y; y = t;
+        }
+        if (Float.compare(z, y) < 0) {
+            y = z;
+            if (Float.compare(y, x) < 0) y = x;
+        }
+        return y;
+    }
+
+    /** Moves the median of every group of five in a[lo, hi) to the front of the range and selects their median. */
+    private static float medianOfMedians(float[] a, int lo, int hi) {
+        int groups = (hi - lo) / 5;
+        for (int g = 0; g < groups; g++) {
+            int s = lo + 5 * g;
+            Sorter.insertionSort(a, s, s + 5);
+            swap(a, lo + g, s + 2);
+        }
+        return select(a, lo, lo + groups, lo + (groups >>> 1), true);
+    }
+
+    private static void swap(float[] a, int i, int j) {
+        float t = a[i];
+        a[i] = a[j];
+        a[j] = t;
+    }
+
+    /** Rearranges a[from, to) so that a[k] holds the value it would hold were the range sorted, every element before it
+     * is no greater and every element after it is no smaller.
+     * @return a[k] once the range has been rearranged.
+     * */
+    static double select(double[] a, int from, int to, int k) {
+        return select(a, from, to, k, false);
+    }
+
+    /** @param linear Whether every pivot is to be a median of medians from the start. */
+    private static double select(double[] a, int from, int to, int k, boolean linear) {
+        int lo = from;
+        int hi = to;
+        int checkpoint = hi - lo;
+        int partitions = 0;
+        while (hi - lo > INSERTION_THRESHOLD) {
+            if (!linear && partitions == 2) {
+                linear = hi - lo > checkpoint >>> 1;
+                checkpoint = hi - lo;
+                partitions = 0;
+            }
+            partitions++;
+            double p = linear ? medianOfMedians(a, lo, hi) : medianOfThree(a[lo], a[(lo + hi) >>> 1], a[hi - 1]);
+            int lt = lo, i = lo, gt = hi - 1;
+            while (i <= gt) {
+                int c = Double.compare(a[i], p);
+                if (c < 0) swap(a, lt++, i++);
+                else if (c > 0) swap(a, i, gt--);
+                else i++;
+            }
+            if (k < lt) hi = lt;
+            else if (k > gt) lo = gt + 1;
+            else return a[k];
+        }
+        Sorter.insertionSort(a, lo, hi);
+        return a[k];
+    }
+
+    /** Rearranges a[from, to) so that every index in ks[kLo, kHi), which must be sorted, holds the value it would hold
+     * were the range sorted. Each selection narrows the range the ones on either side of it are searched in, and an index at either end of
+     * its range is filled with a single scan for the extreme value.
+     * */
+    static void selectAll(double[] a, int from, int to, int[] ks, int kLo, int kHi) {
+        while (kLo < kHi) {
+            int mid = (kLo + kHi) >>> 1;
+            int k = ks[mid];
+            if (k == to - 1) swap(a, k, extreme(a, from, to, 1));
+            else if (k == from) swap(a, k, extreme(a, from, to, -1));
+            else select(a, from, to, k);
+            int left = mid;
+            while (left > kLo && ks[left - 1] == k) left--;
+            selectAll(a, from, k, ks, kLo, left);
+            from = k + 1;
+            kLo = mid + 1;
+            while (kLo < kHi && ks[kLo] == k) kLo++;
+        }
+    }
+
+    /** @return the index of the largest element of a[from, to) if sign is 1, or of the smallest if it is -1. */
+    private static int extreme(double[] a, int from, int to, int sign) {
+        int best = from;
+        for (int i = from + 1; i < to; i++) {
+            if (Double.compare(a[i], a[best]) * sign > 0) best = i;
+        }
+        return best;
+    }
+
+    private static double medianOfThree(double x, double y, double z) {
+        if (Double.compare(y, x) < 0) {
+            double t = x; x = y; y = t;
+        }
+        if (Double.compare(z, y) < 0) {
+            y = z;
+            if (Double.compare(y, x) < 0) y = x;
+        }
+        return y;
+    }
+
+    /** Moves the median of every group of five in a[lo, hi) to the front of the range and selects their median. */
+    private static double medianOfMedians(double[] a, int lo, int hi) {
+        int groups = (hi - lo) / 5;
+        for (int g = 0; g < groups; g++) {
+            int s = lo + 5 * g;
+            Sorter.insertionSort(a, s, s + 5);
+            swap(a, lo + g, s + 2);
+        }
+        return select(a, lo, lo + groups, lo + (groups >>> 1), true);
+    }
+
+    private static void swap(double[] a, int i, int j) {
+        double t = a[i];
+        a[i] = a[j];
+        a[j] = t;
+    }
+
+    /** Rearranges a[from, to) so that its first k elements are its k smallest, in sorted order. */
+    static void partialSort(byte[] a, int from, int to, int k) {
+        if (k <= 0) return;
+        Sorter.sort(a, from, to);
+    }
+
+    /** Rearranges a[from, to) so that its first k elements are its k smallest, in sorted order. */
+    static void partialSort(char[] a, int from, int to, int k) {
+        if (k <= 0) return;
+        Sorter.sort(a, from, to);
+    }
+
+    /** Rearranges a[from, to) so that its first k elements are its k smallest, in sorted order. */
+    static void partialSort(short[] a, int from, int to, int k) {
+        if (k <= 0) return;
+        Sorter.sort(a, from, to);
+    }
+
+    /** Rearranges a[from, to) so that its first k elements are its k smallest, in sorted order. */
+    static void partialSort(int[] a, int from, int to, int k) {
+        if (k <= 0) return;
+        if (k < to - from) select(a, from, to, from + k - 1);
+        Sorter.sort(a, from, Math.min(from + k, to));
+    }
+
+    /** Rearranges a[from, to) so that its first k elements are its k smallest, in sorted order. */
+    static void partialSort(long[] a, int from, int to, int k) {
+        if (k <= 0) return;
+        if (k < to - from) select(a, from, to, from + k - 1);
+        Sorter.sort(a, from, Math.min(from + k, to));
+    }
+
+    /** Rearranges a[from, to) so that its first k elements are its k smallest, in sorted order. */
+    static void partialSort(float[] a, int from, int to, int k) {
+        if (k <= 0) return;
+        if (k < to - from) select(a, from, to, from + k - 1);
+        Sorter.sort(a, from, Math.min(from + k, to));
+    }
+
+    /** Rearranges a[from, to) so that its first k elements are its k smallest, in sorted order. */
+    static void partialSort(double[] a, int from, int to, int k) {
+        if (k <= 0) return;
+        if (k < to - from) select(a, from, to, from + k - 1);
+        Sorter.sort(a, from, Math.min(from + k, to));
+    }
+
+    /** @return the k largest elements of a in descending order, leaving a untouched. */
+    static byte[] topK(byte[] a, int k) {
+        byte[] heap = new byte[k];
+        if (k == 0) return heap;
+        int size = 0;
+        for (byte v : a) {
+            if (size < k) {
+                heap[size] = v;
+                siftUp(heap, size++);
+            } else if (heap[0] < v) {
+                heap[0] = v;
+                siftDown(heap, 0, k);
+            }
+        }
+        for (int n = size - 1; n > 0; n--) {
+            byte t = heap[0];
+            heap[0] = heap[n];
+            heap[n] = t;
+            siftDown(heap, 0, n);
+        }
+        return heap;
+    }
+
+    private static void siftUp(byte[] heap, int i) {
+        byte v = heap[i];
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (!(v < heap[parent])) break;
+            heap[i] = heap[parent];
+            i = parent;
+        }
+        heap[i] = v;
+    }
+
+    private static void siftDown(byte[] heap, int i, int size) {
+        byte v = heap[i];
+        int half = size >>> 1;
+        while (i < half) {
+            int child = 2 * i + 1;
+            int right = child + 1;
+            if (right < size && heap[right] < heap[child]) child = right;
+            if (!(heap[child] < v)) break;
+            heap[i] = heap[child];
+            i = child;
+        }
+        heap[i] = v;
+    }
+
+    /** @return the k largest elements of a in descending order, leaving a untouched. */
+    static char[] topK(char[] a, int k) {
+        char[] heap = new char[k];
+        if (k == 0) return heap;
+        int size = 0;
+        for (char v : a) {
+            if (size < k) {
+                heap[size] = v;
+                siftUp(heap, size++);
+            } else if (heap[0] < v) {
+                heap[0] = v;
+                siftDown(heap, 0, k);
+            }
+        }
+        for (int n = size - 1; n > 0; n--) {
+            char t = heap[0];
+            heap[0] = heap[n];
+            heap[n] = t;
+            siftDown(heap, 0, n);
+        }
+        return heap;
+    }
+
+    private static void siftUp(char[] heap, int i) {
+        char v = heap[i];
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (!(v < heap[parent])) break;
+            heap[i] = heap[parent];
+            i = parent;
+        }
+        heap[i] = v;
+    }
+
+    private static void siftDown(char[] heap, int i, int size) {
+        char v = heap[i];
+        int half = size >>> 1;
+        while (i < half) {
+            int child = 2 * i + 1;
+            int right = child + 1;
+            if (right < size && heap[right] < heap[child]) child = right;
+            if (!(heap[child] < v)) break;
+            heap[i] = heap[child];
+            i = child;
+        }
+        heap[i] = v;
+    }
+
+    /** @return the k largest elements of a in descending order, leaving a untouched. */
+    static short[] topK(short[] a, int k) {
+        short[] heap = new short[k];
+        if (k == 0) return heap;
+        int size = 0;
+        for (short v : a) {
+            if (size < k) {
+                heap[size] = v;
+                siftUp(heap, size++);
+            } else if (heap[0] < v) {
+                heap[0] = v;
+                siftDown(heap, 0, k);
+            }
+        }
+        for (int n = size - 1; n > 0; n--) {
+            short t = heap[0];
+            heap[0] = heap[n];
+            heap[n] = t;
+            siftDown(heap, 0, n);
+        }
+        return heap;
+    }
+
+    private static void siftUp(short[] heap, int i) {
+        short v = heap[i];
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (!(v < heap[parent])) break;
+            heap[i] = heap[parent];
+            i = parent;
+        }
+        heap[i] = v;
+    }
+
+    private static void siftDown(short[] heap, int i, int size) {
+        short v = heap[i];
+        int half = size >>> 1;
+        while (i < half) {
+            int child = 2 * i + 1;
+            int right = child + 1;
+            if (right < size && heap[right] < heap[child]) child = right;
+            if (!(heap[child] < v)) break;
+            heap[i] = heap[child];
+            i = child;
+        }
+        heap[i] = v;
+    }
+
+    /** @return the k largest elements of a in descending order, leaving a untouched. */
+    static int[] topK(int[] a, int k) {
+        int[] heap = new int[k];
+        if (k == 0) return heap;
+        int size = 0;
+        for (int v : a) {
+            if (size < k) {
+                heap[size] = v;
+                siftUp(heap, size++);
+            } else if (heap[0] < v) {
+                heap[0] = v;
+                siftDown(heap, 0, k);
+            }
+        }
+        for (int n = size - 1; n > 0; n--) {
+            int t = heap[0];
+            heap[0] = heap[n];
+            heap[n] = t;
+            siftDown(heap, 0, n);
+        }
+        return heap;
+    }
+
+    private static void siftUp(int[] heap, int i) {
+        int v = heap[i];
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (!(v < heap[parent])) break;
+            heap[i] = heap[parent];
+            i = parent;
+        }
+        heap[i] = v;
+    }
+
+    private static void siftDown(int[] heap, int i, int size) {
+        int v = heap[i];
+        int half = size >>> 1;
+        while (i < half) {
+            int child = 2 * i + 1;
+            int right = child + 1;
+            if (right < size && heap[right] < heap[child]) child = right;
+            if (!(heap[child] < v)) break;
+            heap[i] = heap[child];
+            i = child;
+        }
+        heap[i] = v;
+    }
+
+    /** @return the k largest elements of a in descending order, leaving a untouched. */
+    static long[] topK(long[] a, int k) {
+        long[] heap = new long[k];
+        if (k == 0) return heap;
+        int size = 0;
+        for (long v : a) {
+            if (size < k) {
+                heap[size] = v;
+                siftUp(heap, size++);
+            } else if (heap[0] < v) {
+                heap[0] = v;
+                siftDown(heap, 0, k);
+            }
+        }
+        for (int n = size - 1; n > 0; n--) {
+            long t = heap[0];
+            heap[0] = heap[n];
+            heap[n] = t;
+            siftDown(heap, 0, n);
+        }
+        return heap;
+    }
+
+    private static void siftUp(long[] heap, int i) {
+        long v = heap[i];
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (!(v < heap[parent])) break;
+            heap[i] = heap[parent];
+            i = parent;
+        }
+        heap[i] = v;
+    }
+
+    private static void siftDown(long[] heap, int i, int size) {
+        long v = heap[i];
+        int half = size >>> 1;
+        while (i < half) {
+            int child = 2 * i + 1;
+            int right = child + 1;
+            if (right < size && heap[right] < heap[child]) child = right;
+            if (!(heap[child] < v)) break;
+            heap[i] = heap[child];
+            i = child;
+        }
+        heap[i] = v;
+    }
+
+    /** @return the k largest elements of a in descending order, leaving a untouched. */
+    static float[] topK(float[] a, int k) {
+        float[] heap = new float[k];
+        if (k == 0) return heap;
+        int size = 0;
+        for (float v : a) {
+            if (size < k) {
+                heap[size] = v;
+                siftUp(heap, size++);
+            } else if (Float.compare(heap[0], v) < 0) {
+                heap[0] = v;
+                siftDown(heap, 0, k);
+            }
+        }
+        for (int n = size - 1; n > 0; n--) {
+            float t = heap[0];
+            heap[0] = heap[n];
+            heap[n] = t;
+            siftDown(heap, 0, n);
+        }
+        return heap;
+    }
+
+    private static void siftUp(float[] heap, int i) {
+        float v = heap[i];
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (!(Float.compare(v, heap[parent]) < 0)) break;
+            heap[i] = heap[parent];
+            i = parent;
+        }
+        heap[i] = v;
+    }
+
+    private static void siftDown(float[] heap, int i, int size) {
+        float v = heap[i];
+        int half = size >>> 1;
+        while (i < half) {
+            int child = 2 * i + 1;
+            int right = child + 1;
+            if (right < size && Float.compare(heap[right], heap[child]) < 0) child = right;
+            if (!(Float.compare(heap[child], v) < 0)) break;
+            heap[i] = heap[child];
+            i = child;
+        }
+        heap[i] = v;
+    }
+
+    /** @return the k largest elements of a in descending order, leaving a untouched. */
+    static double[] topK(double[] a, int k) {
+        double[] heap = new double[k];
+        if (k == 0) return heap;
+        int size = 0;
+        for (double v : a) {
+            if (size < k) {
+                heap[size] = v;
+                siftUp(heap, size++);
+            } else if (Double.compare(heap[0], v) < 0) {
+                heap[0] = v;
+                siftDown(heap, 0, k);
+            }
+        }
+        for (int n = size - 1; n > 0; n--) {
+            double t = heap[0];
+            heap[0] = heap[n];
+            heap[n] = t;
+            siftDown(heap, 0, n);
+        }
+        return heap;
+    }
+
+    private static void siftUp(double[] heap, int i) {
+        double v = heap[i];
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (!(Double.compare(v, heap[parent]) < 0)) break;
+            heap[i] = heap[parent];
+            i = parent;
+        }
+        heap[i] = v;
+    }
+
+    private static void siftDown(double[] heap, int i, int size) {
+        double v = heap[i];
+        int half = size >>> 1;
+        while (i < half) {
+            int child = 2 * i + 1;
+            int right = child + 1;
+            if (right < size && Double.compare(heap[right], heap[child]) < 0) child = right;
+            if (!(Double.compare(heap[child], v) < 0)) break;
+            heap[i] = heap[child];
+            i = child;
+        }
+        heap[i] = v;
+    }
+}
@@ -0,0 +1,16 @@
+package net.leng.array;
+
+/** A comparison function over two short values that, unlike {@link java.util.Comparator}, never boxes its operands.
+ * */
+@FunctionalInterface
+public interface ShortComparator {
+    /** Compares two values for order.
+     * @return A negative number, zero or a positive number if a is less than, equal to or greater than b.
+     * */
+    int compare(short a, short b);
+
+    /** @return A comparator that imposes the reverse ordering of this one. */
+    default ShortComparator reversed() {
+        return (a, b) -> compare(b, a);
+    }
+}
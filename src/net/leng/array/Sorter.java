@@ -0,0 +1,714 @@
+package net.leng.array;
+
+import java.util.Arrays;
+
+/** The sorting engine behind the primitive overloads of {@link ArrayMaker}.
+ * <p>
+ * byte, char and short ranges are counting sorted, int and long ranges are sorted with an LSD radix sort
+ * over 8 bit digits and float and double ranges are radix sorted on their IEEE 754 bits, flipped so that
+ * their unsigned order matches {@link Double#compare}. All of them run in linear time and need at most one
+ * scratch buffer the size of the range being sorted. Very short ranges fall back to an insertion sort.
+ * <p>
+ * The ordering is the same as {@link java.util.Arrays#sort(double[])}: -0.0 comes before 0.0 and NaN comes last.
+ * <p>
+ * Ranges sorted by one of the primitive comparators go through a stable merge sort instead, which also needs
+ * only one scratch buffer and never boxes the elements it compares.
+ * */
+final class Sorter {
+    /** Ranges of this length or shorter are insertion sorted. */
+    static final int INSERTION_THRESHOLD = 48;
+
+    /** Ranges shorter than this are radix sorted rather than counting sorted when the digits are 16 bits wide. */
+    private static final int COUNTING_THRESHOLD = 1 << 13;
+
+    private static final int RADIX = 256;
+
+    private Sorter() {} // ensures no one has access to the object
+
+    static void sort(byte[] a, int from, int to) {
+        if (to - from <= INSERTION_THRESHOLD) {
+            insertionSort(a, from, to);
+            return;
+        }
+        int[] count = new int[RADIX];
+        for (int i = from; i < to; i++) {
+            count[a[i] + 128]++;
+        }
+        int ind = from;
+        for (int d = 0; d < RADIX; d++) {
+            byte value = (byte)(d - 128);
+            for (int c = count[d]; c > 0; c--) {
+                a[ind++] = value;
+            }
+        }
+    }
+
+    static void sort(char[] a, int from, int to) {
+        int n = to - from;
+        if (n <= INSERTION_THRESHOLD) {
+            insertionSort(a, from, to);
+            return;
+        }
+        if (n >= COUNTING_THRESHOLD) {
+            int[] count = new int[1 << 16];
+            for (int i = from; i < to; i++) {
+                count[a[i]]++;
+            }
+            int ind = from;
+            for (int d = 0; d < count.length; d++) {
+                for (int c = count[d]; c > 0; c--) {
+                    a[ind++] = (char)d;
+                }
+            }
+            return;
+        }
+        char[] buf = new char[n];
+        int[] count = new int[2 * RADIX];
+        for (int i = from; i < to; i++) {
+            char v = a[i];
+            count[v & 0xFF]++;
+            count[RADIX + (v >>> 8)]++;
+        }
+        char[] src = a;
+        int srcOff = from;
+        char[] dst = buf;
+        int dstOff = 0;
+        for (int pass = 0; pass < 2; pass++) {
+            int base = pass * RADIX;
+            if (!toOffsets(count, base, n)) continue;
+            int shift = pass << 3;
+            for (int i = 0; i < n; i++) {
+                char v = src[srcOff + i];
+                dst[dstOff + count[base + ((v >>> shift) & 0xFF)]++] = v;
+            }
+            char[] t = src; src = dst; dst = t;
+            int o = srcOff; srcOff = dstOff; dstOff = o;
+        }
+        if (src != a) System.arraycopy(src, srcOff, a, from, n);
+    }
+
+    static void sort(short[] a, int from, int to) {
+        int n = to - from;
+        if (n <= INSERTION_THRESHOLD) {
+            insertionSort(a, from, to);
+            return;
+        }
+        if (n >= COUNTING_THRESHOLD) {
+            int[] count = new int[1 << 16];
+            for (int i = from; i < to; i++) {
+                count[a[i] + 32768]++;
+            }
+            int ind = from;
+            for (int d = 0; d < count.length; d++) {
+                short value = (short)(d - 32768);
+                for (int c = count[d]; c > 0; c--) {
+                    a[ind++] = value;
+                }
+            }
+            return;
+        }
+        short[] buf = new short[n];
+        int[] count = new int[2 * RADIX];
+        for (int i = from; i < to; i++) {
+            int k = a[i] ^ Short.MIN_VALUE;
+            count[k & 0xFF]++;
+            count[RADIX + ((k >>> 8) & 0xFF)]++;
+        }
+        short[] src = a;
+        int srcOff = from;
+        short[] dst = buf;
+        int dstOff = 0;
+        for (int pass = 0; pass < 2; pass++) {
+            int base = pass * RADIX;
+            if (!toOffsets(count, base, n)) continue;
+            int shift = pass << 3;
+            for (int i = 0; i < n; i++) {
+                short v = src[srcOff + i];
+                dst[dstOff + count[base + (((v ^ Short.MIN_VALUE) >>> shift) & 0xFF)]++] = v;
+            }
+            short[] t = src; src = dst; dst = t;
+            int o = srcOff; srcOff = dstOff; dstOff = o;
+        }
+        if (src != a) System.arraycopy(src, srcOff, a, from, n);
+    }
+
+    static void sort(int[] a, int from, int to) {
+        if (to - from <= INSERTION_THRESHOLD) {
+            insertionSort(a, from, to);
+            return;
+        }
+        sort(a, from, to, new int[to - from], 0);
+    }
+
+    /** Sorts a[from, to) using buf[off, off + to - from) as scratch space. */
+    static void sort(int[] a, int from, int to, int[] buf, int off) {
+        int n = to - from;
+        if (n <= INSERTION_THRESHOLD) {
+            insertionSort(a, from, to);
+            return;
+        }
+        int[] count = new int[4 * RADIX];
+        for (int i = from; i < to; i++) {
+            int k = a[i] ^ Integer.MIN_VALUE;
+            count[k & 0xFF]++;
+            count[RADIX + ((k >>> 8) & 0xFF)]++;
+            count[2 * RADIX + ((k >>> 16) & 0xFF)]++;
+            count[3 * RADIX + (k >>> 24)]++;
+        }
+        int[] src = a;
+        int srcOff = from;
+        int[] dst = buf;
+        int dstOff = off;
+        for (int pass = 0; pass < 4; pass++) {
+            int base = pass * RADIX;
+            if (!toOffsets(count, base, n)) continue;
+            int shift = pass << 3;
+            for (int i = 0; i < n; i++) {
+                int v = src[srcOff + i];
+                dst[dstOff + count[base + (((v ^ Integer.MIN_VALUE) >>> shift) & 0xFF)]++] = v;
+            }
+            int[] t = src; src = dst; dst = t;
+            int o = srcOff; srcOff = dstOff; dstOff = o;
+        }
+        if (src != a) System.arraycopy(src, srcOff, a, from, n);
+    }
+
+    static void sort(long[] a, int from, int to) {
+        if (to - from <= INSERTION_THRESHOLD) {
+            insertionSort(a, from, to);
+            return;
+        }
+        sort(a, from, to, new long[to - from], 0);
+    }
+
+    /** Sorts a[from, to) using buf[off, off + to - from) as scratch space. */
+    static void sort(long[] a, int from, int to, long[] buf, int off) {
+        int n = to - from;
+        if (n <= INSERTION_THRESHOLD) {
+            insertionSort(a, from, to);
+            return;
+        }
+        int[] count = new int[8 * RADIX];
+        for (int i = from; i < to; i++) {
+            long k = a[i] ^ Long.MIN_VALUE;
+            for (int pass = 0; pass < 8; pass++) {
+                count[pass * RADIX + (int)((k >>> (pass << 3)) & 0xFF)]++;
+            }
+        }
+        long[] src = a;
+        int srcOff = from;
+        long[] dst = buf;
+        int dstOff = off;
+        for (int pass = 0; pass < 8; pass++) {
+            int base = pass * RADIX;
+            if (!toOffsets(count, base, n)) continue;
+            int shift = pass << 3;
+            for (int i = 0; i < n; i++) {
+                long v = src[srcOff + i];
+                dst[dstOff + count[base + (int)(((v ^ Long.MIN_VALUE) >>> shift) & 0xFF)]++] = v;
+            }
+            long[] t = src; src = dst; dst = t;
+            int o = srcOff; srcOff = dstOff; dstOff = o;
+        }
+        if (src != a) System.arraycopy(src, srcOff, a, from, n);
+    }
+
+    static void sort(float[] a, int from, int to) {
+        if (to - from <= INSERTION_THRESHOLD) {
+            insertionSort(a, from, to);
+            return;
+        }
+        sort(a, from, to, new float[to - from], 0);
+    }
+
+    /** Sorts a[from, to) using buf[off, off + to - from) as scratch space. */
+    static void sort(float[] a, int from, int to, float[] buf, int off) {
+        int n = to - from;
+        if (n <= INSERTION_THRESHOLD) {
+            insertionSort(a, from, to);
+            return;
+        }
+        int[] count = new int[4 * RADIX];
+        for (int i = from; i < to; i++) {
+            int k = key(a[i]);
+            count[k & 0xFF]++;
+            count[RADIX + ((k >>> 8) & 0xFF)]++;
+            count[2 * RADIX + ((k >>> 16) & 0xFF)]++;
+            count[3 * RADIX + (k >>> 24)]++;
+        }
+        float[] src = a;
+        int srcOff = from;
+        float[] dst = buf;
+        int dstOff = off;
+        for (int pass = 0; pass < 4; pass++) {
+            int base = pass * RADIX;
+            if (!toOffsets(count, base, n)) continue;
+            int shift = pass << 3;
+            for (int i = 0; i < n; i++) {
+                float v = src[srcOff + i];
+                dst[dstOff + count[base + ((key(v) >>> shift) & 0xFF)]++] = v;
+            }
+            float[] t = src; src = dst; dst = t;
+            int o = srcOff; srcOff = dstOff; dstOff = o;
+        }
+        if (src != a) System.arraycopy(src, srcOff, a, from, n);
+    }
+
+    static void sort(double[] a, int from, int to) {
+        if (to - from <= INSERTION_THRESHOLD) {
+            insertionSort(a, from, to);
+            return;
+        }
+        sort(a, from, to, new double[to - from], 0);
+    }
+
+    /** Sorts a[from, to) using buf[off, off + to - from) as scratch space. */
+    static void sort(double[] a, int from, int to, double[] buf, int off) {
+        int n = to - from;
+        if (n <= INSERTION_THRESHOLD) {
+            insertionSort(a, from, to);
+            return;
+        }
+        int[] count = new int[8 * RADIX];
+        for (int i = from; i < to; i++) {
+            long k = key(a[i]);
+            for (int pass = 0; pass < 8; pass++) {
+                count[pass * RADIX + (int)((k >>> (pass << 3)) & 0xFF)]++;
+            }
+        }
+        double[] src = a;
+        int srcOff = from;
+        double[] dst = buf;
+        int dstOff = off;
+        for (int pass = 0; pass < 8; pass++) {
+            int base = pass * RADIX;
+            if (!toOffsets(count, base, n)) continue;
+            int shift = pass << 3;
+            for (int i = 0; i < n; i++) {
+                double v = src[srcOff + i];
+                dst[dstOff + count[base + (int)((key(v) >>> shift) & 0xFF)]++] = v;
+            }
+            double[] t = src; src = dst; dst = t;
+            int o = srcOff; srcOff = dstOff; dstOff = o;
+        }
+        if (src != a) System.arraycopy(src, srcOff, a, from, n);
+    }
+
+    /** Maps a float onto an int whose unsigned order matches {@link Float#compare}. */
+    static int key(float f) {
+        int bits = Float.floatToIntBits(f);
+        return bits ^ ((bits >> 31) | Integer.MIN_VALUE);
+    }
+
+    /** Maps a double onto a long whose unsigned order matches {@link Double#compare}. */
+    static long key(double d) {
+        long bits = Double.doubleToLongBits(d);
+        return bits ^ ((bits >> 63) | Long.MIN_VALUE);
+    }
+
+    /** Turns the histogram of one digit into starting offsets.
+     * @return false if every element shares the same digit, in which case the pass can be skipped.
+     * */
+    private static boolean toOffsets(int[] count, int base, int n) {
+        int sum = 0;
+        for (int d = base; d < base + RADIX; d++) {
+            int c = count[d];
+            if (c == n) return false;
+            count[d] = sum;
+            sum += c;
+        }
+        return true;
+    }
+
+    static void insertionSort(byte[] a, int from, int to) {
+        for (int i = from + 1; i < to; i++) {
+            byte item = a[i];
+            int ind = i;
+            while (ind > from && a[ind-1] > item) {
+                a[ind] = a[ind-1];
+                ind--;
+            }
+            a[ind] = item;
+        }
+    }
+
+    static void insertionSort(char[] a, int from, int to) {
+        for (int i = from + 1; i < to; i++) {
+            char item = a[i];
+            int ind = i;
+            while (ind > from && a[ind-1] > item) {
+                a[ind] = a[ind-1];
+                ind--;
+            }
+            a[ind] = item;
+        }
+    }
+
+    static void insertionSort(short[] a, int from, int to) {
+        for (int i = from + 1; i < to; i++) {
+            short item = a[i];
+            int ind = i;
+            while (ind > from && a[ind-1] > item) {
+                a[ind] = a[ind-1];
+                ind--;
+            }
+            a[ind] = item;
+        }
+    }
+
+    static void insertionSort(int[] a, int from, int to) {
+        for (int i = from + 1; i < to; i++) {
+            int item = a[i];
+            int ind = i;
+            while (ind > from && a[ind-1] > item) {
+                a[ind] = a[ind-1];
+                ind--;
+            }
+            a[ind] = item;
+        }
+    }
+
+    static void insertionSort(long[] a, int from, int to) {
+        for (int i = from + 1; i < to; i++) {
+            long item = a[i];
+            int ind = i;
+            while (ind > from && a[ind-1] > item) {
+                a[ind] = a[ind-1];
+                ind--;
+            }
+            a[ind] = item;
+        }
+    }
+
+    static void insertionSort(float[] a, int from, int to) {
+        for (int i = from + 1; i < to; i++) {
+            float item = a[i];
+            int ind = i;
+            while (ind > from && Float.compare(a[ind-1], item) > 0) {
+                a[ind] = a[ind-1];
+                ind--;
+            }
+            a[ind] = item;
+        }
+    }
+
+    static void insertionSort(double[] a, int from, int to) {
+        for (int i = from + 1; i < to; i++) {
+            double item = a[i];
+            int ind = i;
+            while (ind > from && Double.compare(a[ind-1], item) > 0) {
+                a[ind] = a[ind-1];
+                ind--;
+            }
+            a[ind] = item;
+        }
+    }
+
+    static void sort(byte[] a, int from, int to, ByteComparator c) {
+        int n = to - from;
+        if (n <= INSERTION_THRESHOLD) {
+            insertionSort(a, from, to, c);
+            return;
+        }
+        mergeSort(Arrays.copyOfRange(a, from, to), 0, a, from, n, c);
+    }
+
+    /** Sorts n elements into dst[dOff, dOff + n). src[sOff, sOff + n) must hold the same elements and is used as scratch. */
+    private static void mergeSort(byte[] src, int sOff, byte[] dst, int dOff, int n, ByteComparator c) {
+        if (n <= INSERTION_THRESHOLD) {
+            insertionSort(dst, dOff, dOff + n, c);
+            return;
+        }
+        int h = n >>> 1;
+        mergeSort(dst, dOff, src, sOff, h, c);
+        mergeSort(dst, dOff + h, src, sOff + h, n - h, c);
+        int mid = sOff + h;
+        int end = sOff + n;
+        if (c.compare(src[mid - 1], src[mid]) <= 0) {
+            System.arraycopy(src, sOff, dst, dOff, n);
+            return;
+        }
+        int i = sOff, j = mid, o = dOff;
+        while (i < mid && j < end) {
+            dst[o++] = c.compare(src[i], src[j]) <= 0 ? src[i++] : src[j++];
+        }
+        System.arraycopy(src, i, dst, o, mid - i);
+        System.arraycopy(src, j, dst, o + mid - i, end - j);
+    }
+
+    private static void insertionSort(byte[] a, int from, int to, ByteComparator c) {
+        for (int i = from + 1; i < to; i++) {
+            byte item = a[i];
+            int ind = i;
+            while (ind > from && c.compare(a[ind-1], item) > 0) {
+                a[ind] = a[ind-1];
+                ind--;
+            }
+            a[ind] = item;
+        }
+    }
+
+    static void sort(char[] a, int from, int to, CharComparator c) {
+        int n = to - from;
+        if (n <= INSERTION_THRESHOLD) {
+            insertionSort(a, from, to, c);
+            return;
+        }
+        mergeSort(Arrays.copyOfRange(a, from, to), 0, a, from, n, c);
+    }
+
+    /** Sorts n elements into dst[dOff, dOff + n). src[sOff, sOff + n) must hold the same elements and is used as scratch. */
+    private static void mergeSort(char[] src, int sOff, char[] dst, int dOff, int n, CharComparator c) {
+        if (n <= INSERTION_THRESHOLD) {
+            insertionSort(dst, dOff, dOff + n, c);
+            return;
+        }
+        int h = n >>> 1;
+        mergeSort(dst, dOff, src, sOff, h, c);
+        mergeSort(dst, dOff + h, src, sOff + h, n - h, c);
+        int mid = sOff + h;
+        int end = sOff + n;
+        if (c.compare(src[mid - 1], src[mid]) <= 0) {
+            System.arraycopy(src, sOff, dst, dOff, n);
+            return;
+        }
+        int i = sOff, j = mid, o = dOff;
+        while (i < mid && j < end) {
+            dst[o++] = c.compare(src[i], src[j]) <= 0 ? src[i++] : src[j++];
+        }
+        System.arraycopy(src, i, dst, o, mid - i);
+        System.arraycopy(src, j, dst, o + mid - i, end - j);
+    }
+
+    private static void insertionSort(char[] a, int from, int to, CharComparator c) {
+        for (int i = from + 1; i < to; i++) {
+            char item = a[i];
+            int ind = i;
+            while (ind > from && c.compare(a[ind-1], item) > 0) {
+                a[ind] = a[ind-1];
+                ind--;
+            }
+            a[ind] = item;
+        }
+    }
+
+    static void sort(short[] a, int from, int to, ShortComparator c) {
+        int n = to - from;
+        if (n <= INSERTION_THRESHOLD) {
+            insertionSort(a, from, to, c);
+            return;
+        }
+        mergeSort(Arrays.copyOfRange(a, from, to), 0, a, from, n, c);
+    }
+
+    /** Sorts n elements into dst[dOff, dOff + n). src[sOff, sOff + n) must hold the same elements and is used as scratch. */
+    private static void mergeSort(short[] src, int sOff, short[] dst, int dOff, int n, ShortComparator c) {
+        if (n <= INSERTION_THRESHOLD) {
+            insertionSort(dst, dOff, dOff + n, c);
+            return;
+        }
+        int h = n >>> 1;
+        mergeSort(dst, dOff, src, sOff, h, c);
+        mergeSort(dst, dOff + h, src, sOff + h, n - h, c);
+        int mid = sOff + h;
+        int end = sOff + n;
+        if (c.compare(src[mid - 1], src[mid]) <= 0) {
+            System.arraycopy(src, sOff, dst, dOff, n);
+            return;
+        }
+        int i = sOff, j = mid, o = dOff;
+        while (i < mid && j < end) {
+            dst[o++] = c.compare(src[i], src[j]) <= 0 ? src[i++] : src[j++];
+        }
+        System.arraycopy(src, i, dst, o, mid - i);
+        System.arraycopy(src, j, dst, o + mid - i, end - j);
+    }
+
+    private static void insertionSort(short[] a, int from, int to, ShortComparator c) {
+        for (int i = from + 1; i < to; i++) {
+            short item = a[i];
+            int ind = i;
+            while (ind > from && c.compare(a[ind-1], item) > 0) {
+                a[ind] = a[ind-1];
+                ind--;
+            }
+            a[ind] = item;
+        }
+    }
+
+    static void sort(int[] a, int from, int to, IntComparator c) {
+        int n = to - from;
+        if (n <= INSERTION_THRESHOLD) {
+            insertionSort(a, from, to, c);
+            return;
+        }
+        mergeSort(Arrays.copyOfRange(a, from, to), 0, a, from, n, c);
+    }
+
+    /** Sorts n elements into dst[dOff, dOff + n). src[sOff, sOff + n) must hold the same elements and is used as scratch. */
+    private static void mergeSort(int[] src, int sOff, int[] dst, int dOff, int n, IntComparator c) {
+        if (n <= INSERTION_THRESHOLD) {
+            insertionSort(dst, dOff, dOff + n, c);
+            return;
+        }
+        int h = n >>> 1;
+        mergeSort(dst, dOff, src, sOff, h, c);
+        mergeSort(dst, dOff + h, src, sOff + h, n - h, c);
+        int mid = sOff + h;
+        int end = sOff + n;
+        if (c.compare(src[mid - 1], src[mid]) <= 0) {
+            System.arraycopy(src, sOff, dst, dOff, n);
+            return;
+        }
+        int i = sOff, j = mid, o = dOff;
+        while (i < mid && j < end) {
+            dst[o++] = c.compare(src[i], src[j]) <= 0 ? src[i++] : src[j++];
+        }
+        System.arraycopy(src, i, dst, o, mid - i);
+        System.arraycopy(src, j, dst, o + mid - i, end - j);
+    }
+
+    private static void insertionSort(int[] a, int from, int to, IntComparator c) {
+        for (int i = from + 1; i < to; i++) {
+            int item = a[i];
+            int ind = i;
+            while (ind > from && c.compare(a[ind-1], item) > 0) {
+                a[ind] = a[ind-1];
+                ind--;
+            }
+            a[ind] = item;
+        }
+    }
+
+    static void sort(long[] a, int from, int to, LongComparator c) {
+        int n = to - from;
+        if (n <= INSERTION_THRESHOLD) {
+            insertionSort(a, from, to, c);
+            return;
+        }
+        mergeSort(Arrays.copyOfRange(a, from, to), 0, a, from, n, c);
+    }
+
+    /** Sorts n elements into dst[dOff, dOff + n). src[sOff, sOff + n) must hold the same elements and is used as scratch. */
+    private static void mergeSort(long[] src, int sOff, long[] dst, int dOff, int n, LongComparator c) {
+        if (n <= INSERTION_THRESHOLD) {
+            insertionSort(dst, dOff, dOff + n, c);
+            return;
+        }
+        int h = n >>> 1;
+        mergeSort(dst, dOff, src, sOff, h, c);
+        mergeSort(dst, dOff + h, src, sOff + h, n - h, c);
+        int mid = sOff + h;
+        int end = sOff + n;
+        if (c.compare(src[mid - 1], src[mid]) <= 0) {
+            System.arraycopy(src, sOff, dst, dOff, n);
+            return;
+        }
+        int i = sOff, j = mid, o = dOff;
+        while (i < mid && j < end) {
+            dst[o++] = c.compare(src[i], src[j]) <= 0 ? src[i++] : src[j++];
+        }
+        System.arraycopy(src, i, dst, o, mid - i);
+        System.arraycopy(src, j, dst, o + mid - i, end - j);
+    }
+
+    private static void insertionSort(long[] a, int from, int to, LongComparator c) {
+        for (int i = from + 1; i < to; i++) {
+            long item = a[i];
+            int ind = i;
+            while (ind > from && c.compare(a[ind-1], item) > 0) {
+                a[ind] = a[ind-1];
+                ind--;
+            }
+            a[ind] = item;
+        }
+    }
+
+    static void sort(float[] a, int from, int to, FloatComparator c) {
+        int n = to - from;
+        if (n <= INSERTION_THRESHOLD) {
+            insertionSort(a, from, to, c);
+            return;
+        }
+        mergeSort(Arrays.copyOfRange(a, from, to), 0, a, from, n, c);
+    }
+
+    /** Sorts n elements into dst[dOff, dOff + n). src[sOff, sOff + n) must hold the same elements and is used as scratch. */
+    private static void mergeSort(float[] src, int sOff, float[] dst, int dOff, int n, FloatComparator c) {
+        if (n <= INSERTION_THRESHOLD) {
+            insertionSort(dst, dOff, dOff + n, c);
+            return;
+        }
+        int h = n >>> 1;
+        mergeSort(dst, dOff, src, sOff, h, c);
+        mergeSort(dst, dOff + h, src, sOff + h, n - h, c);
+        int mid = sOff + h;
+        int end = sOff + n;
+        if (c.compare(src[mid - 1], src[mid]) <= 0) {
+            System.arraycopy(src, sOff, dst, dOff, n);
+            return;
+        }
+        int i = sOff, j = mid, o = dOff;
+        while (i < mid && j < end) {
+            dst[o++] = c.compare(src[i], src[j]) <= 0 ? src[i++] : src[j++];
+        }
+        System.arraycopy(src, i, dst, o, mid - i);
+        System.arraycopy(src, j, dst, o + mid - i, end - j);
+    }
+
+    private static void insertionSort(float[] a, int from, int to, FloatComparator c) {
+        for (int i = from + 1; i < to; i++) {
+            float item = a[i];
+            int ind = i;
+            while (ind > from && c.compare(a[ind-1], item) > 0) {
+                a[ind] = a[ind-1];
+                ind--;
+            }
+            a[ind] = item;
+        }
+    }
+
+    static void sort(double[] a, int from, int to, DoubleComparator c) {
+        int n = to - from;
+        if (n <= INSERTION_THRESHOLD) {
+            insertionSort(a, from, to, c);
+            return;
+        }
+        mergeSort(Arrays.copyOfRange(a, from, to), 0, a, from, n, c);
+    }
+
+    /** Sorts n elements into dst[dOff, dOff + n). src[sOff, sOff + n) must hold the same elements and is used as scratch. */
+    private static void mergeSort(double[] src, int sOff, double[] dst, int dOff, int n, DoubleComparator c) {
+        if (n <= INSERTION_THRESHOLD) {
+            insertionSort(dst, dOff, dOff + n, c);
+            return;
+        }
+        int h = n >>> 1;
+        mergeSort(dst, dOff, src, sOff, h, c);
+        mergeSort(dst, dOff + h, src, sOff + h, n - h, c);
+        int mid = sOff + h;
+        int end = sOff + n;
+        if (c.compare(src[mid - 1], src[mid]) <= 0) {
+            System.arraycopy(src, sOff, dst, dOff, n);
+            return;
+        }
+        int i = sOff, j = mid, o = dOff;
+        while (i < mid && j < end) {
+            dst[o++] = c.compare(src[i], src[j]) <= 0 ? src[i++] : src[j++];
+        }
+        System.arraycopy(src, i, dst, o, mid - i);
+        System.arraycopy(src, j, dst, o + mid - i, end - j);
+    }
+
+    private static void insertionSort(double[] a, int from, int to, DoubleComparator c) {
+        for (int i = from + 1; i < to; i++) {
+            double item = a[i];
+            int ind = i;
+            while (ind > from && c.compare(a[ind-1], item) > 0) {
+                a[ind] = a[ind-1];
+                ind--;
+            }
+            a[ind] = item;
+        }
+    }
+}
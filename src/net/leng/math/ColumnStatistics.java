@@ -0,0 +1,369 @@
+package net.leng.math;
+
+import net.leng.array.ArrayMaker;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+/** The measures of {@link Statistics} over columns of doubles held in {@link DoubleBuffer}s, such as memory-mapped
+ * column files, without copying them into arrays.
+ * <p>
+ * A column is given as one or more buffers, its segments, whose remaining elements are taken in order. A single
+ * buffer holds at most 2^31 - 1 doubles, so larger files are mapped in several segments by {@link #map(Path)}.
+ * Buffers may be heap, direct or mapped, and are only ever read with absolute gets, so neither their position nor
+ * their contents change.
+ * <p>
+ * Sums use the same fixed chunking and compensated summation as {@link Statistics}, and the parallel forms give
+ * bit for bit the same results as the sequential ones. Quantiles are selected with a radix histogram over the bits
+ * of the doubles: every pass narrows each rank down to one bucket of a 16 bit digit, and once a bucket is small
+ * enough its elements are gathered and selected in memory, so a column is read at most four times and never sorted.
+ * */
+public class ColumnStatistics {
+    /** How many doubles {@link #map(Path)} puts into every segment. */
+    private static final int SEGMENT = 1 << 27;
+
+    private static final int DIGIT_BITS = 16;
+
+    /** Buckets holding this many elements or fewer are gathered into an array and selected in memory. */
+    private static final int GATHER_LIMIT = 1 << 18;
+
+    private ColumnStatistics() {} // ensures no one has access to the object
+
+    /** Maps a file of little-endian doubles, such as one written by
+     * {@link net.leng.array.ExternalSorter#sortDoubles(Path, Path)}, as a read-only column.
+     * The mappings stay valid after this method returns and are released once they are no longer reachable.
+     * @param column The file to be mapped.
+     * @return The segments of the column.
+     * */
+    public static DoubleBuffer[] map(Path column) throws IOException {
+        try (FileChannel channel = FileChannel.open(column)) {
+            long bytes = channel.size();
+            if ((bytes & 7) != 0) throw new IllegalArgumentException("File size must be a multiple of 8 bytes");
+            long n = bytes >>> 3;
+            DoubleBuffer[] segments = new DoubleBuffer[(int)((n + SEGMENT - 1) / SEGMENT)];
+            for (int s = 0; s < segments.length; s++) {
+                long start = (long)s * SEGMENT;
+                long len = Math.min(SEGMENT, n - start);
+                segments[s] = channel.map(FileChannel.MapMode.READ_ONLY, start << 3, len << 3)
+                        .order(ByteOrder.LITTLE_ENDIAN).asDoubleBuffer();
+            }
+            return segments;
+        }
+    }
+
+    /** @return The number of doubles in the column. */
+    public static long count(DoubleBuffer... column) {
+        long count = 0;
+        for (DoubleBuffer segment : column) {
+            count += segment.remaining();
+        }
+        return count;
+    }
+
+    public static double sum(DoubleBuffer... column) {
+        return sum(segments(column), null);
+    }
+
+    public static double sumParallel(DoubleBuffer[] column) {
+        return sumParallel(column, ForkJoinPool.commonPool());
+    }
+
+    public static double sumParallel(DoubleBuffer[] column, ForkJoinPool pool) {
+        DoubleBuffer[] segments = segments(column);
+        return sum(segments, parallelism(segments, pool));
+    }
+
+    private static double sum(DoubleBuffer[] segments, ForkJoinPool pool) {
+        return reduce(segments, 1, (segment, from, to, out, offset) -> out[offset] = Reductions.sum(segment, from, to), pool)[0];
+    }
+
+    public static double mean(DoubleBuffer... column) {
+        DoubleBuffer[] segments = segments(column);
+        return sum(segments, null) / count(segments);
+    }
+
+    public static double meanParallel(DoubleBuffer[] column) {
+        return meanParallel(column, ForkJoinPool.commonPool());
+    }
+
+    public static double meanParallel(DoubleBuffer[] column, ForkJoinPool pool) {
+        DoubleBuffer[] segments = segments(column);
+        return sum(segments, parallelism(segments, pool)) / count(segments);
+    }
+
+    /** @return The population variance of the column, which agrees with {@link Statistics#variance(double...)} over
+     * the same values to rounding. The sums are chunked within every segment, so a column split elsewhere than at a
+     * chunk boundary may differ from the array in the last bits.
+     * */
+    public static double variance(DoubleBuffer... column) {
+        return variance(segments(column), null);
+    }
+
+    public static double varianceParallel(DoubleBuffer[] column) {
+        return varianceParallel(column, ForkJoinPool.commonPool());
+    }
+
+    public static double varianceParallel(DoubleBuffer[] column, ForkJoinPool pool) {
+        DoubleBuffer[] segments = segments(column);
+        return variance(segments, parallelism(segments, pool));
+    }
+
+    private static double variance(DoubleBuffer[] segments, ForkJoinPool pool) {
+        long len = count(segments);
+        double mean = sum(segments, pool) / len;
+        double[] d = reduce(segments, 2, (segment, from, to, out, offset) -> Reductions.deviations(segment, mean, from, to, out, offset), pool);
+        return (d[0] - d[1] * d[1] / len) / len;
+    }
+
+    public static double stdev(DoubleBuffer... column) {
+        return Math.sqrt(variance(column));
+    }
+
+    public static double stdevParallel(DoubleBuffer[] column) {
+        return Math.sqrt(varianceParallel(column));
+    }
+
+    public static double stdevParallel(DoubleBuffer[] column, ForkJoinPool pool) {
+        return Math.sqrt(varianceParallel(column, pool));
+    }
+
+    /** @return The smallest double in the column, or NaN if it is empty. NaNs in the column are skipped. */
+    public static double smallest(DoubleBuffer... column) {
+        DoubleBuffer[] segments = segments(column);
+        if (count(segments) == 0) return Double.NaN;
+        double smallest = Double.POSITIVE_INFINITY;
+        for (DoubleBuffer segment : segments) {
+            for (int i = 0, len = segment.limit(); i < len; i++) {
+                double d = segment.get(i);
+                if (d < smallest) smallest = d;
+            }
+        }
+        return smallest;
+    }
+
+    /** @return The largest double in the column, or NaN if it is empty. NaNs in the column are skipped. */
+    public static double largest(DoubleBuffer... column) {
+        DoubleBuffer[] segments = segments(column);
+        if (count(segments) == 0) return Double.NaN;
+        double largest = Double.NEGATIVE_INFINITY;
+        for (DoubleBuffer segment : segments) {
+            for (int i = 0, len = segment.limit(); i < len; i++) {
+                double d = segment.get(i);
+                if (d > largest) largest = d;
+            }
+        }
+        return largest;
+    }
+
+    public static double range(DoubleBuffer... column) {
+        return largest(column) - smallest(column);
+    }
+
+    /** Finds the correlation coefficient of two columns, which agrees with
+     * {@link Statistics#correlationCoefficient(double[], double[])} over the same values to rounding, as the
+     * variance does.
+     * @param a A column split into segments of the same sizes as b, as {@link #map(Path)} splits files of equal length.
+     * @param b The other column.
+     * @return The correlation coefficient (r) between columns a and b.
+     * */
+    public static double correlationCoefficient(DoubleBuffer[] a, DoubleBuffer[] b) {
+        return correlationCoefficient(segments(a), segments(b), null);
+    }
+
+    public static double correlationCoefficientParallel(DoubleBuffer[] a, DoubleBuffer[] b) {
+        return correlationCoefficientParallel(a, b, ForkJoinPool.commonPool());
+    }
+
+    public static double correlationCoefficientParallel(DoubleBuffer[] a, DoubleBuffer[] b, ForkJoinPool pool) {
+        DoubleBuffer[] as = segments(a);
+        return correlationCoefficient(as, segments(b), parallelism(as, pool));
+    }
+
+    private static double correlationCoefficient(DoubleBuffer[] a, DoubleBuffer[] b, ForkJoinPool pool) {
+        if (a.length != b.length) throw new IllegalArgumentException("Columns must be split into segments of the same sizes");
+        for (int s = 0; s < a.length; s++) {
+            if (a[s].limit() != b[s].limit()) throw new IllegalArgumentException("Columns must be split into segments of the same sizes");
+        }
+        long len = count(a);
+        double amean = sum(a, pool) / len;
+        double bmean = sum(b, pool) / len;
+        double[] partials = new double[a.length * 5];
+        for (int s = 0; s < a.length; s++) {
+            DoubleBuffer as = a[s];
+            DoubleBuffer bs = b[s];
+            double[] totals = Reductions.sum(as.limit(), 5, (from, to, out, offset) -> Reductions.coDeviations(as, amean, bs, bmean, from, to, out, offset), pool);
+            System.arraycopy(totals, 0, partials, s * 5, 5);
+        }
+        double[] d = Reductions.fold(partials, a.length, 5);
+        double sxx = d[0] - d[3] * d[3] / len;
+        double syy = d[1] - d[4] * d[4] / len;
+        double sxy = d[2] - d[3] * d[4] / len;
+        return sxy / Math.sqrt(sxx * syy);
+    }
+
+    /** Finds the k-th smallest double (counting from 0) of the column, in the order of
+     * {@link Double#compare(double, double)}, without sorting or copying the column.
+     * @param k The index the double would have if the column was sorted.
+     * @param column The column searched.
+     * @return The double that would be at index k if the column was sorted.
+     * */
+    public static double select(long k, DoubleBuffer... column) {
+        return selectRanks(segments(column), new long[]{k})[0];
+    }
+
+    /** @return The median of the column, as {@link Statistics#median(double...)} would find it. */
+    public static double median(DoubleBuffer... column) {
+        DoubleBuffer[] segments = segments(column);
+        long len = count(segments);
+        long hl = len >> 1;
+        if ((len & 1) == 0) {
+            double[] d = selectRanks(segments, new long[]{hl - 1, hl});
+            return (d[0] + d[1]) / 2;
+        }
+        return selectRanks(segments, new long[]{hl})[0];
+    }
+
+    /** @return The quartiles of the column, as {@link Statistics#quartiles(double...)} would find them, selected
+     * together in the same passes over the column.
+     * */
+    public static double[] quartiles(DoubleBuffer... column) {
+        DoubleBuffer[] segments = segments(column);
+        long[] ranks = Statistics.quartileRanks(count(segments));
+        return Statistics.quartiles(ranks, selectRanks(segments, ranks));
+    }
+
+    /** Finds the doubles at every rank with a radix histogram, narrowing all the ranks in the same passes.
+     * @return The double at each rank, in the order of ranks.
+     * */
+    private static double[] selectRanks(DoubleBuffer[] segments, long[] ranks) {
+        long n = count(segments);
+        int m = ranks.length;
+        for (long k : ranks) {
+            if (k < 0 || k >= n) throw new IllegalArgumentException("k must lie inside the column");
+        }
+        double[] found = new double[m];
+        boolean[] done = new boolean[m];
+        // The bucket every rank is known to lie in: the keys starting with prefix, bits long, holding size elements.
+        long[] prefix = new long[m];
+        int[] bits = new int[m];
+        long[] size = new long[m];
+        long[] rank = ranks.clone();
+        Arrays.fill(size, n);
+        int pending = m;
+        while (pending > 0) {
+            // Ranks that share a bucket share its histogram or gathered elements.
+            int[] bucketOf = new int[m];
+            long[] bucketPrefix = new long[m];
+            int[] bucketBits = new int[m];
+            int buckets = 0;
+            for (int r = 0; r < m; r++) {
+                if (done[r]) continue;
+                int b = 0;
+                while (b < buckets && (bucketBits[b] != bits[r] || bucketPrefix[b] != prefix[r])) b++;
+                if (b == buckets) {
+                    bucketPrefix[b] = prefix[r];
+                    bucketBits[b] = bits[r];
+                    buckets++;
+                }
+                bucketOf[r] = b;
+            }
+            long[][] histograms = new long[buckets][];
+            double[][] gathered = new double[buckets][];
+            int[] fill = new int[buckets];
+            for (int r = 0; r < m; r++) {
+                if (done[r]) continue;
+                int b = bucketOf[r];
+                if (size[r] <= GATHER_LIMIT) {
+                    if (gathered[b] == null) gathered[b] = new double[(int)size[r]];
+                } else if (histograms[b] == null) {
+                    histograms[b] = new long[1 << DIGIT_BITS];
+                }
+            }
+            for (DoubleBuffer segment : segments) {
+                for (int i = 0, len = segment.limit(); i < len; i++) {
+                    double d = segment.get(i);
+                    long key = key(d);
+                    for (int b = 0; b < buckets; b++) {
+                        int prefixBits = bucketBits[b];
+                        if (prefixBits != 0 && key >>> (64 - prefixBits) != bucketPrefix[b]) continue;
+                        if (gathered[b] != null) {
+                            gathered[b][fill[b]++] = d;
+                        } else {
+                            histograms[b][(int)(key >>> (64 - prefixBits - DIGIT_BITS)) & ((1 << DIGIT_BITS) - 1)]++;
+                        }
+                        break;
+                    }
+                }
+            }
+            for (int r = 0; r < m; r++) {
+                if (done[r]) continue;
+                int b = bucketOf[r];
+                if (gathered[b] != null) {
+                    found[r] = ArrayMaker.select(gathered[b], (int)rank[r]);
+                    done[r] = true;
+                    pending--;
+                    continue;
+                }
+                long[] histogram = histograms[b];
+                int digit = 0;
+                while (rank[r] >= histogram[digit]) {
+                    rank[r] -= histogram[digit++];
+                }
+                prefix[r] = (prefix[r] << DIGIT_BITS) | digit;
+                bits[r] += DIGIT_BITS;
+                size[r] = histogram[digit];
+                if (bits[r] == 64) {
+                    found[r] = fromKey(prefix[r]);
+                    done[r] = true;
+                    pending--;
+                }
+            }
+        }
+        return found;
+    }
+
+    /** @return a key whose unsigned order is the order of {@link Double#compare(double, double)}. */
+    private static long key(double d) {
+        long bits = Double.doubleToLongBits(d);
+        return bits ^ ((bits >> 63) | Long.MIN_VALUE);
+    }
+
+    private static double fromKey(long key) {
+        return Double.longBitsToDouble(key < 0 ? key ^ Long.MIN_VALUE : ~key);
+    }
+
+    /** @return The remaining elements of every buffer of the column, as buffers indexed from 0. */
+    private static DoubleBuffer[] segments(DoubleBuffer[] column) {
+        DoubleBuffer[] segments = new DoubleBuffer[column.length];
+        for (int s = 0; s < column.length; s++) {
+            segments[s] = column[s].slice();
+        }
+        return segments;
+    }
+
+    private static ForkJoinPool parallelism(DoubleBuffer[] segments, ForkJoinPool pool) {
+        return count(segments) > Statistics.PARALLEL_THRESHOLD ? pool : null;
+    }
+
+    /** Sums the terms of the kernel over every segment in turn and folds the segment totals in order. */
+    private static double[] reduce(DoubleBuffer[] segments, int terms, SegmentKernel kernel, ForkJoinPool pool) {
+        double[] partials = new double[segments.length * terms];
+        for (int s = 0; s < segments.length; s++) {
+            DoubleBuffer segment = segments[s];
+            double[] totals = Reductions.sum(segment.limit(), terms, (from, to, out, offset) -> kernel.apply(segment, from, to, out, offset), pool);
+            System.arraycopy(totals, 0, partials, s * terms, terms);
+        }
+        return Reductions.fold(partials, segments.length, terms);
+    }
+
+    /** A {@link Reductions.Kernel} over one segment of a column. */
+    @FunctionalInterface
+    private interface SegmentKernel {
+        void apply(DoubleBuffer segment, int from, int to, double[] out, int offset);
+    }
+}
@@ -0,0 +1,254 @@
+package net.leng.math;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.stream.Stream;
+
+/** Exact factorials, permutation counts and binomial coefficients, as longs where they fit and as BigIntegers where
+ * they do not.
+ * <p>
+ * Every factorial that fits into a long (up to 20!) and every row of Pascal's triangle whose entries all fit (up to
+ * row 66) are computed once when the class is loaded, so the common small cases are table lookups. BigInteger
+ * factorials are cached as they are asked for, up to {@link #BIG_FACTORIAL_CACHE} of them, and larger ones are
+ * multiplied out as a balanced product tree. Large binomial coefficients are divided out of n! / (n - k)! where k is
+ * small next to n, and built from their prime factorization otherwise.
+ * <p>
+ * Every method is safe to call from several threads at once.
+ * */
+public class Combinatorics {
+    /** The largest n whose factorial fits into a long. */
+    public static final int MAX_LONG_FACTORIAL = 20;
+
+    /** The last row of Pascal's triangle whose entries all fit into a long. */
+    public static final int MAX_LONG_PASCAL_ROW = 66;
+
+    /** How many BigInteger factorials, from 0! on, are kept once they have been computed. */
+    public static final int BIG_FACTORIAL_CACHE = 2048;
+
+    private static final long[] FACTORIALS = new long[MAX_LONG_FACTORIAL + 1];
+
+    /** Row n of Pascal's triangle starts at index n * (n + 1) / 2. */
+    private static final long[] PASCAL = new long[(MAX_LONG_PASCAL_ROW + 1) * (MAX_LONG_PASCAL_ROW + 2) / 2];
+
+    static {
+        FACTORIALS[0] = 1;
+        for (int i = 1; i <= MAX_LONG_FACTORIAL; i++) {
+            FACTORIALS[i] = FACTORIALS[i-1] * i;
+        }
+        for (int n = 0; n <= MAX_LONG_PASCAL_ROW; n++) {
+            int row = rowStart(n);
+            PASCAL[row] = 1;
+            PASCAL[row + n] = 1;
+            int prev = rowStart(n - 1);
+            for (int k = 1; k < n; k++) {
+                PASCAL[row + k] = PASCAL[prev + k - 1] + PASCAL[prev + k];
+            }
+        }
+    }
+
+    /** The BigInteger factorials computed so far, replaced by a longer copy whenever it grows. */
+    private static volatile BigInteger[] bigFactorials = {BigInteger.ONE};
+
+    private static final Object GROW_LOCK = new Object();
+
+    private Combinatorics() {} // ensures no one has access to the object
+
+    private static int rowStart(int n) {
+        return n * (n + 1) / 2;
+    }
+
+    /** @return n!, read from a table.
+     * @throws ArithmeticException if n! does not fit into a long, which is past {@link #MAX_LONG_FACTORIAL}.
+     * */
+    public static long factorial(int n) {
+        checkNonNegative(n);
+        if (n > MAX_LONG_FACTORIAL) throw new ArithmeticException(n + "! does not fit into a long");
+        return FACTORIALS[n];
+    }
+
+    /** @return n! exactly, from the cache where it has been computed before. */
+    public static BigInteger bigFactorial(int n) {
+        checkNonNegative(n);
+        BigInteger[] cache = bigFactorials;
+        if (n < cache.length) return cache[n];
+        if (n >= BIG_FACTORIAL_CACHE) {
+            cache = growBigFactorials(BIG_FACTORIAL_CACHE - 1);
+            return cache[BIG_FACTORIAL_CACHE - 1].multiply(product(BIG_FACTORIAL_CACHE, n));
+        }
+        return growBigFactorials(n)[n];
+    }
+
+    /** Extends the cache to hold at least n!, doubling it to keep the number of copies down. */
+    private static BigInteger[] growBigFactorials(int n) {
+        synchronized (GROW_LOCK) {
+            BigInteger[] cache = bigFactorials;
+            if (n < cache.length) return cache;
+            int len = Math.min(BIG_FACTORIAL_CACHE, Math.max(n + 1, cache.length << 1));
+            BigInteger[] grown = Arrays.copyOf(cache, len);
+            for (int i = cache.length; i < len; i++) {
+                grown[i] = grown[i-1].multiply(BigInteger.valueOf(i));
+            }
+            bigFactorials = grown;
+            return grown;
+        }
+    }
+
+    /** @return The product of every integer from lo to hi inclusive, multiplied as a balanced tree so that the
+     * operands of the large multiplications stay about the same size.
+     * */
+    private static BigInteger product(long lo, long hi) {
+        if (lo > hi) return BigInteger.ONE;
+        if (hi - lo < 16) {
+            BigInteger result = BigInteger.valueOf(lo);
+            for (long i = lo + 1; i <= hi; i++) {
+                result = result.multiply(BigInteger.valueOf(i));
+            }
+            return result;
+        }
+        long mid = (lo + hi) >>> 1;
+        return product(lo, mid).multiply(product(mid + 1, hi));
+    }
+
+    /** @return The number of ways to choose and order k of n elements, n! / (n - k)!, or 0 if k is greater than n.
+     * @throws ArithmeticException if the count does not fit into a long.
+     * */
+    public static long permutations(int n, int k) {
+        checkNonNegative(n);
+        checkNonNegative(k);
+        if (k > n) return 0;
+        long result = 1;
+        for (int i = n - k + 1; i <= n; i++) {
+            result = Math.multiplyExact(result, i);
+        }
+        return result;
+    }
+
+    /** @return n! / (n - k)! exactly, or 0 if k is greater than n. */
+    public static BigInteger bigPermutations(int n, int k) {
+        checkNonNegative(n);
+        checkNonNegative(k);
+        if (k > n) return BigInteger.ZERO;
+        return product(n - k + 1, n);
+    }
+
+    /** Counts the ways to choose k of n elements regardless of order, the binomial coefficient n choose k.
+     * <p>
+     * Read from Pascal's triangle up to row {@link #MAX_LONG_PASCAL_ROW}. Past it, the coefficient is multiplied
+     * out one factor at a time, dividing by the common factors first so that no partial product overflows unless
+     * the result does.
+     * @return n choose k, or 0 if k is greater than n.
+     * @throws ArithmeticException if the coefficient does not fit into a long.
+     * */
+    public static long choose(int n, int k) {
+        checkNonNegative(n);
+        checkNonNegative(k);
+        if (k > n) return 0;
+        if (n <= MAX_LONG_PASCAL_ROW) return PASCAL[rowStart(n) + k];
+        k = Math.min(k, n - k);
+        long result = 1;
+        for (int i = 1; i <= k; i++) {
+            // result * (n - k + i) is divisible by i, as result is (n - k + i - 1) choose (i - 1).
+            long g = gcd(result, i);
+            long divisor = i / g;
+            result = Math.multiplyExact(result / g, (n - k + i) / divisor);
+        }
+        return result;
+    }
+
+    /** Finds n choose k exactly. Where it does not fit into a long and k is small next to n, it is n! / (n - k)!
+     * divided by k!. Otherwise it is built from its prime factorization, which takes a sieve up to n but no long
+     * division: the exponent of every prime p up to n is the number of carries when k and n - k are added in base p
+     * (Kummer's theorem), counted here with Legendre's formula for the exponent of p in a factorial.
+     * @return n choose k, or 0 if k is greater than n.
+     * */
+    public static BigInteger bigChoose(int n, int k) {
+        checkNonNegative(n);
+        checkNonNegative(k);
+        if (k > n) return BigInteger.ZERO;
+        k = Math.min(k, n - k);
+        if (n <= MAX_LONG_PASCAL_ROW) return BigInteger.valueOf(PASCAL[rowStart(n) + k]);
+        // Dividing by k! costs about as k^2 and the sieve as n; timed, they cross near k^2 = 16n.
+        if ((long)k * k < 16L * n) return product(n - k + 1, n).divide(bigFactorial(k));
+        boolean[] composite = new boolean[n + 1];
+        long[] powers = new long[n + 1];
+        int count = 0;
+        for (int p = 2; p <= n; p++) {
+            if (composite[p]) continue;
+            for (long m = (long)p * p; m <= n; m += p) {
+                composite[(int)m] = true;
+            }
+            int exponent = 0;
+            for (long pk = p; pk <= n; pk *= p) {
+                exponent += (int)(n / pk - k / pk - (n - k) / pk);
+            }
+            long power = 1;
+            for (int e = 0; e < exponent; e++) {
+                power *= p;
+            }
+            if (exponent > 0) powers[count++] = power;
+        }
+        return product(powers, 0, count);
+    }
+
+    private static BigInteger product(long[] factors, int from, int to) {
+        if (to - from <= 8) {
+            BigInteger result = BigInteger.ONE;
+            for (int i = from; i < to; i++) {
+                result = result.multiply(BigInteger.valueOf(factors[i]));
+            }
+            return result;
+        }
+        int mid = (from + to) >>> 1;
+        return product(factors, from, mid).multiply(product(factors, mid, to));
+    }
+
+    /** @return Row n of Pascal's triangle, the coefficients n choose 0 through n choose n, as a fresh array.
+     * @throws ArithmeticException if n is past {@link #MAX_LONG_PASCAL_ROW}, where the middle entries do not fit into
+     * a long.
+     * */
+    public static long[] pascalRow(int n) {
+        checkNonNegative(n);
+        if (n > MAX_LONG_PASCAL_ROW) throw new ArithmeticException("Row " + n + " of Pascal's triangle does not fit into longs");
+        int start = rowStart(n);
+        return Arrays.copyOfRange(PASCAL, start, start + n + 1);
+    }
+
+    /** @return Row n of Pascal's triangle exactly, each entry derived from the one before it. */
+    public static BigInteger[] bigPascalRow(int n) {
+        checkNonNegative(n);
+        BigInteger[] row = new BigInteger[n + 1];
+        row[0] = BigInteger.ONE;
+        for (int k = 0; k < n; k++) {
+            row[k+1] = row[k].multiply(BigInteger.valueOf(n - k)).divide(BigInteger.valueOf(k + 1));
+        }
+        return row;
+    }
+
+    /** @return Every row of Pascal's triangle in order, starting with row 0, each one added up from the one before.
+     * The stream is infinite, so it has to be limited.
+     * */
+    public static Stream<BigInteger[]> pascalRows() {
+        return Stream.iterate(new BigInteger[]{BigInteger.ONE}, prev -> {
+            BigInteger[] row = new BigInteger[prev.length + 1];
+            row[0] = BigInteger.ONE;
+            row[prev.length] = BigInteger.ONE;
+            for (int k = 1; k < prev.length; k++) {
+                row[k] = prev[k-1].add(prev[k]);
+            }
+            return row;
+        });
+    }
+
+    private static long gcd(long a, long b) {
+        while (b != 0) {
+            long t = a % b;
+            a = b;
+            b = t;
+        }
+        return a;
+    }
+
+    private static void checkNonNegative(int n) {
+        if (n < 0) throw new IllegalArgumentException("Cannot count arrangements of a negative number of elements");
+    }
+}
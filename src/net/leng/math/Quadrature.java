@@ -0,0 +1,282 @@
+package net.leng.math;
+
+import java.util.Arrays;
+import java.util.function.DoubleUnaryOperator;
+
+/** Numerical integration of a function of one variable with the adaptive Gauss-Kronrod rule, as QUADPACK's QAG
+ * does it.
+ * <p>
+ * Every interval is integrated with the 15 point Kronrod rule, and the 7 point Gauss rule nested inside it, which
+ * reuses 7 of the 15 evaluations, gives an estimate of the error. The interval with the largest error is then halved
+ * until the error of the whole integral is within the tolerance or the evaluations run out, so smooth functions
+ * finish in a few dozen evaluations and the work concentrates around the peaks and kinks of the rest. None of the
+ * nodes are end points, so functions that blow up at an end point can still be integrated.
+ * <p>
+ * Infinite ranges are mapped onto finite ones first: [a, infinity) through x = a + t / (1 - t), (-infinity, b]
+ * through x = b - (1 - t) / t, and the whole line through x = t / (1 - t^2).
+ * */
+public class Quadrature {
+    public static final double DEFAULT_ABSOLUTE_TOLERANCE = 1e-12;
+    public static final double DEFAULT_RELATIVE_TOLERANCE = 1e-10;
+
+    /** The evaluations an integral gets unless it is given a budget of its own, which is 1000 halvings. */
+    public static final int DEFAULT_MAX_EVALUATIONS = 30015;
+
+    /** The evaluations every interval costs. */
+    private static final int RULE_EVALUATIONS = 15;
+
+    /** The Kronrod nodes on [-1, 1], from the outermost inwards. The odd ones are also the Gauss nodes. */
+    private static final double[] KRONROD_NODES = {
+            0.991455371120812639206854697526329, 0.949107912342758524526189684047851,
+            0.864864423359769072789712788640926, 0.741531185599394439863864773280788,
+            0.586087235467691130294144845693013, 0.405845151377397166906606412076961,
+            0.207784955007898467600689403773245, 0
+    };
+
+    private static final double[] KRONROD_WEIGHTS = {
+            0.022935322010529224963732008058970, 0.063092092629978553290700663189204,
+            0.104790010322250183839876322541518, 0.140653259715525918745189590510238,
+            0.169004726639267902826583426598550, 0.190350578064785409913256402421014,
+            0.204432940075298892414161999234649, 0.209482141084727828012999174891714
+    };
+
+    /** The weights of the Gauss nodes KRONROD_NODES[1], [3], [5] and [7]. */
+    private static final double[] GAUSS_WEIGHTS = {
+            0.129484966168869693270611432679082, 0.279705391489276667901467771423780,
+            0.381830050505118944950369775488975, 0.417959183673469387755102040816327
+    };
+
+    /** Where {@link #kronrod} leaves the integral and its error, after the values at the other 14 nodes. */
+    private static final int VALUE = RULE_EVALUATIONS - 1;
+    private static final int ERROR = RULE_EVALUATIONS;
+
+    private static final double EPSILON = Math.ulp(1.0);
+
+    /** The narrowest interval that is halved, in ulps of its larger end. The outermost nodes of the halves then stay
+     * a few ulps inside their ends, rather than rounding onto an end where the function may blow up.
+     * */
+    private static final double MIN_HALVED_ULPS = 2048;
+
+    private Quadrature() {} // ensures no one has access to the object
+
+    /** An integral and how far it can be trusted.
+     * @param value The integral.
+     * @param error An estimate of the absolute error of the value, which tends to be pessimistic.
+     * @param evaluations How many times the function was evaluated.
+     * @param converged Whether the error is within the tolerance. If not, the evaluations ran out, an interval could
+     *                  not be halved any further, or the function was not finite somewhere.
+     * */
+    public record Result(double value, double error, int evaluations, boolean converged) {}
+
+    /** Integrates a function with the default tolerances and budget.
+     * @see #integrate(DoubleUnaryOperator, double, double, double, double, int)
+     * */
+    public static Result integrate(DoubleUnaryOperator function, double start, double end) {
+        return integrate(function, start, end, DEFAULT_ABSOLUTE_TOLERANCE, DEFAULT_RELATIVE_TOLERANCE,
+                DEFAULT_MAX_EVALUATIONS);
+    }
+
+    /** Integrates a function between two bounds, either of which may be infinite.
+     * @param function The function being integrated.
+     * @param start The lower bound of the integral.
+     * @param end The upper bound of the integral. If it is below the start, the integral is negated.
+     * @param absoluteTolerance The largest absolute error that is accepted.
+     * @param relativeTolerance The largest error relative to the integral that is accepted. Integration stops once
+     *                          either tolerance is met.
+     * @param maxEvaluations How many times the function may be evaluated, at least 15.
+     * @return The integral, which is NaN if either bound is NaN.
+     * */
+    public static Result integrate(DoubleUnaryOperator function, double start, double end,
+                                   double absoluteTolerance, double relativeTolerance, int maxEvaluations) {
+        if (!(absoluteTolerance >= 0) || !(relativeTolerance >= 0)) {
+            throw new IllegalArgumentException("Tolerances cannot be negative");
+        }
+        if (maxEvaluations < RULE_EVALUATIONS) {
+            throw new IllegalArgumentException("An integral needs at least " + RULE_EVALUATIONS + " evaluations");
+        }
+        if (Double.isNaN(start) || Double.isNaN(end)) return new Result(Double.NaN, Double.NaN, 0, false);
+        if (start == end) return new Result(0, 0, 0, true);
+        double sign = 1;
+        if (end < start) {
+            double t = end;
+            end = start;
+            start = t;
+            sign = -1;
+        }
+        Result result;
+        if (Double.isInfinite(start) && Double.isInfinite(end)) {
+            result = adapt(t -> {
+                double u = 1 - t * t;
+                return weighted(function.applyAsDouble(t / u), (1 + t * t) / (u * u));
+            }, -1, 1, absoluteTolerance, relativeTolerance, maxEvaluations);
+        } else if (Double.isInfinite(end)) {
+            double a = start;
+            result = adapt(t -> {
+                double u = 1 - t;
+                return weighted(function.applyAsDouble(a + t / u), 1 / (u * u));
+            }, 0, 1, absoluteTolerance, relativeTolerance, maxEvaluations);
+        } else if (Double.isInfinite(start)) {
+            double b = end;
+            result = adapt(t -> weighted(function.applyAsDouble(b - (1 - t) / t), 1 / (t * t)),
+                    0, 1, absoluteTolerance, relativeTolerance, maxEvaluations);
+        } else {
+            result = adapt(function, start, end, absoluteTolerance, relativeTolerance, maxEvaluations);
+        }
+        if (sign > 0) return result;
+        return new Result(-result.value(), result.error(), result.evaluations(), result.converged());
+    }
+
+    /** @return f times the Jacobian of a substitution, where a function that has already decayed to 0 stays 0
+     * however large the Jacobian has grown.
+     * */
+    private static double weighted(double f, double jacobian) {
+        return f == 0 ? 0 : f * jacobian;
+    }
+
+    /** Halves the interval with the largest error until the total error is within the tolerance. The intervals are
+     * kept in parallel arrays, and a max heap of their indices ordered by error picks the next one to halve.
+     * */
+    private static Result adapt(DoubleUnaryOperator f, double a, double b, double absoluteTolerance,
+                                double relativeTolerance, int maxEvaluations) {
+        double[] rule = new double[RULE_EVALUATIONS + 1];
+        kronrod(f, a, b, rule);
+        int evaluations = RULE_EVALUATIONS;
+        double total = rule[VALUE];
+        double totalError = rule[ERROR];
+        boolean finite = Double.isFinite(total) && Double.isFinite(totalError);
+        // Most smooth integrals are done after the first rule, without any of the bookkeeping for halving.
+        if (!finite || totalError <= Math.max(absoluteTolerance, relativeTolerance * Math.abs(total))
+                || evaluations + 2 * RULE_EVALUATIONS > maxEvaluations) {
+            return new Result(total, totalError, evaluations, finite
+                    && totalError <= Math.max(absoluteTolerance, relativeTolerance * Math.abs(total)));
+        }
+
+        int capacity = 16;
+        double[] lo = new double[capacity];
+        double[] hi = new double[capacity];
+        double[] value = new double[capacity];
+        double[] error = new double[capacity];
+        int[] heap = new int[capacity];
+        lo[0] = a;
+        hi[0] = b;
+        value[0] = total;
+        error[0] = totalError;
+        heap[0] = 0;
+        int count = 1;
+
+        while (finite && totalError > Math.max(absoluteTolerance, relativeTolerance * Math.abs(total))
+                && evaluations + 2 * RULE_EVALUATIONS <= maxEvaluations) {
+            int i = heap[0];
+            double left = lo[i];
+            double right = hi[i];
+            double mid = 0.5 * (left + right);
+            if (!(right - left >= MIN_HALVED_ULPS * Math.ulp(Math.max(Math.abs(left), Math.abs(right))))) break;
+            if (count == capacity) {
+                capacity <<= 1;
+                lo = Arrays.copyOf(lo, capacity);
+                hi = Arrays.copyOf(hi, capacity);
+                value = Arrays.copyOf(value, capacity);
+                error = Arrays.copyOf(error, capacity);
+                heap = Arrays.copyOf(heap, capacity);
+            }
+            kronrod(f, left, mid, rule);
+            double leftValue = rule[VALUE];
+            double leftError = rule[ERROR];
+            kronrod(f, mid, right, rule);
+            evaluations += 2 * RULE_EVALUATIONS;
+            total += leftValue + rule[VALUE] - value[i];
+            totalError += leftError + rule[ERROR] - error[i];
+
+            hi[i] = mid;
+            value[i] = leftValue;
+            error[i] = leftError;
+            siftDown(heap, count, error, 0);
+            int j = count;
+            lo[j] = mid;
+            hi[j] = right;
+            value[j] = rule[VALUE];
+            error[j] = rule[ERROR];
+            heap[count++] = j;
+            siftUp(heap, error, count - 1);
+
+            finite = Double.isFinite(total) && Double.isFinite(totalError);
+            // The running totals drift as intervals are swapped in and out, so they are summed again whenever they
+            // look converged.
+            if (finite && totalError <= Math.max(absoluteTolerance, relativeTolerance * Math.abs(total))) {
+                total = Reductions.sum(value, 0, count);
+                totalError = Reductions.sum(error, 0, count);
+            }
+        }
+        total = Reductions.sum(value, 0, count);
+        totalError = Reductions.sum(error, 0, count);
+        boolean converged = Double.isFinite(total) && Double.isFinite(totalError)
+                && totalError <= Math.max(absoluteTolerance, relativeTolerance * Math.abs(total));
+        return new Result(total, totalError, evaluations, converged);
+    }
+
+    private static void siftUp(int[] heap, double[] error, int k) {
+        int node = heap[k];
+        while (k > 0) {
+            int parent = (k - 1) >>> 1;
+            if (!(error[heap[parent]] < error[node])) break;
+            heap[k] = heap[parent];
+            k = parent;
+        }
+        heap[k] = node;
+    }
+
+    private static void siftDown(int[] heap, int count, double[] error, int k) {
+        int node = heap[k];
+        while (true) {
+            int child = 2 * k + 1;
+            if (child >= count) break;
+            if (child + 1 < count && error[heap[child + 1]] > error[heap[child]]) child++;
+            if (!(error[heap[child]] > error[node])) break;
+            heap[k] = heap[child];
+            k = child;
+        }
+        heap[k] = node;
+    }
+
+    /** Integrates f over [a, b] with the 15 point Kronrod rule, writing the integral to out[VALUE] and its error
+     * estimate to out[ERROR]. The rest of out holds the values at the 14 nodes around the center. The raw difference
+     * from the 7 point Gauss rule is scaled the way QUADPACK scales it, which is far less pessimistic for smooth
+     * functions, and is never allowed below the rounding error of the sum.
+     * */
+    private static void kronrod(DoubleUnaryOperator f, double a, double b, double[] out) {
+        double center = 0.5 * (a + b);
+        double halfLength = 0.5 * (b - a);
+        double fCenter = f.applyAsDouble(center);
+        double gauss = fCenter * GAUSS_WEIGHTS[3];
+        double kronrod = fCenter * KRONROD_WEIGHTS[7];
+        double absolute = Math.abs(kronrod);
+        for (int j = 0; j < 7; j++) {
+            double x = halfLength * KRONROD_NODES[j];
+            double left = f.applyAsDouble(center - x);
+            double right = f.applyAsDouble(center + x);
+            out[2 * j] = left;
+            out[2 * j + 1] = right;
+            double sum = left + right;
+            kronrod += KRONROD_WEIGHTS[j] * sum;
+            absolute += KRONROD_WEIGHTS[j] * (Math.abs(left) + Math.abs(right));
+            if ((j & 1) == 1) gauss += GAUSS_WEIGHTS[j >> 1] * sum;
+        }
+        double mean = kronrod * 0.5;
+        double spread = KRONROD_WEIGHTS[7] * Math.abs(fCenter - mean);
+        for (int j = 0; j < 7; j++) {
+            spread += KRONROD_WEIGHTS[j] * (Math.abs(out[2 * j] - mean) + Math.abs(out[2 * j + 1] - mean));
+        }
+        double length = Math.abs(halfLength);
+        spread *= length;
+        absolute *= length;
+        double error = Math.abs((kronrod - gauss) * halfLength);
+        if (spread != 0 && error != 0) {
+            error = spread * Math.min(1, Math.pow(200 * error / spread, 1.5));
+        }
+        if (absolute > Double.MIN_NORMAL / (50 * EPSILON)) {
+            error = Math.max(50 * EPSILON * absolute, error);
+        }
+        out[VALUE] = kronrod * halfLength;
+        out[ERROR] = error;
+    }
+}
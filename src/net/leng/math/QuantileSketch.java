@@ -0,0 +1,313 @@
+package net.leng.math;
+
+import net.leng.array.ArrayMaker;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/** An approximate, mergeable summary of the distribution of a stream of data points (a merging t-digest) that
+ * answers quantile queries such as the median and the quartiles in bounded memory, however many points it has seen.
+ * <p>
+ * Data points are buffered and periodically folded into a sorted list of centroids, each of which stands for the
+ * mean and the number of the points it absorbed. How many points a centroid may absorb is set by the compression:
+ * centroids near the median may grow large while those near the tails stay small. The error is one of rank, not of
+ * value: at the default compression an estimated quantile typically ranks within a few hundredths of a percent of the
+ * count of where it should, and at worst about 0.3% (measured on normal, log-normal and uniform points).
+ * That bound does not shrink towards the tails, so a quantile such as the 0.001 one may be off by a sizeable fraction
+ * of itself, and in a long tail its value may be far off. A larger compression keeps more centroids
+ * (about compression / 2) and gives more accurate answers.
+ * <p>
+ * Sketches from different threads or nodes can be combined with {@link #merge(QuantileSketch)}, and shipped between
+ * nodes with {@link #toBytes()} and {@link #fromBytes(byte[])}. A sketch is not safe to update from several
+ * threads at once.
+ * */
+public class QuantileSketch {
+    /** The compression used when the caller does not give one. */
+    public static final double DEFAULT_COMPRESSION = 100;
+
+    private static final byte FORMAT_VERSION = 1;
+
+    private final double compression;
+
+    private double[] means;
+    private double[] weights;
+    private int centroids;
+    private double mergedWeight;
+
+    private final double[] bufferMeans;
+    private final double[] bufferWeights;
+    private int buffered;
+    private double bufferedWeight;
+
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+
+    public QuantileSketch() {
+        this(DEFAULT_COMPRESSION);
+    }
+
+    /** Defines a new, empty sketch.
+     * @param compression How many centroids the sketch may keep, roughly twice over. Must be at least 10.
+     * */
+    public QuantileSketch(double compression) {
+        if (!(compression >= 10)) throw new IllegalArgumentException("Compression must be at least 10");
+        this.compression = compression;
+        int capacity = (int)Math.ceil(compression) + 10;
+        means = new double[capacity];
+        weights = new double[capacity];
+        int bufferSize = (int)Math.ceil(5 * compression);
+        bufferMeans = new double[bufferSize];
+        bufferWeights = new double[bufferSize];
+    }
+
+    public double compression() {
+        return compression;
+    }
+
+    /** Adds a single data point.
+     * @param val The data point, which must not be NaN.
+     * @return This sketch.
+     * */
+    public QuantileSketch add(double val) {
+        if (Double.isNaN(val)) throw new IllegalArgumentException("Cannot add NaN to a quantile sketch");
+        add(val, 1);
+        return this;
+    }
+
+    /** Adds every data point in vals.
+     * @param vals A list of data points inputted into the sketch.
+     * @return This sketch.
+     * */
+    public QuantileSketch addAll(double... vals) {
+        for (double d : vals) {
+            add(d);
+        }
+        return this;
+    }
+
+    /** Folds the data points summarized by another sketch into this one, leaving the other sketch untouched.
+     * @param other The sketch being merged in.
+     * @return This sketch.
+     * */
+    public QuantileSketch merge(QuantileSketch other) {
+        if (other == this) other = QuantileSketch.fromBytes(other.toBytes());
+        other.flush();
+        for (int i = 0; i < other.centroids; i++) {
+            add(other.means[i], other.weights[i]);
+        }
+        if (other.count() > 0) {
+            min = Math.min(min, other.min);
+            max = Math.max(max, other.max);
+        }
+        return this;
+    }
+
+    private void add(double mean, double weight) {
+        if (buffered == bufferMeans.length) flush();
+        bufferMeans[buffered] = mean;
+        bufferWeights[buffered++] = weight;
+        bufferedWeight += weight;
+        if (mean < min) min = mean;
+        if (mean > max) max = mean;
+    }
+
+    /** Folds the buffered points into the centroids. */
+    private void flush() {
+        if (buffered == 0) return;
+        int len = centroids + buffered;
+        double[] allMeans = Arrays.copyOf(means, len);
+        double[] allWeights = Arrays.copyOf(weights, len);
+        System.arraycopy(bufferMeans, 0, allMeans, centroids, buffered);
+        System.arraycopy(bufferWeights, 0, allWeights, centroids, buffered);
+        int[] order = new int[len];
+        for (int i = 0; i < len; i++) {
+            order[i] = i;
+        }
+        ArrayMaker.sortInPlace(order, (a, b) -> Double.compare(allMeans[a], allMeans[b]));
+
+        double total = mergedWeight + bufferedWeight;
+        buffered = 0;
+        bufferedWeight = 0;
+        mergedWeight = total;
+        centroids = 0;
+
+        double weightSoFar = 0;
+        double mean = allMeans[order[0]];
+        double weight = allWeights[order[0]];
+        double limit = total * qOfK(kOfQ(0) + 1);
+        for (int i = 1; i < len; i++) {
+            double m = allMeans[order[i]];
+            double w = allWeights[order[i]];
+            if (weightSoFar + weight + w <= limit) {
+                weight += w;
+                mean += (m - mean) * w / weight;
+            } else {
+                append(mean, weight);
+                weightSoFar += weight;
+                limit = total * qOfK(kOfQ(weightSoFar / total) + 1);
+                mean = m;
+                weight = w;
+            }
+        }
+        append(mean, weight);
+    }
+
+    private void append(double mean, double weight) {
+        if (centroids == means.length) {
+            means = Arrays.copyOf(means, centroids << 1);
+            weights = Arrays.copyOf(weights, centroids << 1);
+        }
+        means[centroids] = mean;
+        weights[centroids++] = weight;
+    }
+
+    /** The k1 scale function, which allows centroids near the tails far less weight than those near the median. */
+    private double kOfQ(double q) {
+        return compression / (2 * Math.PI) * Math.asin(2 * q - 1);
+    }
+
+    private double qOfK(double k) {
+        double x = k * 2 * Math.PI / compression;
+        if (x >= Math.PI / 2) return 1;
+        return (Math.sin(x) + 1) / 2;
+    }
+
+    /** @return The number of data points the sketch has seen. */
+    public long count() {
+        return Math.round(mergedWeight + bufferedWeight);
+    }
+
+    /** @return The smallest data point seen, or NaN if there are none. */
+    public double smallest() {
+        return count() == 0 ? Double.NaN : min;
+    }
+
+    /** @return The largest data point seen, or NaN if there are none. */
+    public double largest() {
+        return count() == 0 ? Double.NaN : max;
+    }
+
+    /** Estimates a quantile of the data points seen, by interpolating between the centers of neighbouring centroids.
+     * @param q The fraction of the data points that lie below the quantile, between 0 and 1.
+     * @return The estimated quantile, or NaN if the sketch is empty.
+     * */
+    public double quantile(double q) {
+        if (!(q >= 0 && q <= 1)) throw new IllegalArgumentException("q must be between 0 and 1");
+        flush();
+        if (centroids == 0) return Double.NaN;
+        if (centroids == 1) return means[0];
+        double index = q * mergedWeight;
+        double half = weights[0] / 2;
+        if (index <= half) {
+            return min + (means[0] - min) * (index / half);
+        }
+        double cumulative = half;
+        for (int i = 0; i < centroids - 1; i++) {
+            double dw = (weights[i] + weights[i+1]) / 2;
+            if (cumulative + dw > index) {
+                return means[i] + (means[i+1] - means[i]) * ((index - cumulative) / dw);
+            }
+            cumulative += dw;
+        }
+        int last = centroids - 1;
+        half = weights[last] / 2;
+        return means[last] + (max - means[last]) * Math.min(1, (index - cumulative) / half);
+    }
+
+    public double median() {
+        return quantile(0.5);
+    }
+
+    /** @return The estimated first quartile, median and third quartile, in that order. */
+    public double[] quartiles() {
+        return new double[]{quantile(0.25), quantile(0.5), quantile(0.75)};
+    }
+
+    /** Estimates the mean of the data points that remain once the given fraction has been cut from each end,
+     * as {@link Statistics#trimmedMean(double, double...)} computes it exactly. Every centroid is treated as if its
+     * points were spread evenly over its share of the ranks.
+     * @param percentage The fraction of the data points trimmed from each end, below 0.5.
+     * @return The estimated trimmed mean, or NaN if the sketch is empty.
+     * */
+    public double trimmedMean(double percentage) {
+        if (!(percentage >= 0 && percentage < 0.5)) throw new IllegalArgumentException("percentage must be between 0 and 0.5");
+        flush();
+        if (centroids == 0) return Double.NaN;
+        double lower = percentage * mergedWeight;
+        double upper = mergedWeight - lower;
+        double sum = 0;
+        double kept = 0;
+        double cumulative = 0;
+        for (int i = 0; i < centroids; i++) {
+            double overlap = Math.min(cumulative + weights[i], upper) - Math.max(cumulative, lower);
+            if (overlap > 0) {
+                sum += overlap * means[i];
+                kept += overlap;
+            }
+            cumulative += weights[i];
+        }
+        return sum / kept;
+    }
+
+    /** Serializes the sketch: the compression and extremes, followed by the mean of every centroid and its weight
+     * written as a variable length integer.
+     * @return The serialized sketch, which {@link #fromBytes(byte[])} reads back.
+     * */
+    public byte[] toBytes() {
+        flush();
+        ByteBuffer buffer = ByteBuffer.allocate(1 + 3 * Double.BYTES + 5 + centroids * (Double.BYTES + 10));
+        buffer.put(FORMAT_VERSION);
+        buffer.putDouble(compression);
+        buffer.putDouble(min);
+        buffer.putDouble(max);
+        putVarLong(buffer, centroids);
+        for (int i = 0; i < centroids; i++) {
+            buffer.putDouble(means[i]);
+        }
+        for (int i = 0; i < centroids; i++) {
+            putVarLong(buffer, Math.round(weights[i]));
+        }
+        return Arrays.copyOf(buffer.array(), buffer.position());
+    }
+
+    /** Reads a sketch written by {@link #toBytes()}.
+     * @param bytes The serialized sketch.
+     * @return A sketch equal to the one that was serialized.
+     * */
+    public static QuantileSketch fromBytes(byte[] bytes) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        if (buffer.get() != FORMAT_VERSION) throw new IllegalArgumentException("Unknown quantile sketch format");
+        QuantileSketch sketch = new QuantileSketch(buffer.getDouble());
+        sketch.min = buffer.getDouble();
+        sketch.max = buffer.getDouble();
+        int n = (int)getVarLong(buffer);
+        sketch.means = new double[Math.max(n, sketch.means.length)];
+        sketch.weights = new double[sketch.means.length];
+        for (int i = 0; i < n; i++) {
+            sketch.means[i] = buffer.getDouble();
+        }
+        for (int i = 0; i < n; i++) {
+            sketch.weights[i] = getVarLong(buffer);
+            sketch.mergedWeight += sketch.weights[i];
+        }
+        sketch.centroids = n;
+        return sketch;
+    }
+
+    private static void putVarLong(ByteBuffer buffer, long value) {
+        while ((value & ~0x7FL) != 0) {
+            buffer.put((byte)((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte)value);
+    }
+
+    private static long getVarLong(ByteBuffer buffer) {
+        long value = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = buffer.get();
+            value |= (long)(b & 0x7F) << shift;
+            if (b >= 0) return value;
+        }
+    }
+}
@@ -0,0 +1,251 @@
+package net.leng.math;
+
+import java.nio.DoubleBuffer;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntToDoubleFunction;
+
+/** Compensated sums over double arrays and buffers for {@link Statistics} and {@link ColumnStatistics}, and over ranges
+ * of a function for {@link MoreMath}, on the calling thread or across a {@link ForkJoinPool}.
+ * <p>
+ * The range is always cut into chunks of the same fixed length, whatever the parallelism. Every chunk is summed with
+ * Neumaier's variant of Kahan summation, and the chunk totals are then folded, again compensated, in chunk order.
+ * The same input therefore gives bit for bit the same result on one thread or on many.
+ * */
+final class Reductions {
+    /** How many elements every chunk sums. */
+    private static final int CHUNK = 1 << 14;
+
+    private Reductions() {} // ensures no one has access to the object
+
+    /** Sums some terms over the elements between from (inclusive) and to (exclusive), writing the compensated total of
+     * term t to out[offset + t].
+     * */
+    @FunctionalInterface
+    interface Kernel {
+        void apply(int from, int to, double[] out, int offset);
+    }
+
+    /** Sums some terms over chunk c, writing the compensated total of term t to out[offset + t]. */
+    @FunctionalInterface
+    private interface ChunkKernel {
+        void apply(int c, double[] out, int offset);
+    }
+
+    /** Runs the kernel over every chunk of [0, n), across the pool if one is given, and folds the chunk totals.
+     * @param pool The pool the chunks are summed in, or null to sum them on the calling thread.
+     * @return The total of every term.
+     * */
+    static double[] sum(int n, int terms, Kernel kernel, ForkJoinPool pool) {
+        return sumChunks(chunks(n), terms, (c, out, offset) -> kernel.apply(c * CHUNK, (int)Math.min(n, (c + 1L) * CHUNK), out, offset), pool);
+    }
+
+    /** Finds the compensated sum of f(i) for every i from start to end inclusive, in the same chunks as the other
+     * sums, so it is the same bit for bit whatever the pool. The range may hold up to 2^32 terms.
+     * @param pool The pool the chunks are summed in, or null to sum them on the calling thread.
+     * */
+    static double sum(IntToDoubleFunction f, int start, int end, ForkJoinPool pool) {
+        if (end < start) return 0;
+        long n = (long)end - start + 1;
+        return sumChunks(chunks(n), 1, (c, out, offset) -> {
+            long from = start + (long)c * CHUNK;
+            out[offset] = sum(f, from, Math.min(end + 1L, from + CHUNK));
+        }, pool)[0];
+    }
+
+    private static int chunks(long n) {
+        return (int)Math.max(1, (n + CHUNK - 1) / CHUNK);
+    }
+
+    private static double[] sumChunks(int chunks, int terms, ChunkKernel kernel, ForkJoinPool pool) {
+        double[] partials = new double[chunks * terms];
+        if (pool == null || chunks == 1) {
+            for (int c = 0; c < chunks; c++) {
+                kernel.apply(c, partials, c * terms);
+            }
+        } else {
+            pool.invoke(new Chunks(kernel, terms, partials, 0, chunks));
+        }
+        return fold(partials, chunks, terms);
+    }
+
+    /** Folds partial totals in order, again compensated.
+     * @param partials count groups of terms totals each, laid out one group after another.
+     * @return The total of every term.
+     * */
+    static double[] fold(double[] partials, int count, int terms) {
+        double[] totals = new double[terms];
+        for (int t = 0; t < terms; t++) {
+            double sum = 0;
+            double compensation = 0;
+            for (int c = 0; c < count; c++) {
+                double val = partials[c * terms + t];
+                double s = sum + val;
+                compensation += Math.abs(sum) >= Math.abs(val) ? (sum - s) + val : (val - s) + sum;
+                sum = s;
+            }
+            totals[t] = sum + compensation;
+        }
+        return totals;
+    }
+
+    /** @return The compensated sum of vals[from, to). */
+    static double sum(double[] vals, int from, int to) {
+        double sum = 0;
+        double compensation = 0;
+        for (int i = from; i < to; i++) {
+            double val = vals[i];
+            double s = sum + val;
+            compensation += Math.abs(sum) >= Math.abs(val) ? (sum - s) + val : (val - s) + sum;
+            sum = s;
+        }
+        return sum + compensation;
+    }
+
+    /** @return The compensated sum of f(i) for every i in [from, to), which lie within the range of an int. */
+    private static double sum(IntToDoubleFunction f, long from, long to) {
+        double sum = 0;
+        double compensation = 0;
+        for (long i = from; i < to; i++) {
+            double val = f.applyAsDouble((int)i);
+            double s = sum + val;
+            compensation += Math.abs(sum) >= Math.abs(val) ? (sum - s) + val : (val - s) + sum;
+            sum = s;
+        }
+        return sum + compensation;
+    }
+
+    /** Writes the compensated sums of (vals[i] - mean)^2 and of vals[i] - mean over [from, to) to out[offset] and
+     * out[offset + 1]. The second would be zero were the mean exact, and corrects the first for its error.
+     * */
+    static void deviations(double[] vals, double mean, int from, int to, double[] out, int offset) {
+        double squares = 0, squaresCompensation = 0;
+        double sum = 0, sumCompensation = 0;
+        for (int i = from; i < to; i++) {
+            double d = vals[i] - mean;
+            double sq = d * d;
+            double s = squares + sq;
+            squaresCompensation += squares >= sq ? (squares - s) + sq : (sq - s) + squares;
+            squares = s;
+            s = sum + d;
+            sumCompensation += Math.abs(sum) >= Math.abs(d) ? (sum - s) + d : (d - s) + sum;
+            sum = s;
+        }
+        out[offset] = squares + squaresCompensation;
+        out[offset + 1] = sum + sumCompensation;
+    }
+
+    /** Writes the compensated sums of dx^2, dy^2, dx * dy, dx and dy over [from, to) to out[offset, offset + 5), where
+     * dx = a[i] - aMean and dy = b[i] - bMean.
+     * */
+    static void coDeviations(double[] a, double aMean, double[] b, double bMean, int from, int to,
+                             double[] out, int offset) {
+        double[] sums = new double[5];
+        double[] compensations = new double[5];
+        double[] terms = new double[5];
+        for (int i = from; i < to; i++) {
+            double dx = a[i] - aMean;
+            double dy = b[i] - bMean;
+            terms[0] = dx * dx;
+            terms[1] = dy * dy;
+            terms[2] = dx * dy;
+            terms[3] = dx;
+            terms[4] = dy;
+            for (int t = 0; t < 5; t++) {
+                double sum = sums[t];
+                double val = terms[t];
+                double s = sum + val;
+                compensations[t] += Math.abs(sum) >= Math.abs(val) ? (sum - s) + val : (val - s) + sum;
+                sums[t] = s;
+            }
+        }
+        for (int t = 0; t < 5; t++) {
+            out[offset + t] = sums[t] + compensations[t];
+        }
+    }
+
+    /** @return The compensated sum of vals[from, to). */
+    static double sum(DoubleBuffer vals, int from, int to) {
+        double sum = 0;
+        double compensation = 0;
+        for (int i = from; i < to; i++) {
+            double val = vals.get(i);
+            double s = sum + val;
+            compensation += Math.abs(sum) >= Math.abs(val) ? (sum - s) + val : (val - s) + sum;
+            sum = s;
+        }
+        return sum + compensation;
+    }
+
+    /** The same as {@link #deviations(double[], double, int, int, double[], int)}, over a buffer. */
+    static void deviations(DoubleBuffer vals, double mean, int from, int to, double[] out, int offset) {
+        double squares = 0, squaresCompensation = 0;
+        double sum = 0, sumCompensation = 0;
+        for (int i = from; i < to; i++) {
+            double d = vals.get(i) - mean;
+            double sq = d * d;
+            double s = squares + sq;
+            squaresCompensation += squares >= sq ? (squares - s) + sq : (sq - s) + squares;
+            squares = s;
+            s = sum + d;
+            sumCompensation += Math.abs(sum) >= Math.abs(d) ? (sum - s) + d : (d - s) + sum;
+            sum = s;
+        }
+        out[offset] = squares + squaresCompensation;
+        out[offset + 1] = sum + sumCompensation;
+    }
+
+    /** The same as {@link #coDeviations(double[], double, double[], double, int, int, double[], int)}, over buffers. */
+    static void coDeviations(DoubleBuffer a, double aMean, DoubleBuffer b, double bMean, int from, int to,
+                             double[] out, int offset) {
+        double[] sums = new double[5];
+        double[] compensations = new double[5];
+        double[] terms = new double[5];
+        for (int i = from; i < to; i++) {
+            double dx = a.get(i) - aMean;
+            double dy = b.get(i) - bMean;
+            terms[0] = dx * dx;
+            terms[1] = dy * dy;
+            terms[2] = dx * dy;
+            terms[3] = dx;
+            terms[4] = dy;
+            for (int t = 0; t < 5; t++) {
+                double sum = sums[t];
+                double val = terms[t];
+                double s = sum + val;
+                compensations[t] += Math.abs(sum) >= Math.abs(val) ? (sum - s) + val : (val - s) + sum;
+                sums[t] = s;
+            }
+        }
+        for (int t = 0; t < 5; t++) {
+            out[offset + t] = sums[t] + compensations[t];
+        }
+    }
+
+    @SuppressWarnings("serial")
+    private static final class Chunks extends RecursiveAction {
+        private final ChunkKernel kernel;
+        private final int terms;
+        private final double[] partials;
+        private final int lo;
+        private final int hi;
+
+        private Chunks(ChunkKernel kernel, int terms, double[] partials, int lo, int hi) {
+            this.kernel = kernel;
+            this.terms = terms;
+            this.partials = partials;
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        @Override
+        protected void compute() {
+            if (hi - lo == 1) {
+                kernel.apply(lo, partials, lo * terms);
+                return;
+            }
+            int mid = (lo + hi) >>> 1;
+            invokeAll(new Chunks(kernel, terms, partials, lo, mid), new Chunks(kernel, terms, partials, mid, hi));
+        }
+    }
+}
@@ -0,0 +1,340 @@
+package net.leng.math;
+
+/** Statistics over a sliding window of the latest data points of a series, such as moving averages, moving
+ * standard deviations and moving medians.
+ * <p>
+ * Data points are pushed one at a time; once the window is full every push evicts the oldest data point. The mean
+ * and variance are updated in constant time with Welford's method run forwards for the new data point and backwards
+ * for the evicted one, and are recomputed exactly from the window every time it has turned over, or sooner once the
+ * variance has collapsed, so rounding errors never pile up. The data points in the window are also kept in an order
+ * statistic tree (a treap whose nodes know the size of their subtree), so the median and any other quantile cost a
+ * logarithmic number of steps to update and to look up, rather than a sort of the window.
+ * <p>
+ * The static moving* methods run a whole series through a window at once.
+ * */
+public class RollingStatistics {
+    /** How far m2 may shrink below its peak before it is recomputed from the window. */
+    private static final double RECOMPUTE_DROP = 1e-6;
+
+    private final int window;
+
+    /** The window as a ring, with the oldest data point at head once the window is full. */
+    private final double[] ring;
+    private int head;
+    private int count;
+    private int evictions;
+
+    private double mean;
+    private double m2;
+
+    /** The largest m2 has been since it was last recomputed. */
+    private double m2Peak;
+
+    /** The order statistic tree, or null if only the mean and variance are needed. */
+    private final Tree tree;
+
+    /** Defines a new, empty window.
+     * @param window How many of the latest data points the statistics are taken over.
+     * */
+    public RollingStatistics(int window) {
+        this(window, true);
+    }
+
+    private RollingStatistics(int window, boolean ordered) {
+        if (window < 1) throw new IllegalArgumentException("window must be at least 1");
+        this.window = window;
+        ring = new double[window];
+        tree = ordered ? new Tree(window) : null;
+    }
+
+    /** Adds a data point to the window, evicting the oldest one if the window is full.
+     * @param val The data point, which must not be NaN.
+     * @return This window.
+     * */
+    public RollingStatistics push(double val) {
+        if (Double.isNaN(val)) throw new IllegalArgumentException("Cannot push NaN into a rolling window");
+        if (count == window) {
+            double old = ring[head];
+            ring[head] = val;
+            head = head + 1 == window ? 0 : head + 1;
+            if (tree != null) {
+                tree.remove(old);
+                tree.insert(val);
+            }
+            double delta = val - old;
+            double oldMean = mean;
+            mean += delta / count;
+            m2 += delta * (val - mean + old - oldMean);
+            m2Peak = Math.max(m2Peak, m2);
+            // m2 keeps an absolute error around the rounding error of its peak, which swamps it once it has shrunk
+            // by orders of magnitude, as when a spike leaves an otherwise calm window.
+            if (++evictions == window || (m2Peak > 0 && m2 < m2Peak * RECOMPUTE_DROP)) {
+                recompute();
+            }
+        } else {
+            ring[(head + count) % window] = val;
+            count++;
+            if (tree != null) tree.insert(val);
+            double delta = val - mean;
+            mean += delta / count;
+            m2 += delta * (val - mean);
+            m2Peak = Math.max(m2Peak, m2);
+        }
+        return this;
+    }
+
+    /** Recomputes the mean and variance from the data points in the window with two passes. */
+    private void recompute() {
+        double sum = 0;
+        for (int i = 0; i < count; i++) {
+            sum += ring[i];
+        }
+        mean = sum / count;
+        double squares = 0;
+        for (int i = 0; i < count; i++) {
+            double d = ring[i] - mean;
+            squares += d * d;
+        }
+        m2 = squares;
+        m2Peak = squares;
+        evictions = 0;
+    }
+
+    public int window() {
+        return window;
+    }
+
+    /** @return How many data points the window holds, which is the window size once enough have been pushed. */
+    public int count() {
+        return count;
+    }
+
+    public boolean isFull() {
+        return count == window;
+    }
+
+    /** @return The mean of the data points in the window, or NaN if there are none. */
+    public double mean() {
+        return count == 0 ? Double.NaN : mean;
+    }
+
+    /** @return The population variance of the data points in the window, or NaN if there are none. */
+    public double variance() {
+        return count == 0 ? Double.NaN : Math.max(0, m2) / count;
+    }
+
+    public double stdev() {
+        return Math.sqrt(variance());
+    }
+
+    /** @return The median of the data points in the window, as {@link Statistics#median(double...)} would find it,
+     * or NaN if there are none.
+     * */
+    public double median() {
+        if (count == 0) return Double.NaN;
+        int hl = count >> 1;
+        if ((count & 1) == 0) {
+            return (tree.get(hl - 1) + tree.get(hl)) / 2;
+        }
+        return tree.get(hl);
+    }
+
+    /** Finds a quantile of the data points in the window by interpolating linearly between the two data points
+     * around rank q * (count - 1).
+     * @param q The fraction of the data points that lie below the quantile, between 0 and 1.
+     * @return The quantile, or NaN if the window is empty.
+     * */
+    public double quantile(double q) {
+        if (!(q >= 0 && q <= 1)) throw new IllegalArgumentException("q must be between 0 and 1");
+        if (count == 0) return Double.NaN;
+        double rank = q * (count - 1);
+        int lo = (int)rank;
+        double below = tree.get(lo);
+        if (lo == count - 1) return below;
+        return below + (tree.get(lo + 1) - below) * (rank - lo);
+    }
+
+    /** @return The mean of every full window of vals, the first one ending at vals[window - 1]. */
+    public static double[] movingMean(double[] vals, int window) {
+        RollingStatistics rolling = new RollingStatistics(window, false);
+        double[] out = new double[outputLength(vals, window)];
+        for (int i = 0; i < vals.length; i++) {
+            rolling.push(vals[i]);
+            if (i >= window - 1) out[i - window + 1] = rolling.mean();
+        }
+        return out;
+    }
+
+    /** @return The population variance of every full window of vals, the first one ending at vals[window - 1]. */
+    public static double[] movingVariance(double[] vals, int window) {
+        RollingStatistics rolling = new RollingStatistics(window, false);
+        double[] out = new double[outputLength(vals, window)];
+        for (int i = 0; i < vals.length; i++) {
+            rolling.push(vals[i]);
+            if (i >= window - 1) out[i - window + 1] = rolling.variance();
+        }
+        return out;
+    }
+
+    /** @return The population standard deviation of every full window of vals, the first one ending at
+     * vals[window - 1].
+     * */
+    public static double[] movingStdev(double[] vals, int window) {
+        double[] out = movingVariance(vals, window);
+        for (int i = 0; i < out.length; i++) {
+            out[i] = Math.sqrt(out[i]);
+        }
+        return out;
+    }
+
+    /** @return The median of every full window of vals, the first one ending at vals[window - 1]. */
+    public static double[] movingMedian(double[] vals, int window) {
+        RollingStatistics rolling = new RollingStatistics(window);
+        double[] out = new double[outputLength(vals, window)];
+        for (int i = 0; i < vals.length; i++) {
+            rolling.push(vals[i]);
+            if (i >= window - 1) out[i - window + 1] = rolling.median();
+        }
+        return out;
+    }
+
+    /** @return The quantile q, as {@link #quantile(double)} finds it, of every full window of vals, the first one
+     * ending at vals[window - 1].
+     * */
+    public static double[] movingQuantile(double[] vals, int window, double q) {
+        if (!(q >= 0 && q <= 1)) throw new IllegalArgumentException("q must be between 0 and 1");
+        RollingStatistics rolling = new RollingStatistics(window);
+        double[] out = new double[outputLength(vals, window)];
+        for (int i = 0; i < vals.length; i++) {
+            rolling.push(vals[i]);
+            if (i >= window - 1) out[i - window + 1] = rolling.quantile(q);
+        }
+        return out;
+    }
+
+    private static int outputLength(double[] vals, int window) {
+        if (window < 1) throw new IllegalArgumentException("window must be at least 1");
+        return Math.max(0, vals.length - window + 1);
+    }
+
+    @Override
+    public String toString() {
+        return "RollingStatistics{window=" + window + ", count=" + count + ", mean=" + mean() + ", stdev=" + stdev() + "}";
+    }
+
+    /** A treap over a fixed pool of nodes stored in parallel arrays, so that updates never allocate. Node 0 stands
+     * in for the empty tree.
+     * */
+    private static final class Tree {
+        private final double[] key;
+        private final int[] priority;
+        private final int[] left;
+        private final int[] right;
+        private final int[] size;
+        private final int[] free;
+        private int freeCount;
+        private int root;
+        private int seed = 0x9E3779B9;
+
+        /** The two halves the last split produced. */
+        private int splitLeft;
+        private int splitRight;
+
+        private Tree(int capacity) {
+            key = new double[capacity + 1];
+            priority = new int[capacity + 1];
+            left = new int[capacity + 1];
+            right = new int[capacity + 1];
+            size = new int[capacity + 1];
+            free = new int[capacity];
+            for (int i = 0; i < capacity; i++) {
+                free[i] = capacity - i;
+            }
+            freeCount = capacity;
+        }
+
+        private void insert(double val) {
+            int node = free[--freeCount];
+            seed ^= seed << 13;
+            seed ^= seed >>> 17;
+            seed ^= seed << 5;
+            key[node] = val;
+            priority[node] = seed;
+            left[node] = 0;
+            right[node] = 0;
+            size[node] = 1;
+            split(root, val);
+            int r = splitRight;
+            root = merge(merge(splitLeft, node), r);
+        }
+
+        /** Removes one node holding val, which must be in the tree. */
+        private void remove(double val) {
+            split(root, val);
+            int l = splitLeft;
+            int r = splitRight;
+            // The leftmost node of r is the first one holding val.
+            int parent = 0;
+            int node = r;
+            while (left[node] != 0) {
+                size[node]--;
+                parent = node;
+                node = left[node];
+            }
+            if (parent == 0) r = right[node];
+            else left[parent] = right[node];
+            free[freeCount++] = node;
+            root = merge(l, r);
+        }
+
+        /** @return The value with the given rank, counting from 0. */
+        private double get(int rank) {
+            int node = root;
+            while (true) {
+                int leftSize = size[left[node]];
+                if (rank < leftSize) {
+                    node = left[node];
+                } else if (rank == leftSize) {
+                    return key[node];
+                } else {
+                    rank -= leftSize + 1;
+                    node = right[node];
+                }
+            }
+        }
+
+        /** Splits the tree rooted at t into the nodes smaller than val and the rest. */
+        private void split(int t, double val) {
+            if (t == 0) {
+                splitLeft = 0;
+                splitRight = 0;
+                return;
+            }
+            if (Double.compare(key[t], val) < 0) {
+                split(right[t], val);
+                right[t] = splitLeft;
+                size[t] = size[left[t]] + size[right[t]] + 1;
+                splitLeft = t;
+            } else {
+                split(left[t], val);
+                left[t] = splitRight;
+                size[t] = size[left[t]] + size[right[t]] + 1;
+                splitRight = t;
+            }
+        }
+
+        /** Joins two trees, every node of a being no greater than every node of b. */
+        private int merge(int a, int b) {
+            if (a == 0) return b;
+            if (b == 0) return a;
+            if (priority[a] > priority[b]) {
+                right[a] = merge(right[a], b);
+                size[a] = size[left[a]] + size[right[a]] + 1;
+                return a;
+            }
+            left[b] = merge(a, left[b]);
+            size[b] = size[left[b]] + size[right[b]] + 1;
+            return b;
+        }
+    }
+}
@@ -2,7 +2,20 @@ package net.leng.math;
 
 import net.leng.array.ArrayMaker;
 
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ForkJoinPool;
+
 public class Statistics {
+    /** Arrays of this length or shorter are reduced on the calling thread by the parallel forms. */
+    public static final int PARALLEL_THRESHOLD = 1 << 16;
+
+    /** The fraction trimmed from each end for the trimmed mean of {@link #describe(double[])}. */
+    public static final double DEFAULT_TRIM = 0.05;
 
     /**
      * Stdev(s for samples, σ for populations) is a measure of spread that generally
@@ -18,22 +31,46 @@ public class Statistics {
         return Math.sqrt(variance(vals));
     }
 
+    public static double stdevParallel(double[] vals) {
+        return Math.sqrt(varianceParallel(vals));
+    }
+
+    public static double stdevParallel(double[] vals, ForkJoinPool pool) {
+        return Math.sqrt(varianceParallel(vals, pool));
+    }
+
     /** Variance is a measure of spread that shows how spread out data points are.
      * <p>
      * In order to calculate variance, you first take the mean of the dataset.
      * With the mean, you then take the difference between a data point and the
-     * dataset's mean for every data point in the data set and
-     * add the squares of all the differences together to get the variance.
+     * dataset's mean for every data point in the data set,
+     * add the squares of all the differences together and divide by the number of data points to get the variance.
+     * <p>
+     * The squares are summed with compensated summation and corrected for the rounding error of the mean,
+     * so the result stays accurate on very large datasets.
      * @param vals A list of data points inputted into the function.
-     * @return the variance of all the data points in vals, or the standard deviation squared.
+     * @return the population variance of all the data points in vals, or the standard deviation squared.
      * */
     public static double variance(double... vals) {
-        double var = 0;
-        double mean = mean(vals);
-        for (double d : vals) {
-            var += Math.pow(d - mean, 2);
-        }
-        return var;
+        return variance(vals, null);
+    }
+
+    public static double varianceParallel(double[] vals) {
+        return varianceParallel(vals, ForkJoinPool.commonPool());
+    }
+
+    /** Finds the same variance as {@link #variance(double...)}, bit for bit, splitting the work across the pool
+     * when vals is longer than {@link #PARALLEL_THRESHOLD}.
+     * */
+    public static double varianceParallel(double[] vals, ForkJoinPool pool) {
+        return variance(vals, vals.length > PARALLEL_THRESHOLD ? pool : null);
+    }
+
+    private static double variance(double[] vals, ForkJoinPool pool) {
+        int len = vals.length;
+        double mean = mean(vals, pool);
+        double[] d = Reductions.sum(len, 2, (from, to, out, offset) -> Reductions.deviations(vals, mean, from, to, out, offset), pool);
+        return (d[0] - d[1] * d[1] / len) / len;
     }
 
     /**
@@ -64,11 +101,46 @@ public class Statistics {
      * @return The mean of all data points inside vals.
      * */
     public static double mean(double... vals) {
-        double sum = 0;
-        for (double d : vals) {
-            sum += d;
-        }
-        return sum / vals.length;
+        return mean(vals, null);
+    }
+
+    public static double meanParallel(double[] vals) {
+        return meanParallel(vals, ForkJoinPool.commonPool());
+    }
+
+    /** Finds the same mean as {@link #mean(double...)}, bit for bit, splitting the work across the pool
+     * when vals is longer than {@link #PARALLEL_THRESHOLD}.
+     * */
+    public static double meanParallel(double[] vals, ForkJoinPool pool) {
+        return mean(vals, vals.length > PARALLEL_THRESHOLD ? pool : null);
+    }
+
+    private static double mean(double[] vals, ForkJoinPool pool) {
+        return sum(vals, pool) / vals.length;
+    }
+
+    /** Adds all the data points together with compensated summation, which keeps the rounding error of the sum
+     * from growing with the number of data points.
+     * @param vals A list of data points inputted into the function.
+     * @return The sum of all data points inside vals.
+     * */
+    public static double sum(double... vals) {
+        return sum(vals, null);
+    }
+
+    public static double sumParallel(double[] vals) {
+        return sumParallel(vals, ForkJoinPool.commonPool());
+    }
+
+    /** Finds the same sum as {@link #sum(double...)}, bit for bit, splitting the work across the pool
+     * when vals is longer than {@link #PARALLEL_THRESHOLD}.
+     * */
+    public static double sumParallel(double[] vals, ForkJoinPool pool) {
+        return sum(vals, vals.length > PARALLEL_THRESHOLD ? pool : null);
+    }
+
+    private static double sum(double[] vals, ForkJoinPool pool) {
+        return Reductions.sum(vals.length, 1, (from, to, out, offset) -> out[offset] = Reductions.sum(vals, from, to), pool)[0];
     }
 
     /**
@@ -81,35 +153,169 @@ public class Statistics {
      * @return The mean of all data points inside vals.
      * */
     public static double trimmedMean(double percentage, double... vals) {
-        double[] d = ArrayMaker.makeSortedArray(vals);
-        double sum = 0;
+        double[] d = vals.clone();
         int len = d.length;
         int diff = (int)(percentage * len);
-        for (int i = diff; i < len - diff; i++) {
-            sum += d[i];
+        if (diff > 0 && diff < len - diff) {
+            // Only the two cut-offs are placed; the values between them are summed in whatever order they are left in.
+            ArrayMaker.selectAll(d, diff, len - diff - 1);
         }
-        return sum / (len - (diff << 1));
+        return Reductions.sum(d, diff, len - diff) / (len - (diff << 1));
     }
 
+    /** Finds the median in linear time by selecting only the one or two middle values, rather than sorting. */
     public static double median(double... vals) {
-        double[] d = ArrayMaker.makeSortedArray(vals);
-        int len = d.length;
+        int len = vals.length;
         int hl = len >> 1;
         if ((len & 1) == 0) {
-            return (d[hl - 1] + d[hl]) / 2;
+            double[] d = ArrayMaker.selectAll(vals.clone(), hl - 1, hl);
+            return (d[0] + d[1]) / 2;
         }
-        return d[hl];
+        return ArrayMaker.select(vals.clone(), hl);
     }
 
+    /** Finds the quartiles in linear time by selecting only the values they are taken from, at most six,
+     * from a single copy of vals.
+     * */
     public static double [] quartiles(double... vals) {
-        double[] d = ArrayMaker.makeSortedArray(vals);
+        return quartilesInPlace(vals.clone());
+    }
+
+    /** Rearranges d so that the values the quartiles are taken from, and those at any extra ranks, sit where they
+     * would were d sorted, and reads the quartiles off them.
+     * */
+    private static double[] quartilesInPlace(double[] d, int... extraRanks) {
+        long[] quartileRanks = quartileRanks(d.length);
+        int[] ranks = new int[quartileRanks.length + extraRanks.length];
+        for (int i = 0; i < quartileRanks.length; i++) {
+            ranks[i] = (int)quartileRanks[i];
+        }
+        System.arraycopy(extraRanks, 0, ranks, quartileRanks.length, extraRanks.length);
+        double[] values = ArrayMaker.selectAll(d, ranks);
+        return quartiles(quartileRanks, values);
+    }
+
+    /** Finds the ranks the quartiles of len sorted values are taken from. q1 and q3 are the medians of the lower and
+     * upper halves, which leave out the middle value when len is odd, so q3 mirrors q1 from the top end. A single value
+     * is every quartile of itself.
+     * @return Two ranks for each of q1, the median and q3, in that order. Each quartile is the mean of the values at its
+     * two ranks, which are the same rank when it is a single value.
+     * */
+    static long[] quartileRanks(long len) {
+        if (len <= 0) throw new IllegalArgumentException("There must be at least one value");
+        long hl = len >> 1;
+        long mLo = (len - 1) >> 1;
+        long mHi = len >> 1;
+        if (hl == 0) return new long[]{mLo, mHi, mLo, mHi, mLo, mHi};
+        long qLo = (hl - 1) >> 1;
+        long qHi = hl >> 1;
+        return new long[]{qLo, qHi, mLo, mHi, len - 1 - qHi, len - 1 - qLo};
+    }
+
+    /** @param ranks The ranks from {@link #quartileRanks(long)}.
+     * @param values The value at each of those ranks, in the same order. Any values after them are ignored.
+     * @return q1, the median and q3.
+     * */
+    static double[] quartiles(long[] ranks, double[] values) {
+        double[] quartiles = new double[3];
+        for (int q = 0; q < 3; q++) {
+            int r = q << 1;
+            quartiles[q] = ranks[r] == ranks[r + 1] ? values[r] : (values[r] + values[r + 1]) / 2;
+        }
+        return quartiles;
+    }
+
+    public static Summary describe(double[] vals) {
+        return describe(vals, DEFAULT_TRIM);
+    }
+
+    /** Summarizes vals in two passes where calling every measure separately would take about seven scans and two
+     * sorts: one pass gathers the count, mean, variance and extremes, and one selection over a single copy of vals
+     * places both the quartiles and the cut-offs of the trimmed mean.
+     * @param vals A list of data points inputted into the function.
+     * @param trimPercentage The fraction of the data points trimmed from each end for the trimmed mean.
+     * @return The summary of vals.
+     * */
+    public static Summary describe(double[] vals, double trimPercentage) {
+        if (vals.length == 0) throw new IllegalArgumentException("vals must not be empty");
+        if (!(trimPercentage >= 0 && trimPercentage < 0.5)) throw new IllegalArgumentException("trimPercentage must be between 0 and 0.5");
+        StatisticsAccumulator moments = new StatisticsAccumulator().addAll(vals);
+        double[] d = vals.clone();
         int len = d.length;
-        int hl = len >> 1;
-        int ql = hl >> 1;
-        double median = (len & 1) == 0 ? (d[hl-1] + d[hl]) / 2 : d[hl];
-        double q1 = (hl & 1) == 0 ? (d[ql-1] + d[ql]) / 2 : d[ql];
-        double q3 = (hl & 1) == 0 ? (d[3 * ql - 1] + d[3 * ql]) / 2 : d[3 * ql];
-        return new double[]{q1, median, q3};
+        int diff = (int)(trimPercentage * len);
+        double[] quartiles = diff > 0 ? quartilesInPlace(d, diff, len - diff - 1) : quartilesInPlace(d);
+        double trimmedMean = Reductions.sum(d, diff, len - diff) / (len - (diff << 1));
+        return new Summary(len, moments.mean(), moments.variance(), moments.smallest(), moments.largest(),
+                quartiles[0], quartiles[1], quartiles[2], trimmedMean);
+    }
+
+    /** The measures {@link #describe(double[], double)} gathers in one call.
+     * @param variance The population variance.
+     * @param trimmedMean The mean of the data points left once a fraction has been trimmed from each end.
+     * */
+    public record Summary(int count, double mean, double variance, double min, double max,
+                          double q1, double median, double q3, double trimmedMean) {
+        public double stdev() {
+            return Math.sqrt(variance);
+        }
+
+        public double range() {
+            return max - min;
+        }
+
+        /** @return The interquartile range, q3 - q1. */
+        public double iqr() {
+            return q3 - q1;
+        }
+    }
+
+    /** Finds the median of a file of little-endian doubles that is already sorted,
+     * such as one written by {@link net.leng.array.ExternalSorter#sortDoubles(Path, Path)}.
+     * Only the one or two doubles in the middle are read.
+     * @param sortedColumn The sorted file.
+     * @return The same value {@link #median(double...)} would give for the doubles in the file.
+     * */
+    public static double sortedFileMedian(Path sortedColumn) throws IOException {
+        try (FileChannel channel = FileChannel.open(sortedColumn, StandardOpenOption.READ)) {
+            long len = columnLength(channel);
+            long hl = len >> 1;
+            if ((len & 1) == 0) {
+                return (readDouble(channel, hl - 1) + readDouble(channel, hl)) / 2;
+            }
+            return readDouble(channel, hl);
+        }
+    }
+
+    /** Finds the quartiles of a file of little-endian doubles that is already sorted,
+     * such as one written by {@link net.leng.array.ExternalSorter#sortDoubles(Path, Path)}.
+     * Only the doubles the quartiles are taken from are read.
+     * @param sortedColumn The sorted file.
+     * @return The same values {@link #quartiles(double...)} would give for the doubles in the file.
+     * */
+    public static double[] sortedFileQuartiles(Path sortedColumn) throws IOException {
+        try (FileChannel channel = FileChannel.open(sortedColumn, StandardOpenOption.READ)) {
+            long[] ranks = quartileRanks(columnLength(channel));
+            double[] values = new double[ranks.length];
+            for (int i = 0; i < ranks.length; i++) {
+                values[i] = i > 0 && ranks[i] == ranks[i - 1] ? values[i - 1] : readDouble(channel, ranks[i]);
+            }
+            return quartiles(ranks, values);
+        }
+    }
+
+    private static long columnLength(FileChannel channel) throws IOException {
+        long bytes = channel.size();
+        if ((bytes & 7) != 0) throw new IllegalArgumentException("File size must be a multiple of 8 bytes");
+        return bytes >>> 3;
+    }
+
+    private static double readDouble(FileChannel channel, long index) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(Double.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        long pos = index << 3;
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, pos + buffer.position()) < 0) throw new IndexOutOfBoundsException(index);
+        }
+        return buffer.getDouble(0);
     }
 
     public static double smallest(double... vals) {
@@ -151,29 +357,42 @@ public class Statistics {
      * @return the correlation coefficient (r) between datasets a and b.
      * */
     public static double correlationCoefficient(double[] a, double[] b) {
+        return correlationCoefficient(a, b, null);
+    }
+
+    public static double correlationCoefficientParallel(double[] a, double[] b) {
+        return correlationCoefficientParallel(a, b, ForkJoinPool.commonPool());
+    }
+
+    /** Finds the same correlation coefficient as {@link #correlationCoefficient(double[], double[])}, bit for bit,
+     * splitting the work across the pool when the lists are longer than {@link #PARALLEL_THRESHOLD}.
+     * */
+    public static double correlationCoefficientParallel(double[] a, double[] b, ForkJoinPool pool) {
+        return correlationCoefficient(a, b, a.length > PARALLEL_THRESHOLD ? pool : null);
+    }
+
+    private static double correlationCoefficient(double[] a, double[] b, ForkJoinPool pool) {
         int alen = a.length;
         int blen = b.length;
         if (alen != blen) throw new IllegalArgumentException("List sizes must be the same");
-        double sum = 0;
-        double asd = stdev(a);
-        double bsd = stdev(b);
-        double amean = mean(a);
-        double bmean = mean(b);
-        for (int i = 0; i < alen; i++) {
-            sum += ((a[i] - amean) / asd) * ((b[i] - bmean) / bsd);
-        }
-        return sum / (alen - 1);
+        double amean = mean(a, pool);
+        double bmean = mean(b, pool);
+        double[] d = Reductions.sum(alen, 5, (from, to, out, offset) -> Reductions.coDeviations(a, amean, b, bmean, from, to, out, offset), pool);
+        double sxx = d[0] - d[3] * d[3] / alen;
+        double syy = d[1] - d[4] * d[4] / alen;
+        double sxy = d[2] - d[3] * d[4] / alen;
+        return sxy / Math.sqrt(sxx * syy);
     }
 
     /** A factorial is a probability function in statistics that determines how many possible permutations there are
      * assuming that the number of slots is equal to the number of items there are.
      * @param num The number inputted into the function.
      * @return The number of possibilities.
+     * @throws ArithmeticException past 12!, which does not fit into an int. {@link Combinatorics} counts further.
      * */
     public static int factorial(int num) {
         if (num < 0) throw new IllegalArgumentException("Cannot take a basic factorial of a negative number");
-        if (num == 0) return 1;
-        return (int)MoreMath.product(1, num, n -> (double)n);
+        return Math.toIntExact(Combinatorics.factorial(num));
     }
 
 
@@ -182,9 +401,10 @@ public class Statistics {
      * @param r The number of slots available a dataset.
      * @param n The total count of how many elements are in a dataset.
      * @return The amount of ways data can organize themselves regardless of order.
+     * @throws ArithmeticException if the count does not fit into an int. {@link Combinatorics} counts further.
      * */
     public static int combinationCount(int r, int n) {
-        return permutationCount(r, n) / factorial(r);
+        return Math.toIntExact(Combinatorics.choose(n, r));
     }
 
     /** A permutation in statistics is how many ways elements in a set
@@ -192,9 +412,10 @@ public class Statistics {
      * @param r The number of slots available a dataset.
      * @param n The total count of how many elements are in a dataset.
      * @return The amount of ways data can organize themselves.
+     * @throws ArithmeticException if the count does not fit into an int. {@link Combinatorics} counts further.
      * */
     public static int permutationCount(int r, int n) {
-        return (int) MoreMath.product(n - r + 1, n, v -> (double)v);
+        return Math.toIntExact(Combinatorics.permutations(n, r));
     }
 
     /** A function defined that looks for the probability of a desired outcome occurring out of all
@@ -216,7 +437,48 @@ public class Statistics {
      * @return Probability of a set number of trials with a desired outcome as represented as a number between 0 and 1.
      * */
     public static double binomialPdf(int n, double p, int x) {
-        return combinationCount(x, n) * Math.pow(p, x) * Math.pow(1 - p, n - x);
+        double q = 1 - p;
+        // Where 1 - p is inexact, raising it to a power would multiply its rounding error.
+        if (n <= EXACT_BINOMIAL_TRIALS && x >= 0 && x <= n && 1 - q == p) {
+            checkBinomial(n, p);
+            // Every binomial coefficient up to here, and every partial product on the way to it, is exact in a double.
+            double c = 1;
+            for (int k = 1, m = Math.min(x, n - x); k <= m; k++) {
+                c = c * (n - k + 1) / k;
+            }
+            double px = Math.pow(p, x);
+            double qx = Math.pow(q, n - x);
+            if ((px >= Double.MIN_NORMAL || p == 0) && (qx >= Double.MIN_NORMAL || p == 1)) return c * px * qx;
+        }
+        return Math.exp(binomialLogPmf(n, p, x));
+    }
+
+    /** Trials at most this many make {@link #binomialPdf(int, double, int)} use the exact binomial coefficient. */
+    private static final int EXACT_BINOMIAL_TRIALS = 50;
+
+    /** The natural logarithm of {@link #binomialPdf(int, double, int)}, which stays accurate and finite for any
+     * number of trials, even where the probability itself underflows to 0.
+     * <p>
+     * Uses Loader's saddle point expansion, which writes the log-probability as the differences of Stirling's series
+     * for n!, x! and (n - x)! and the deviances of x and n - x from their expected counts, every one of which is
+     * computed without the cancellation that log-gamma differences of millions would suffer.
+     * @param n The total number of trials.
+     * @param p The probability of a desired outcome occurring in one trial.
+     * @param x The number of trials with the desired outcome.
+     * @return ln of the probability of exactly x trials with the desired outcome, or negative infinity if there is none.
+     * */
+    public static double binomialLogPmf(int n, double p, int x) {
+        checkBinomial(n, p);
+        if (x < 0 || x > n) return Double.NEGATIVE_INFINITY;
+        double q = 1 - p;
+        if (p == 0) return x == 0 ? 0 : Double.NEGATIVE_INFINITY;
+        if (q == 0) return x == n ? 0 : Double.NEGATIVE_INFINITY;
+        if (x == 0) return p < 0.1 ? -deviance(n, n * q) - n * p : n * Math.log1p(-p);
+        if (x == n) return q < 0.1 ? -deviance(n, n * p) - n * q : n * Math.log(p);
+        double lc = stirlingError(n) - stirlingError(x) - stirlingError(n - x) - deviance(x, n * p) - deviance(n - x, n * q);
+        // ln(1 - x / n), from n - x rather than from x / n, which would lose its digits as x nears n.
+        double lf = Math.log(2 * Math.PI) + Math.log(x) + Math.log((double)(n - x) / n);
+        return lc - 0.5 * lf;
     }
 
     /** The binomial cdf or the cumulative density function for binomial probability distributions (Bernoulli trial distributions)
@@ -228,7 +490,82 @@ public class Statistics {
      * @return Probability of a set number of trials or below with a desired outcome occuring as represented as a number between 0 and 1.
      * */
     public static double binomialCdf(final int n, final double p, int x) {
-        return MoreMath.summation(0, x, v -> binomialPdf(n, p, v));
+        checkBinomial(n, p);
+        if (x < 0) return 0;
+        if (x >= n) return 1;
+        if (p == 0) return 1;
+        if (p == 1) return 0;
+        double q = 1 - p;
+        if (n >= BINOMIAL_BETA_THRESHOLD) {
+            // cdf(x) = I_q(n - x, x + 1), with the front factor of the continued fraction written as a pmf.
+            double a = n - x;
+            double b = x + 1;
+            if (q < (a + 1) / (a + b + 2)) {
+                return binomialPdf(n, p, x) * p * MoreMath.betaContinuedFraction(a, b, q, p);
+            }
+            return 1 - binomialPdf(n, p, x) * p * (a / b) * MoreMath.betaContinuedFraction(b, a, p, q);
+        }
+        // The terms shrink away from the mean, so the tail on the far side of x from it is summed outwards until
+        // they stop adding to it.
+        if (x < n * p) {
+            double term = binomialPdf(n, p, x);
+            double sum = term;
+            double ratio = q / p;
+            for (int k = x; k > 0 && term > sum * 0x1p-60; k--) {
+                term *= ratio * k / (n - k + 1);
+                sum += term;
+            }
+            return sum;
+        }
+        double term = binomialPdf(n, p, x + 1);
+        double sum = term;
+        double ratio = p / q;
+        for (int k = x + 1; k < n && term > sum * 0x1p-60; k++) {
+            term *= ratio * (n - k) / (k + 1);
+            sum += term;
+        }
+        return 1 - sum;
+    }
+
+    /** Trials at least this many make {@link #binomialCdf(int, double, int)} use the incomplete beta function,
+     * rather than summing a number of terms that grows with the square root of the trials.
+     * */
+    private static final int BINOMIAL_BETA_THRESHOLD = 1 << 20;
+
+    private static void checkBinomial(int n, double p) {
+        if (n < 0) throw new IllegalArgumentException("The number of trials cannot be negative");
+        if (!(p >= 0 && p <= 1)) throw new IllegalArgumentException("p must be between 0 and 1");
+    }
+
+    /** @return ln(n!) - ln(sqrt(2 pi n) (n/e)^n), the error of Stirling's approximation. */
+    private static double stirlingError(double n) {
+        if (n <= 15) return MoreMath.logGamma(n + 1) - (n + 0.5) * Math.log(n) + n - 0.5 * Math.log(2 * Math.PI);
+        double nn = n * n;
+        final double s0 = 1.0 / 12, s1 = 1.0 / 360, s2 = 1.0 / 1260, s3 = 1.0 / 1680, s4 = 1.0 / 1188;
+        if (n > 500) return (s0 - s1 / nn) / n;
+        if (n > 80) return (s0 - (s1 - s2 / nn) / nn) / n;
+        if (n > 35) return (s0 - (s1 - (s2 - s3 / nn) / nn) / nn) / n;
+        return (s0 - (s1 - (s2 - (s3 - s4 / nn) / nn) / nn) / nn) / n;
+    }
+
+    /** @return x ln(x / np) + np - x, the deviance of a count x from its expected value np, with a series where
+     * the two are close enough for the direct formula to cancel.
+     * */
+    private static double deviance(double x, double np) {
+        if (Math.abs(x - np) < 0.1 * (x + np)) {
+            double v = (x - np) / (x + np);
+            double s = (x - np) * v;
+            double ej = 2 * x * v;
+            v *= v;
+            for (int j = 1; j < 1000; j++) {
+                ej *= v;
+                double next = s + ej / (2 * j + 1);
+                if (next == s) return next;
+                s = next;
+            }
+            return s;
+        }
+        return x * Math.log(x / np) + np - x;
     }
 
     /***/
@@ -249,7 +586,22 @@ public class Statistics {
      * @return Probability of that number of trials with a desired outcome as represented as a number between 0 and 1.
      * */
     public static double geometricPdf(double p, int x) {
-        return p * Math.pow(1 - p, x - 1);
+        double q = 1 - p;
+        // Where 1 - p is exact, raising it to a power loses nothing and keeps simple cases such as p = 0.5 exact.
+        if (p > 0 && p <= 1 && x >= 1 && 1 - q == p) return p * Math.pow(q, x - 1);
+        return Math.exp(geometricLogPmf(p, x));
+    }
+
+    /** The natural logarithm of {@link #geometricPdf(double, int)}, which stays accurate when p is tiny and x is large.
+     * @param p Probability of a desired outcome in a trial
+     * @param x The trial the first desired outcome occurs on, counting from 1.
+     * @return ln of the probability of the first desired outcome occurring on trial x.
+     * */
+    public static double geometricLogPmf(double p, int x) {
+        if (!(p > 0 && p <= 1)) throw new IllegalArgumentException("p must be greater than 0 and at most 1");
+        if (x < 1) return Double.NEGATIVE_INFINITY;
+        if (p == 1) return x == 1 ? 0 : Double.NEGATIVE_INFINITY;
+        return Math.log(p) + (x - 1) * Math.log1p(-p);
     }
 
     /** The geometric cdf or cumulative density function for geometric distributions is used to find the probability
@@ -259,7 +611,14 @@ public class Statistics {
      * @return Probability of that a number of trials with a desired outcome occurring or less as represented as a number between 0 and 1.
      * */
     public static double geometricCdf(double p, int x) {
-        return 1 - Math.pow(1 - p, x);
+        if (!(p > 0 && p <= 1)) throw new IllegalArgumentException("p must be greater than 0 and at most 1");
+        if (x < 1) return 0;
+        double q = 1 - p;
+        if (1 - q == p) {
+            double miss = Math.pow(q, x);
+            if (miss <= 0.5) return 1 - miss;
+        }
+        return -Math.expm1(x * Math.log1p(-p));
     }
 
     /***/
@@ -274,13 +633,141 @@ public class Statistics {
 
     /** The normal cdf or cumulative density function for normal distributions is used to find the probability of a desired
      * outcome occurring under a set of continuous datasets.
+     * <p>
+     * Found from the complementary error function, on whichever side of the mean keeps the two tail probabilities
+     * being subtracted small, so each of them keeps its precision to within a few ulps even far into the tails.
      * @param mean The mean of the data set.
      * @param stdev The standard deviation of the data set.
      * @param start The lower bound of the distribution in which the probability of which the function is looking for.
      * @param end The upper bound of the distribution in which the probability of which the function is looking for.
      * @return The probability of an outcome between the end and start of a function occurring.*/
     public static double normalCdf(final double mean, final double stdev, double start, double end) {
-        return (1/(stdev * Math.sqrt(2 * Math.PI)))
-                * MoreMath.integral(x -> Math.exp(-Math.pow((x-mean)/stdev, 2) / 2), start, end);
+        if (start >= mean) return normalSf(mean, stdev, start) - normalSf(mean, stdev, end);
+        return normalCdf(mean, stdev, end) - normalCdf(mean, stdev, start);
+    }
+
+    /** @return The probability of an outcome no greater than x occurring under a normal distribution. */
+    public static double normalCdf(double mean, double stdev, double x) {
+        return 0.5 * erfcOfDifference(mean, x, stdev, 1 / stdev);
+    }
+
+    /** The survival function, 1 - {@link #normalCdf(double, double, double)}, without the loss of precision of the
+     * subtraction when the probability is small.
+     * @return The probability of an outcome greater than x occurring under a normal distribution.
+     * */
+    public static double normalSf(double mean, double stdev, double x) {
+        return 0.5 * erfcOfDifference(x, mean, stdev, 1 / stdev);
+    }
+
+    /** The inverse of {@link #normalCdf(double, double, double)}, also known as the quantile function or invNorm.
+     * <p>
+     * Uses Wichura's algorithm AS241 (PPND16), which is accurate to within about two ulps of the result.
+     * @param mean The mean of the data set.
+     * @param stdev The standard deviation of the data set.
+     * @param p The probability of an outcome no greater than the one being looked for, between 0 and 1.
+     * @return The outcome x for which normalCdf(mean, stdev, x) is p.
+     * */
+    public static double normalInverseCdf(double mean, double stdev, double p) {
+        if (!(p >= 0 && p <= 1)) throw new IllegalArgumentException("p must be between 0 and 1");
+        return mean + stdev * standardNormalInverseCdf(p);
+    }
+
+    /** Finds {@link #normalCdf(double, double, double)} of every element of x and stores it in the same position of
+     * out, which may be x itself.
+     * */
+    public static void normalCdf(double mean, double stdev, double[] x, double[] out) {
+        if (x.length != out.length) throw new IllegalArgumentException("List sizes must be the same");
+        double inverse = 1 / stdev;
+        for (int i = 0; i < x.length; i++) {
+            out[i] = 0.5 * erfcOfDifference(mean, x[i], stdev, inverse);
+        }
+    }
+
+    /** Finds {@link #normalSf(double, double, double)} of every element of x and stores it in the same position of
+     * out, which may be x itself.
+     * */
+    public static void normalSf(double mean, double stdev, double[] x, double[] out) {
+        if (x.length != out.length) throw new IllegalArgumentException("List sizes must be the same");
+        double inverse = 1 / stdev;
+        for (int i = 0; i < x.length; i++) {
+            out[i] = 0.5 * erfcOfDifference(x[i], mean, stdev, inverse);
+        }
+    }
+
+    /** Finds {@link #normalInverseCdf(double, double, double)} of every probability in p and stores it in the same
+     * position of out, which may be p itself.
+     * */
+    public static void normalInverseCdf(double mean, double stdev, double[] p, double[] out) {
+        if (p.length != out.length) throw new IllegalArgumentException("List sizes must be the same");
+        for (int i = 0; i < p.length; i++) {
+            out[i] = normalInverseCdf(mean, stdev, p[i]);
+        }
+    }
+
+    /** 1 / sqrt(2) as the sum of two doubles, the second holding the rounding error of the first. */
+    private static final double INV_SQRT2 = 0.7071067811865476;
+    private static final double INV_SQRT2_LOW = -4.833646656726457e-17;
+
+    private static final double FOUR_OVER_PI = 4 / Math.PI;
+
+    /** Finds erfc((a - b) / (stdev * sqrt(2))) with the argument carried to about twice the precision of a double.
+     * Far in the upper tail, erfc magnifies the relative error of its argument by about twice its square, so rounding
+     * the argument to a double alone would cost some hundreds of ulps at 20 standard deviations.
+     * @param inverse 1 / stdev. The quotient by stdev need not be the nearest double, as its error is carried too.
+     * */
+    private static double erfcOfDifference(double a, double b, double stdev, double inverse) {
+        double d = a - b;
+        double dLow = Math.abs(a) >= Math.abs(b) ? (a - d) - b : a - (b + d);
+        double t = d * inverse;
+        double z = t * INV_SQRT2;
+        double tLow = (Math.fma(-t, stdev, d) + dLow) * inverse;
+        double zLow = Math.fma(t, INV_SQRT2, -z) + t * INV_SQRT2_LOW + tLow * INV_SQRT2;
+        // erfc(z + zLow) to first order in zLow. The log derivative of erfc at z is -2 exp(-z^2) / (sqrt(pi) erfc(z)),
+        // whose magnitude z + sqrt(z^2 + 4 / pi) bounds from below, exactly at 0 and ever more closely above it.
+        // Below 0 the bound no longer holds, but erfc lies between 1 and 2 there and the correction hardly matters.
+        // It is worked out ahead of erfc, whose branches on the range of z are hard to predict and would otherwise
+        // throw this work away as often as not, which made whole arrays take twice as long.
+        double correction = zLow * (z + Math.sqrt(z * z + FOUR_OVER_PI));
+        double erfc = MoreMath.erfc(z);
+        if (Double.isInfinite(z)) return erfc;
+        return Math.fma(-erfc, correction, erfc);
+    }
+
+    private static double standardNormalInverseCdf(double p) {
+        if (p == 0) return Double.NEGATIVE_INFINITY;
+        if (p == 1) return Double.POSITIVE_INFINITY;
+        double q = p - 0.5;
+        if (Math.abs(q) <= 0.425) {
+            double r = 0.180625 - q * q;
+            double num = (((((((2.5090809287301226727e+3 * r + 3.3430575583588128105e+4) * r
+                    + 6.7265770927008700853e+4) * r + 4.5921953931549871457e+4) * r + 1.3731693765509461125e+4) * r
+                    + 1.9715909503065514427e+3) * r + 1.3314166789178437745e+2) * r + 3.3871328727963666080e+0) * q;
+            double den = ((((((5.2264952788528545610e+3 * r + 2.8729085735721942674e+4) * r
+                    + 3.9307895800092710610e+4) * r + 2.1213794301586595867e+4) * r + 5.3941960214247511077e+3) * r
+                    + 6.8718700749205790830e+2) * r + 4.2313330701600911252e+1) * r + 1.0;
+            return num / den;
+        }
+        double r = Math.sqrt(-Math.log(q <= 0 ? p : 1 - p));
+        double num;
+        double den;
+        if (r <= 5) {
+            r -= 1.6;
+            num = ((((((7.74545014278341407640e-4 * r + 2.27238449892691845833e-2) * r
+                    + 2.41780725177450611770e-1) * r + 1.27045825245236838258e+0) * r + 3.64784832476320460504e+0) * r
+                    + 5.76949722146069140550e+0) * r + 4.63033784615654529590e+0) * r + 1.42343711074968357734e+0;
+            den = ((((((1.05075007164441684324e-9 * r + 5.47593808499534494600e-4) * r
+                    + 1.51986665636164571966e-2) * r + 1.48103976427480074590e-1) * r + 6.89767334985100004550e-1) * r
+                    + 1.67638483018380384940e+0) * r + 2.05319162663775882187e+0) * r + 1.0;
+        } else {
+            r -= 5;
+            num = ((((((2.01033439929228813265e-7 * r + 2.71155556874348757815e-5) * r
+                    + 1.24266094738807843860e-3) * r + 2.65321895265761230930e-2) * r + 2.96560571828504891230e-1) * r
+                    + 1.78482653991729133580e+0) * r + 5.46378491116411436990e+0) * r + 6.65790464350110377720e+0;
+            den = ((((((2.04426310338993978564e-15 * r + 1.42151175831644588870e-7) * r
+                    + 1.84631831751005468180e-5) * r + 7.86869131145613259100e-4) * r + 1.48753612908506148525e-2) * r
+                    + 1.36929880922735805310e-1) * r + 5.99832206555887937690e-1) * r + 1.0;
+        }
+        double x = num / den;
+        return q < 0 ? -x : x;
     }
 }
@@ -0,0 +1,146 @@
+package net.leng.math;
+
+/** Keeps the count, sum, mean, spread, smallest and largest value of a stream of data points in constant memory,
+ * without ever holding the data points themselves.
+ * <p>
+ * Every data point updates the mean and the sum of squared differences from the mean (M2) with Welford's method,
+ * which does not lose precision the way summing squares does. Accumulators filled on different threads or from
+ * different shards of a dataset can be combined with {@link #merge(StatisticsAccumulator)}, using the parallel
+ * formula of Chan et al., to get the same results as a single accumulator that saw every data point.
+ * <p>
+ * An accumulator is not safe to update from several threads at once; give every thread its own and merge them.
+ * */
+public class StatisticsAccumulator {
+    private long count;
+    private double mean;
+    private double m2;
+    private double sum;
+    private double sumCompensation;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+
+    /** Adds a single data point.
+     * @param val The data point.
+     * @return This accumulator.
+     * */
+    public StatisticsAccumulator add(double val) {
+        count++;
+        double delta = val - mean;
+        mean += delta / count;
+        m2 += delta * (val - mean);
+        addToSum(val);
+        if (val < min) min = val;
+        if (val > max) max = val;
+        if (Double.isNaN(val)) {
+            min = val;
+            max = val;
+        }
+        return this;
+    }
+
+    /** Adds every data point in vals.
+     * @param vals A list of data points inputted into the accumulator.
+     * @return This accumulator.
+     * */
+    public StatisticsAccumulator addAll(double... vals) {
+        for (double d : vals) {
+            add(d);
+        }
+        return this;
+    }
+
+    /** Folds the data points seen by another accumulator into this one, leaving the other accumulator untouched.
+     * @param other The accumulator being merged in.
+     * @return This accumulator.
+     * */
+    public StatisticsAccumulator merge(StatisticsAccumulator other) {
+        if (other.count == 0) return this;
+        if (count == 0) {
+            count = other.count;
+            mean = other.mean;
+            m2 = other.m2;
+            sum = other.sum;
+            sumCompensation = other.sumCompensation;
+            min = other.min;
+            max = other.max;
+            return this;
+        }
+        long n = count + other.count;
+        double delta = other.mean - mean;
+        mean += delta * ((double)other.count / n);
+        m2 += other.m2 + delta * delta * ((double)count / n) * other.count;
+        count = n;
+        addToSum(other.sum);
+        addToSum(other.sumCompensation);
+        min = Double.isNaN(min) || Double.isNaN(other.min) ? Double.NaN : Math.min(min, other.min);
+        max = Double.isNaN(max) || Double.isNaN(other.max) ? Double.NaN : Math.max(max, other.max);
+        return this;
+    }
+
+    /** Neumaier's variant of Kahan summation, which also holds up when the term is larger than the running sum. */
+    private void addToSum(double val) {
+        double t = sum + val;
+        if (Math.abs(sum) >= Math.abs(val)) {
+            sumCompensation += (sum - t) + val;
+        } else {
+            sumCompensation += (val - t) + sum;
+        }
+        sum = t;
+    }
+
+    /** @return The number of data points seen so far. */
+    public long count() {
+        return count;
+    }
+
+    /** @return The compensated sum of every data point seen so far. */
+    public double sum() {
+        return sum + sumCompensation;
+    }
+
+    /** @return The mean of every data point seen so far, or NaN if there are none. */
+    public double mean() {
+        return count == 0 ? Double.NaN : mean;
+    }
+
+    /** @return The population variance of every data point seen so far, or NaN if there are none. */
+    public double variance() {
+        return count == 0 ? Double.NaN : m2 / count;
+    }
+
+    /** @return The sample variance of every data point seen so far, or NaN if there are fewer than two. */
+    public double sampleVariance() {
+        return count < 2 ? Double.NaN : m2 / (count - 1);
+    }
+
+    /** @return The population standard deviation of every data point seen so far, or NaN if there are none. */
+    public double stdev() {
+        return Math.sqrt(variance());
+    }
+
+    /** @return The sample standard deviation of every data point seen so far, or NaN if there are fewer than two. */
+    public double sampleStdev() {
+        return Math.sqrt(sampleVariance());
+    }
+
+    /** @return The smallest data point seen so far, or NaN if there are none. */
+    public double smallest() {
+        return count == 0 ? Double.NaN : min;
+    }
+
+    /** @return The largest data point seen so far, or NaN if there are none. */
+    public double largest() {
+        return count == 0 ? Double.NaN : max;
+    }
+
+    /** @return The difference between the largest and smallest data points seen so far, or NaN if there are none. */
+    public double range() {
+        return largest() - smallest();
+    }
+
+    @Override
+    public String toString() {
+        return "StatisticsAccumulator{count=" + count + ", mean=" + mean() + ", stdev=" + stdev()
+                + ", smallest=" + smallest() + ", largest=" + largest() + "}";
+    }
+}
@@ -0,0 +1,72 @@
+package net.leng.math.solver;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntFunction;
+
+/** Solves many independent problems across a {@link ForkJoinPool}, such as the same equation over thousands of
+ * parameter sets:
+ * <pre>{@code
+ * Solution[] roots = BatchSolver.solve(rates.length, i -> RootFinder.brent(x -> price(x, rates[i]) - target, 0, 1));
+ * }</pre>
+ * Each problem is solved by whichever method it calls, so problems can mix methods. The problems are split in halves
+ * down to batches of {@link #BATCH} that are solved in one task, which keeps the scheduling cheap next to problems
+ * that take only microseconds each.
+ * */
+public class BatchSolver {
+    /** How many problems one task solves. */
+    public static final int BATCH = 16;
+
+    private BatchSolver() {} // ensures no one has access to the object
+
+    public static Solution[] solve(int count, IntFunction<Solution> problem) {
+        return solve(count, problem, ForkJoinPool.commonPool());
+    }
+
+    /** Solves problems 0 to count - 1 across the pool.
+     * @param count How many problems there are.
+     * @param problem Solves problem i. It is called from several threads at once, so it must not share mutable state
+     *                between problems.
+     * @param pool The pool the problems are solved in, or null to solve them on the calling thread.
+     * @return The solution to every problem, in order.
+     * */
+    public static Solution[] solve(int count, IntFunction<Solution> problem, ForkJoinPool pool) {
+        if (count < 0) throw new IllegalArgumentException("count cannot be negative");
+        Solution[] solutions = new Solution[count];
+        if (pool == null || count <= BATCH) {
+            for (int i = 0; i < count; i++) {
+                solutions[i] = problem.apply(i);
+            }
+        } else {
+            pool.invoke(new Problems(problem, solutions, 0, count));
+        }
+        return solutions;
+    }
+
+    @SuppressWarnings("serial")
+    private static final class Problems extends RecursiveAction {
+        private final IntFunction<Solution> problem;
+        private final Solution[] solutions;
+        private final int lo;
+        private final int hi;
+
+        private Problems(IntFunction<Solution> problem, Solution[] solutions, int lo, int hi) {
+            this.problem = problem;
+            this.solutions = solutions;
+            this.lo = lo;
+            this.hi = hi;
+        }
+
+        @Override
+        protected void compute() {
+            if (hi - lo <= BATCH) {
+                for (int i = lo; i < hi; i++) {
+                    solutions[i] = problem.apply(i);
+                }
+                return;
+            }
+            int mid = (lo + hi) >>> 1;
+            invokeAll(new Problems(problem, solutions, lo, mid), new Problems(problem, solutions, mid, hi));
+        }
+    }
+}
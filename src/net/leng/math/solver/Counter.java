@@ -0,0 +1,19 @@
+package net.leng.math.solver;
+
+import java.util.function.DoubleUnaryOperator;
+
+/** Counts the evaluations of a function for a {@link Solution}. */
+final class Counter implements DoubleUnaryOperator {
+    private final DoubleUnaryOperator function;
+    int count;
+
+    Counter(DoubleUnaryOperator function) {
+        this.function = function;
+    }
+
+    @Override
+    public double applyAsDouble(double x) {
+        count++;
+        return function.applyAsDouble(x);
+    }
+}
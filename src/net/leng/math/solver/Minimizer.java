@@ -0,0 +1,160 @@
+package net.leng.math.solver;
+
+import java.util.function.DoubleUnaryOperator;
+
+/** Finds a minimum of a function of one variable within an interval. Both methods assume the function has a single
+ * minimum there; otherwise they find some local minimum. To find a maximum, minimize the negated function.
+ * <ul>
+ *     <li>{@link #goldenSection} shrinks the interval by the golden ratio at every step, a steady linear rate that
+ *     asks nothing of the function but that it falls and then rises.</li>
+ *     <li>{@link #brent} fits a parabola through the three best points so far wherever that can be trusted, and takes
+ *     golden section steps where it cannot, which is much faster for smooth functions.</li>
+ * </ul>
+ * A minimum cannot be located much more closely than the square root of the machine epsilon relative to x, as the
+ * function is flat to rounding within that distance, so that is always added to the tolerance.
+ * */
+public class Minimizer {
+    /** How close to the minimum the interval has to shrink, on top of the square root of the machine epsilon relative
+     * to the minimum.
+     * */
+    public static final double DEFAULT_TOLERANCE = 1e-10;
+    public static final int DEFAULT_MAX_ITERATIONS = 200;
+
+    private static final double SQRT_EPSILON = Math.sqrt(Math.ulp(1.0));
+
+    /** The fraction of the interval a golden section step moves in from its ends, (3 - sqrt(5)) / 2. */
+    private static final double GOLDEN = (3 - Math.sqrt(5)) / 2;
+
+    private Minimizer() {} // ensures no one has access to the object
+
+    public static Solution goldenSection(DoubleUnaryOperator function, double a, double b) {
+        return goldenSection(function, a, b, DEFAULT_TOLERANCE, DEFAULT_MAX_ITERATIONS);
+    }
+
+    /** Finds a minimum with golden section search.
+     * @param function The function.
+     * @param a One end of the interval.
+     * @param b The other end of the interval.
+     * @param tolerance How close to the minimum the interval has to shrink.
+     * @param maxIterations How many steps may be taken.
+     * */
+    public static Solution goldenSection(DoubleUnaryOperator function, double a, double b, double tolerance,
+                                         int maxIterations) {
+        RootFinder.checkArguments(a, b, tolerance, maxIterations);
+        if (b < a) {
+            double t = a;
+            a = b;
+            b = t;
+        }
+        Counter f = new Counter(function);
+        double x1 = a + GOLDEN * (b - a);
+        double x2 = b - GOLDEN * (b - a);
+        double f1 = f.applyAsDouble(x1);
+        double f2 = f.applyAsDouble(x2);
+        for (int iteration = 1; iteration <= maxIterations; iteration++) {
+            if (f1 < f2) {
+                b = x2;
+                x2 = x1;
+                f2 = f1;
+                x1 = a + GOLDEN * (b - a);
+                f1 = f.applyAsDouble(x1);
+            } else {
+                a = x1;
+                x1 = x2;
+                f1 = f2;
+                x2 = b - GOLDEN * (b - a);
+                f2 = f.applyAsDouble(x2);
+            }
+            double x = f1 < f2 ? x1 : x2;
+            if (b - a <= 2 * (SQRT_EPSILON * Math.abs(x) + tolerance)) {
+                return new Solution(x, Math.min(f1, f2), a, b, iteration, f.count, true);
+            }
+        }
+        return new Solution(f1 < f2 ? x1 : x2, Math.min(f1, f2), a, b, maxIterations, f.count, false);
+    }
+
+    public static Solution brent(DoubleUnaryOperator function, double a, double b) {
+        return brent(function, a, b, DEFAULT_TOLERANCE, DEFAULT_MAX_ITERATIONS);
+    }
+
+    /** Finds a minimum with Brent's method, as his localmin does it.
+     * @param function The function.
+     * @param a One end of the interval.
+     * @param b The other end of the interval.
+     * @param tolerance How close to the minimum the interval has to shrink.
+     * @param maxIterations How many steps may be taken.
+     * */
+    public static Solution brent(DoubleUnaryOperator function, double a, double b, double tolerance,
+                                 int maxIterations) {
+        RootFinder.checkArguments(a, b, tolerance, maxIterations);
+        if (b < a) {
+            double t = a;
+            a = b;
+            b = t;
+        }
+        Counter f = new Counter(function);
+        // x is the best point so far, w the second best and v the previous value of w.
+        double x = a + GOLDEN * (b - a);
+        double w = x, v = x;
+        double fx = f.applyAsDouble(x);
+        double fw = fx, fv = fx;
+        double d = 0, e = 0;
+        for (int iteration = 1; iteration <= maxIterations; iteration++) {
+            double middle = 0.5 * (a + b);
+            double tol = SQRT_EPSILON * Math.abs(x) + tolerance / 3;
+            double tol2 = 2 * tol;
+            if (Math.abs(x - middle) <= tol2 - 0.5 * (b - a)) {
+                return new Solution(x, fx, a, b, iteration, f.count, true);
+            }
+            boolean golden = true;
+            if (Math.abs(e) > tol) {
+                // The parabola through x, w and v.
+                double r = (x - w) * (fx - fv);
+                double q = (x - v) * (fx - fw);
+                double p = (x - v) * q - (x - w) * r;
+                q = 2 * (q - r);
+                if (q > 0) p = -p;
+                else q = -q;
+                double lastStep = e;
+                e = d;
+                // The parabola is only trusted if its minimum is within the interval and it moves less than half as
+                // far as the step before last.
+                if (Math.abs(p) < Math.abs(0.5 * q * lastStep) && p > q * (a - x) && p < q * (b - x)) {
+                    d = p / q;
+                    double u = x + d;
+                    if (u - a < tol2 || b - u < tol2) d = Math.copySign(tol, middle - x);
+                    golden = false;
+                }
+            }
+            if (golden) {
+                e = x < middle ? b - x : a - x;
+                d = GOLDEN * e;
+            }
+            double u = Math.abs(d) >= tol ? x + d : x + Math.copySign(tol, d);
+            double fu = f.applyAsDouble(u);
+            if (fu <= fx) {
+                if (u < x) b = x;
+                else a = x;
+                v = w;
+                fv = fw;
+                w = x;
+                fw = fx;
+                x = u;
+                fx = fu;
+            } else {
+                if (u < x) a = u;
+                else b = u;
+                if (fu <= fw || w == x) {
+                    v = w;
+                    fv = fw;
+                    w = u;
+                    fw = fu;
+                } else if (fu <= fv || v == x || v == w) {
+                    v = u;
+                    fv = fu;
+                }
+            }
+        }
+        return new Solution(x, fx, a, b, maxIterations, f.count, false);
+    }
+}
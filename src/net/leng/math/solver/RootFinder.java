@@ -0,0 +1,248 @@
+package net.leng.math.solver;
+
+import net.leng.math.Calculus;
+
+import java.util.function.DoubleUnaryOperator;
+
+/** Finds where a function of one variable crosses 0 within a bracket, an interval at whose ends the function has
+ * opposite signs. Every method keeps the root bracketed throughout, so it always converges for a continuous function,
+ * and reports the final bracket along with the root.
+ * <ul>
+ *     <li>{@link #brent} mixes bisection, the secant method and inverse quadratic interpolation, and is the best
+ *     general choice.</li>
+ *     <li>{@link #newton} takes Newton steps, falling back to bisection whenever a step would leave the bracket or
+ *     is not shrinking it fast enough. It converges quadratically near the root, but every step also needs the
+ *     derivative.</li>
+ *     <li>{@link #illinois} is regula falsi with the Illinois modification, which halves the value kept at an end that
+ *     has not moved for two steps so that both ends keep closing in.</li>
+ * </ul>
+ * */
+public class RootFinder {
+    /** How close to the root the bracket has to shrink, on top of a few ulps of the root. */
+    public static final double DEFAULT_TOLERANCE = 1e-12;
+    public static final int DEFAULT_MAX_ITERATIONS = 100;
+
+    private static final double EPSILON = Math.ulp(1.0);
+
+    private RootFinder() {} // ensures no one has access to the object
+
+    public static Solution brent(DoubleUnaryOperator function, double a, double b) {
+        return brent(function, a, b, DEFAULT_TOLERANCE, DEFAULT_MAX_ITERATIONS);
+    }
+
+    /** Finds a root with Brent's method, as his zeroin does it.
+     * @param function The function, which must have opposite signs at a and b.
+     * @param a One end of the bracket.
+     * @param b The other end of the bracket.
+     * @param tolerance How close to the root the bracket has to shrink.
+     * @param maxIterations How many steps may be taken.
+     * */
+    public static Solution brent(DoubleUnaryOperator function, double a, double b, double tolerance,
+                                 int maxIterations) {
+        checkArguments(a, b, tolerance, maxIterations);
+        Counter f = new Counter(function);
+        double fa = f.applyAsDouble(a);
+        double fb = f.applyAsDouble(b);
+        if (fa == 0) return new Solution(a, fa, a, a, 0, f.count, true);
+        if (fb == 0) return new Solution(b, fb, b, b, 0, f.count, true);
+        checkBracket(fa, fb);
+        double c = a, fc = fa;
+        double d = b - a, e = d;
+        for (int iteration = 1; iteration <= maxIterations; iteration++) {
+            if ((fb > 0) == (fc > 0)) {
+                c = a;
+                fc = fa;
+                d = b - a;
+                e = d;
+            }
+            if (Math.abs(fc) < Math.abs(fb)) {
+                a = b;
+                b = c;
+                c = a;
+                fa = fb;
+                fb = fc;
+                fc = fa;
+            }
+            double tol = 2 * EPSILON * Math.abs(b) + 0.5 * tolerance;
+            double half = 0.5 * (c - b);
+            if (Math.abs(half) <= tol || fb == 0) {
+                return new Solution(b, fb, Math.min(b, c), Math.max(b, c), iteration, f.count, true);
+            }
+            if (Math.abs(e) >= tol && Math.abs(fa) > Math.abs(fb)) {
+                double s = fb / fa;
+                double p, q;
+                if (a == c) {
+                    // Secant step.
+                    p = 2 * half * s;
+                    q = 1 - s;
+                } else {
+                    // Inverse quadratic interpolation.
+                    double r = fb / fc;
+                    q = fa / fc;
+                    p = s * (2 * half * q * (q - r) - (b - a) * (r - 1));
+                    q = (q - 1) * (r - 1) * (s - 1);
+                }
+                if (p > 0) q = -q;
+                else p = -p;
+                if (2 * p < Math.min(3 * half * q - Math.abs(tol * q), Math.abs(e * q))) {
+                    e = d;
+                    d = p / q;
+                } else {
+                    d = half;
+                    e = d;
+                }
+            } else {
+                d = half;
+                e = d;
+            }
+            a = b;
+            fa = fb;
+            b += Math.abs(d) > tol ? d : Math.copySign(tol, half);
+            fb = f.applyAsDouble(b);
+        }
+        // The last step may have crossed to the side of c, leaving the root between b and the point before it.
+        if ((fb > 0) == (fc > 0)) c = a;
+        return new Solution(b, fb, Math.min(b, c), Math.max(b, c), maxIterations, f.count, false);
+    }
+
+    /** Finds a root with safeguarded Newton steps, taking the derivative with
+     * {@link Calculus#derivative(DoubleUnaryOperator, double)}.
+     * @see #newton(DoubleUnaryOperator, DoubleUnaryOperator, double, double, double, int)
+     * */
+    public static Solution newton(DoubleUnaryOperator function, double a, double b) {
+        return newton(function, a, b, DEFAULT_TOLERANCE, DEFAULT_MAX_ITERATIONS);
+    }
+
+    public static Solution newton(DoubleUnaryOperator function, double a, double b, double tolerance,
+                                  int maxIterations) {
+        checkArguments(a, b, tolerance, maxIterations);
+        Counter f = new Counter(function);
+        return safeguardedNewton(f, x -> Calculus.derivative(f, x), a, b, tolerance, maxIterations);
+    }
+
+    public static Solution newton(DoubleUnaryOperator function, DoubleUnaryOperator derivative, double a, double b) {
+        return newton(function, derivative, a, b, DEFAULT_TOLERANCE, DEFAULT_MAX_ITERATIONS);
+    }
+
+    /** Finds a root with Newton steps from the middle of the bracket, which bisects instead whenever a Newton step
+     * would land outside the bracket or would not halve the last step, and narrows the bracket after every step.
+     * @param function The function, which must have opposite signs at a and b.
+     * @param derivative The derivative of the function, which can come from {@link net.leng.math.Dual} for an exact
+     *                   one: {@code x -> Dual.derivative(g, x)}.
+     * @param a One end of the bracket.
+     * @param b The other end of the bracket.
+     * @param tolerance How small a step has to become.
+     * @param maxIterations How many steps may be taken.
+     * @return The root, whose evaluations count those of the function and of the derivative.
+     * */
+    public static Solution newton(DoubleUnaryOperator function, DoubleUnaryOperator derivative, double a, double b,
+                                  double tolerance, int maxIterations) {
+        checkArguments(a, b, tolerance, maxIterations);
+        return safeguardedNewton(new Counter(function), new Counter(derivative), a, b, tolerance, maxIterations);
+    }
+
+    /** The solution reports the evaluations of f, along with those of df if df is a counter of its own. */
+    private static Solution safeguardedNewton(Counter f, DoubleUnaryOperator df, double a, double b,
+                                              double tolerance, int maxIterations) {
+        double fa = f.applyAsDouble(a);
+        double fb = f.applyAsDouble(b);
+        if (fa == 0) return new Solution(a, fa, a, a, 0, evaluations(f, df), true);
+        if (fb == 0) return new Solution(b, fb, b, b, 0, evaluations(f, df), true);
+        checkBracket(fa, fb);
+        // The function is negative at low and positive at high.
+        double low = fa < 0 ? a : b;
+        double high = fa < 0 ? b : a;
+        double x = 0.5 * (a + b);
+        double lastStep = Math.abs(b - a);
+        double step = lastStep;
+        double fx = f.applyAsDouble(x);
+        for (int iteration = 1; iteration <= maxIterations; iteration++) {
+            if (fx == 0) return new Solution(x, fx, x, x, iteration, evaluations(f, df), true);
+            if (fx < 0) low = x;
+            else high = x;
+            double slope = df.applyAsDouble(x);
+            double previous = x;
+            lastStep = step;
+            if (!Double.isFinite(slope) || ((x - high) * slope - fx) * ((x - low) * slope - fx) > 0
+                    || Math.abs(2 * fx) > Math.abs(lastStep * slope)) {
+                step = 0.5 * (high - low);
+                x = low + step;
+            } else {
+                step = fx / slope;
+                x -= step;
+            }
+            double tol = 2 * EPSILON * Math.abs(x) + 0.5 * tolerance;
+            if (x == previous || x == low || Math.abs(step) <= tol) {
+                if (x != previous) fx = f.applyAsDouble(x);
+                return new Solution(x, fx, Math.min(low, high), Math.max(low, high), iteration,
+                        evaluations(f, df), true);
+            }
+            fx = f.applyAsDouble(x);
+        }
+        return new Solution(x, fx, Math.min(low, high), Math.max(low, high), maxIterations,
+                evaluations(f, df), false);
+    }
+
+    private static int evaluations(Counter function, DoubleUnaryOperator derivative) {
+        return derivative instanceof Counter counter ? function.count + counter.count : function.count;
+    }
+
+    public static Solution illinois(DoubleUnaryOperator function, double a, double b) {
+        return illinois(function, a, b, DEFAULT_TOLERANCE, DEFAULT_MAX_ITERATIONS);
+    }
+
+    /** Finds a root with the Illinois variant of regula falsi.
+     * @param function The function, which must have opposite signs at a and b.
+     * @param a One end of the bracket.
+     * @param b The other end of the bracket.
+     * @param tolerance How close to the root the bracket has to shrink.
+     * @param maxIterations How many steps may be taken.
+     * */
+    public static Solution illinois(DoubleUnaryOperator function, double a, double b, double tolerance,
+                                    int maxIterations) {
+        checkArguments(a, b, tolerance, maxIterations);
+        Counter f = new Counter(function);
+        double fa = f.applyAsDouble(a);
+        double fb = f.applyAsDouble(b);
+        if (fa == 0) return new Solution(a, fa, a, a, 0, f.count, true);
+        if (fb == 0) return new Solution(b, fb, b, b, 0, f.count, true);
+        checkBracket(fa, fb);
+        double x = b, fx = fb;
+        // Which end was kept by the last step: -1 for a, 1 for b and 0 for neither.
+        int kept = 0;
+        for (int iteration = 1; iteration <= maxIterations; iteration++) {
+            x = (a * fb - b * fa) / (fb - fa);
+            // Rounding can put the interpolated point on or past an end when the bracket is tiny.
+            if (!(x > Math.min(a, b) && x < Math.max(a, b))) x = 0.5 * (a + b);
+            fx = f.applyAsDouble(x);
+            if (fx == 0) return new Solution(x, fx, x, x, iteration, f.count, true);
+            if ((fx > 0) == (fb > 0)) {
+                b = x;
+                fb = fx;
+                if (kept == -1) fa *= 0.5;
+                kept = -1;
+            } else {
+                a = x;
+                fa = fx;
+                if (kept == 1) fb *= 0.5;
+                kept = 1;
+            }
+            if (Math.abs(b - a) <= 4 * EPSILON * Math.abs(x) + tolerance) {
+                return new Solution(x, fx, Math.min(a, b), Math.max(a, b), iteration, f.count, true);
+            }
+        }
+        return new Solution(x, fx, Math.min(a, b), Math.max(a, b), maxIterations, f.count, false);
+    }
+
+    static void checkArguments(double a, double b, double tolerance, int maxIterations) {
+        if (!Double.isFinite(a) || !Double.isFinite(b)) throw new IllegalArgumentException("The bracket must be finite");
+        if (!(tolerance >= 0)) throw new IllegalArgumentException("The tolerance cannot be negative");
+        if (maxIterations < 1) throw new IllegalArgumentException("At least one iteration is needed");
+    }
+
+    private static void checkBracket(double fa, double fb) {
+        if (!((fa < 0 && fb > 0) || (fa > 0 && fb < 0))) {
+            throw new IllegalArgumentException("The function must have opposite signs at the ends of the bracket");
+        }
+    }
+}
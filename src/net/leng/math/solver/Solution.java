@@ -0,0 +1,18 @@
+package net.leng.math.solver;
+
+/** What a {@link RootFinder} or {@link Minimizer} found, and how it got there.
+ * @param x The root or the minimum.
+ * @param value The function at x, which is close to 0 for a root.
+ * @param lower The lower end of the final bracket, which still holds the root or the minimum.
+ * @param upper The upper end of the final bracket.
+ * @param iterations How many steps the method took.
+ * @param evaluations How many times the function was evaluated, counting the evaluations a numerical derivative made.
+ * @param converged Whether the bracket shrank to within the tolerance before the iterations ran out.
+ * */
+public record Solution(double x, double value, double lower, double upper, int iterations, int evaluations,
+                       boolean converged) {
+    /** @return How wide the final bracket is, which bounds the error of x. */
+    public double width() {
+        return upper - lower;
+    }
+}
@@ -0,0 +1,163 @@
+package net.leng.array;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/** Checks every transform against the element-wise expression it stands for, and every parallel form against the
+ * sequential one, on arrays both below and above {@link ArrayTransforms#PARALLEL_THRESHOLD}.
+ * */
+class ArrayTransformsTest {
+    private static final int[] LENGTHS = {0, 1, 1000, ArrayTransforms.PARALLEL_THRESHOLD * 5 + 3};
+    private static final ForkJoinPool POOL = new ForkJoinPool(3);
+
+    @AfterAll
+    static void shutDown() {
+        POOL.shutdown();
+    }
+
+    private static double[] doubles(Random random, int n) {
+        double[] a = new double[n];
+        for (int i = 0; i < n; i++) a[i] = random.nextGaussian() * 10;
+        return a;
+    }
+
+    private static float[] floats(Random random, int n) {
+        float[] a = new float[n];
+        for (int i = 0; i < n; i++) a[i] = (float)(random.nextGaussian() * 10);
+        return a;
+    }
+
+    @Test
+    void maps() {
+        Random random = new Random(51);
+        for (int n : LENGTHS) {
+            double[] d = doubles(random, n);
+            int[] ints = random.ints(n).toArray();
+            long[] longs = random.longs(n).toArray();
+            double[] expectedD = new double[n];
+            int[] expectedI = new int[n];
+            long[] expectedL = new long[n];
+            for (int i = 0; i < n; i++) {
+                expectedD[i] = Math.sin(d[i]);
+                expectedI[i] = ints[i] * 3 + 1;
+                expectedL[i] = longs[i] >>> 3;
+            }
+            assertArrayEquals(expectedD, ArrayTransforms.map(d, Math::sin));
+            assertArrayEquals(expectedI, ArrayTransforms.map(ints, x -> x * 3 + 1));
+            assertArrayEquals(expectedL, ArrayTransforms.map(longs, x -> x >>> 3));
+            double[] outD = new double[n];
+            ArrayTransforms.mapParallel(d, Math::sin, outD, POOL);
+            assertArrayEquals(expectedD, outD);
+            int[] outI = new int[n];
+            ArrayTransforms.mapParallel(ints, x -> x * 3 + 1, outI);
+            assertArrayEquals(expectedI, outI);
+            long[] outL = new long[n];
+            ArrayTransforms.mapParallel(longs, x -> x >>> 3, outL, POOL);
+            assertArrayEquals(expectedL, outL);
+        }
+    }
+
+    @Test
+    void computesAxpyAndScale() {
+        Random random = new Random(52);
+        for (int n : LENGTHS) {
+            double[] x = doubles(random, n);
+            double[] y = doubles(random, n);
+            double[] expected = new double[n];
+            double[] scaled = new double[n];
+            for (int i = 0; i < n; i++) {
+                expected[i] = y[i] + 2.5 * x[i];
+                scaled[i] = -1.5 * x[i];
+            }
+            double[] sequential = y.clone();
+            ArrayTransforms.axpy(2.5, x, sequential);
+            assertArrayEquals(expected, sequential);
+            double[] parallel = y.clone();
+            ArrayTransforms.axpyParallel(2.5, x, parallel, POOL);
+            assertArrayEquals(expected, parallel);
+            double[] out = new double[n];
+            ArrayTransforms.scaleParallel(-1.5, x, out);
+            assertArrayEquals(scaled, out);
+            ArrayTransforms.scale(-1.5, x, x);
+            assertArrayEquals(scaled, x);
+
+            float[] xf = floats(random, n);
+            float[] yf = floats(random, n);
+            float[] expectedF = new float[n];
+            for (int i = 0; i < n; i++) expectedF[i] = yf[i] + 0.5f * xf[i];
+            ArrayTransforms.axpyParallel(0.5f, xf, yf);
+            assertArrayEquals(expectedF, yf);
+            float[] outF = new float[n];
+            ArrayTransforms.scaleParallel(3f, xf, outF, POOL);
+            for (int i = 0; i < n; i++) assertEquals(3f * xf[i], outF[i]);
+        }
+    }
+
+    @Test
+    void clamps() {
+        Random random = new Random(53);
+        for (int n : LENGTHS) {
+            double[] x = doubles(random, n);
+            if (n > 0) x[n / 2] = Double.NaN;
+            double[] out = new double[n];
+            ArrayTransforms.clampParallel(x, -5, 5, out, POOL);
+            double[] sequential = new double[n];
+            ArrayTransforms.clamp(x, -5, 5, sequential);
+            assertArrayEquals(sequential, out);
+            for (int i = 0; i < n; i++) {
+                if (Double.isNaN(x[i])) assertTrue(Double.isNaN(out[i]));
+                else assertEquals(Math.min(Math.max(x[i], -5), 5), out[i]);
+            }
+            float[] xf = floats(random, n);
+            float[] outF = new float[n];
+            ArrayTransforms.clampParallel(xf, -1f, 2f, outF);
+            for (int i = 0; i < n; i++) assertEquals(Math.min(Math.max(xf[i], -1f), 2f), outF[i]);
+        }
+        assertThrows(IllegalArgumentException.class, () -> ArrayTransforms.clamp(new double[1], 1, 0, new double[1]));
+    }
+
+    @Test
+    void fusesMultiplyAdd() {
+        Random random = new Random(54);
+        for (int n : LENGTHS) {
+            double[] a = doubles(random, n);
+            double[] b = doubles(random, n);
+            double[] c = doubles(random, n);
+            double[] expected = new double[n];
+            for (int i = 0; i < n; i++) expected[i] = Math.fma(a[i], b[i], c[i]);
+            double[] out = new double[n];
+            ArrayTransforms.fmaParallel(a, b, c, out, POOL);
+            assertArrayEquals(expected, out);
+            ArrayTransforms.fma(a, b, c, c);
+            assertArrayEquals(expected, c);
+
+            float[] af = floats(random, n);
+            float[] bf = floats(random, n);
+            float[] cf = floats(random, n);
+            float[] outF = new float[n];
+            ArrayTransforms.fmaParallel(af, bf, cf, outF);
+            for (int i = 0; i < n; i++) assertEquals(Math.fma(af[i], bf[i], cf[i]), outF[i]);
+        }
+        // 0.1 * 10 - 1 is exactly 2^-54 once only the final result is rounded, and 0 otherwise.
+        double[] out = new double[1];
+        ArrayTransforms.fma(new double[]{0.1}, new double[]{10}, new double[]{-1}, out);
+        assertEquals(0x1p-54, out[0]);
+    }
+
+    @Test
+    void rejectsArraysOfDifferentLengths() {
+        assertThrows(IllegalArgumentException.class, () -> ArrayTransforms.axpy(1, new double[2], new double[3]));
+        assertThrows(IllegalArgumentException.class,
+                () -> ArrayTransforms.fma(new double[2], new double[2], new double[1], new double[2]));
+        assertThrows(IllegalArgumentException.class,
+                () -> ArrayTransforms.mapParallel(new int[2], x -> x, new int[1]));
+    }
+}
@@ -0,0 +1,84 @@
+package net.leng.array;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/** Sorts files both in one run and in many runs that have to be merged, with the smallest memory budget. */
+class ExternalSorterTest {
+    private static final long SMALL_BUDGET = 1 << 16;
+
+    @TempDir
+    Path dir;
+
+    private static void write(Path file, long[] bits) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(bits.length * Long.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        for (long b : bits) buffer.putLong(b);
+        Files.write(file, buffer.array());
+    }
+
+    private static long[] read(Path file) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file)).order(ByteOrder.LITTLE_ENDIAN);
+        long[] bits = new long[buffer.remaining() / Long.BYTES];
+        for (int i = 0; i < bits.length; i++) bits[i] = buffer.getLong();
+        return bits;
+    }
+
+    @Test
+    void sortsLongs() throws IOException {
+        Random random = new Random(21);
+        for (int n : new int[]{0, 1, 1000, 200000}) {
+            long[] values = random.longs(n).toArray();
+            Path input = dir.resolve("longs" + n);
+            Path output = dir.resolve("sorted" + n);
+            write(input, values);
+            long[] expected = values.clone();
+            Arrays.sort(expected);
+            for (long budget : new long[]{SMALL_BUDGET, ExternalSorter.DEFAULT_MEMORY_BUDGET}) {
+                ExternalSorter.sortLongs(input, output, budget);
+                assertArrayEquals(expected, read(output));
+            }
+            assertArrayEquals(values, read(input));
+        }
+    }
+
+    @Test
+    void sortsDoubles() throws IOException {
+        Random random = new Random(22);
+        double[] values = new double[150000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = i % 1000 == 0 ? Double.NaN : i % 777 == 0 ? -0.0 : random.nextGaussian() * 1e3;
+        }
+        long[] bits = new long[values.length];
+        for (int i = 0; i < bits.length; i++) bits[i] = Double.doubleToRawLongBits(values[i]);
+        Path input = dir.resolve("doubles");
+        Path output = dir.resolve("sorted");
+        write(input, bits);
+        ExternalSorter.sortDoubles(input, output, SMALL_BUDGET);
+        long[] sortedBits = read(output);
+        double[] sorted = new double[sortedBits.length];
+        for (int i = 0; i < sorted.length; i++) sorted[i] = Double.longBitsToDouble(sortedBits[i]);
+        double[] expected = values.clone();
+        Arrays.sort(expected);
+        assertArrayEquals(expected, sorted);
+    }
+
+    @Test
+    void rejectsBadArguments() throws IOException {
+        Path input = dir.resolve("input");
+        write(input, new long[]{3, 1, 2});
+        assertThrows(IllegalArgumentException.class, () -> ExternalSorter.sortLongs(input, input));
+        assertThrows(IllegalArgumentException.class,
+                () -> ExternalSorter.sortLongs(input, dir.resolve("output"), SMALL_BUDGET - 1));
+    }
+}
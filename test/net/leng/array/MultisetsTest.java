@@ -0,0 +1,95 @@
+package net.leng.array;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+/** Checks the multiset operations against a count of every element, for sorted and unsorted inputs. */
+class MultisetsTest {
+    private static Map<Long, Integer> counts(long[] a) {
+        Map<Long, Integer> counts = new HashMap<>();
+        for (long v : a) counts.merge(v, 1, Integer::sum);
+        return counts;
+    }
+
+    /** @return the result op should give, in sorted order. */
+    private static long[] expected(long[] a, long[] b, Multisets.Operation op) {
+        Map<Long, Integer> countsA = counts(a);
+        Map<Long, Integer> countsB = counts(b);
+        return Arrays.stream(union(a, b)).distinct()
+                .flatMap(v -> Arrays.stream(new long[op.count(countsA.getOrDefault(v, 0), countsB.getOrDefault(v, 0))])
+                        .map(x -> v))
+                .sorted()
+                .toArray();
+    }
+
+    private static long[] union(long[] a, long[] b) {
+        long[] both = Arrays.copyOf(a, a.length + b.length);
+        System.arraycopy(b, 0, both, a.length, b.length);
+        return both;
+    }
+
+    private static long[] sorted(long[] a) {
+        long[] s = a.clone();
+        Arrays.sort(s);
+        return s;
+    }
+
+    @Test
+    void combinesLongs() {
+        Random random = new Random(11);
+        for (int n : new int[]{0, 1, 10, 1000}) {
+            for (int range : new int[]{3, 50, Integer.MAX_VALUE}) {
+                long[] a = random.longs(n, 0, range).toArray();
+                long[] b = random.longs(n / 2 + 1, 0, range).toArray();
+                for (boolean sortedInputs : new boolean[]{false, true}) {
+                    long[] x = sortedInputs ? sorted(a) : a;
+                    long[] y = sortedInputs ? sorted(b) : b;
+                    long[] union = ArrayMaker.union(x, y);
+                    long[] intersection = ArrayMaker.intersection(x, y);
+                    long[] difference = ArrayMaker.difference(x, y);
+                    if (sortedInputs) {
+                        assertArrayEquals(sorted(union), union);
+                        assertArrayEquals(sorted(intersection), intersection);
+                        assertArrayEquals(sorted(difference), difference);
+                    }
+                    assertArrayEquals(expected(x, y, Multisets.Operation.UNION), sorted(union));
+                    assertArrayEquals(expected(x, y, Multisets.Operation.INTERSECTION), sorted(intersection));
+                    assertArrayEquals(expected(x, y, Multisets.Operation.DIFFERENCE), sorted(difference));
+                }
+            }
+        }
+    }
+
+    @Test
+    void combinesInts() {
+        int[] a = {5, 1, 5, 3, 5, 2};
+        int[] b = {5, 3, 3, 7};
+        int[] intersection = ArrayMaker.intersection(a, b);
+        Arrays.sort(intersection);
+        assertArrayEquals(new int[]{3, 5}, intersection);
+        int[] difference = ArrayMaker.difference(a, b);
+        Arrays.sort(difference);
+        assertArrayEquals(new int[]{1, 2, 5, 5}, difference);
+        int[] union = ArrayMaker.union(a, b);
+        Arrays.sort(union);
+        assertArrayEquals(new int[]{1, 2, 3, 3, 5, 5, 5, 7}, union);
+    }
+
+    @Test
+    void tellsDoublesApartLikeDoubleEquals() {
+        double[] a = {0.0, Double.NaN, 1.5};
+        double[] b = {-0.0, Double.NaN, 1.5, 1.5};
+        double[] intersection = ArrayMaker.intersection(a, b);
+        Arrays.sort(intersection);
+        assertArrayEquals(new double[]{1.5, Double.NaN}, intersection);
+        double[] difference = ArrayMaker.difference(a, b);
+        assertArrayEquals(new double[]{0.0}, difference);
+        assertArrayEquals(new double[]{-0.0, 1.5}, ArrayMaker.difference(b, a));
+    }
+}
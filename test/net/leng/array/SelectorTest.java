@@ -0,0 +1,113 @@
+package net.leng.array;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/** Checks selection, partial sorts and top k against a full sort. */
+class SelectorTest {
+    private static final int SHAPES = 6;
+
+    /** @return n values of the given shape: random, sorted, reversed, few distinct, organ pipe or sawtooth. */
+    private static int[] input(Random random, int shape, int n) {
+        int[] a = new int[n];
+        for (int i = 0; i < n; i++) {
+            a[i] = switch (shape) {
+                case 0 -> random.nextInt();
+                case 1 -> i;
+                case 2 -> n - i;
+                case 3 -> random.nextInt(3);
+                case 4 -> Math.min(i, n - i);
+                default -> i % 17;
+            };
+        }
+        return a;
+    }
+
+    @Test
+    void selectsEveryShape() {
+        Random random = new Random(1);
+        for (int shape = 0; shape < SHAPES; shape++) {
+            for (int n : new int[]{1, 2, 16, 17, 100, 1000, 20000}) {
+                int[] a = input(random, shape, n);
+                int[] sorted = a.clone();
+                Arrays.sort(sorted);
+                for (int k : new int[]{0, n / 3, n / 2, n - 1}) {
+                    int[] ints = a.clone();
+                    assertEquals(sorted[k], ArrayMaker.select(ints, k));
+                    for (int i = 0; i < n; i++) {
+                        assertTrue(i < k ? ints[i] <= ints[k] : ints[i] >= ints[k]);
+                    }
+                    long[] longs = Arrays.stream(a).asLongStream().toArray();
+                    assertEquals(sorted[k], ArrayMaker.select(longs, k));
+                    float[] floats = new float[n];
+                    for (int i = 0; i < n; i++) floats[i] = a[i];
+                    assertEquals((float)sorted[k], ArrayMaker.select(floats, k));
+                    double[] doubles = Arrays.stream(a).asDoubleStream().toArray();
+                    assertEquals(sorted[k], ArrayMaker.select(doubles, k));
+                    short[] shorts = new short[n];
+                    for (int i = 0; i < n; i++) shorts[i] = (short)a[i];
+                    short[] sortedShorts = shorts.clone();
+                    Arrays.sort(sortedShorts);
+                    assertEquals(sortedShorts[k], ArrayMaker.select(shorts, k));
+                }
+            }
+        }
+    }
+
+    @Test
+    void selectsWithinARange() {
+        int[] a = input(new Random(2), 0, 500);
+        int[] sorted = Arrays.copyOfRange(a, 100, 400);
+        Arrays.sort(sorted);
+        int[] b = a.clone();
+        assertEquals(sorted[150], ArrayMaker.select(b, 100, 400, 250));
+        assertArrayEquals(Arrays.copyOfRange(a, 0, 100), Arrays.copyOfRange(b, 0, 100));
+        assertArrayEquals(Arrays.copyOfRange(a, 400, 500), Arrays.copyOfRange(b, 400, 500));
+    }
+
+    @Test
+    void selectsSeveralRanksTogether() {
+        Random random = new Random(3);
+        for (int shape = 0; shape < SHAPES; shape++) {
+            for (int n : new int[]{1, 5, 50, 5000}) {
+                double[] a = Arrays.stream(input(random, shape, n)).asDoubleStream().toArray();
+                double[] sorted = a.clone();
+                Arrays.sort(sorted);
+                int[] ks = {n - 1, 0, n / 2, n / 2, n / 4, n - 1};
+                double[] found = ArrayMaker.selectAll(a.clone(), ks);
+                for (int i = 0; i < ks.length; i++) {
+                    assertEquals(sorted[ks[i]], found[i]);
+                }
+            }
+        }
+        assertThrows(IllegalArgumentException.class, () -> ArrayMaker.selectAll(new double[3], 3));
+        assertThrows(IllegalArgumentException.class, () -> ArrayMaker.selectAll(new double[3], -1));
+    }
+
+    @Test
+    void partiallySortsAndFindsTopK() {
+        Random random = new Random(4);
+        for (int shape = 0; shape < SHAPES; shape++) {
+            int[] a = input(random, shape, 3000);
+            int[] sorted = a.clone();
+            Arrays.sort(sorted);
+            for (int k : new int[]{0, 1, 10, 3000}) {
+                int[] partial = a.clone();
+                ArrayMaker.partialSort(partial, k);
+                assertArrayEquals(Arrays.copyOf(sorted, k), Arrays.copyOf(partial, k));
+                int[] top = new int[k];
+                for (int i = 0; i < k; i++) top[i] = sorted[sorted.length - 1 - i];
+                int[] untouched = a.clone();
+                assertArrayEquals(top, ArrayMaker.topK(untouched, k));
+                assertArrayEquals(a, untouched);
+            }
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package net.leng.array;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/** Checks every lookup against a plain lower bound over the sorted values, on indexes small enough to be descended
+ * without a branch and large enough to be descended with one.
+ * */
+class SortedIndexTest {
+    private static int lowerBound(long[] sorted, long key) {
+        int lo = 0;
+        int hi = sorted.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (sorted[mid] < key) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    /** @return Queries that hit values, fall between them, fall outside them, and sit at the extremes of a long. */
+    private static long[] queries(Random random, long[] sorted, int count) {
+        long[] queries = new long[count];
+        for (int i = 0; i < count; i++) {
+            queries[i] = switch (i % 4) {
+                case 0 -> sorted.length == 0 ? 0 : sorted[random.nextInt(sorted.length)];
+                case 1 -> sorted.length == 0 ? 1 : sorted[random.nextInt(sorted.length)] + 1;
+                case 2 -> random.nextLong();
+                default -> i % 8 == 3 ? Long.MIN_VALUE : Long.MAX_VALUE;
+            };
+        }
+        return queries;
+    }
+
+    private static void check(long[] values) {
+        Random random = new Random(values.length);
+        SortedIndex index = SortedIndex.of(values);
+        long[] sorted = values.clone();
+        Arrays.sort(sorted);
+        assertEquals(sorted.length, index.size());
+        long[] queries = queries(random, sorted, 2000);
+        int[] expected = new int[queries.length];
+        boolean[] present = new boolean[queries.length];
+        for (int i = 0; i < queries.length; i++) {
+            expected[i] = lowerBound(sorted, queries[i]);
+            present[i] = expected[i] < sorted.length && sorted[expected[i]] == queries[i];
+            assertEquals(expected[i], index.lowerBound(queries[i]));
+            assertEquals(present[i], index.contains(queries[i]));
+        }
+        int[] bounds = new int[queries.length];
+        index.lowerBound(queries, bounds);
+        assertArrayEquals(expected, bounds);
+        boolean[] found = new boolean[queries.length];
+        index.contains(queries, found);
+        assertArrayEquals(present, found);
+    }
+
+    @Test
+    void findsLowerBoundsOfSmallIndexes() {
+        Random random = new Random(61);
+        for (int n = 0; n <= 70; n++) {
+            check(random.longs(n).toArray());
+            check(random.longs(n, -5, 5).toArray());
+        }
+        check(random.longs(10000).toArray());
+    }
+
+    @Test
+    void findsLowerBoundsOfSpeculativeIndexes() {
+        Random random = new Random(62);
+        check(random.longs(SortedIndex.SPECULATIVE_SIZE + 12345).toArray());
+        check(random.longs(SortedIndex.SPECULATIVE_SIZE, 0, 1000).toArray());
+    }
+
+    @Test
+    void leavesUnsortedValuesUntouched() {
+        long[] values = {5, 3, 9, 3};
+        SortedIndex index = SortedIndex.of(values);
+        assertArrayEquals(new long[]{5, 3, 9, 3}, values);
+        assertEquals(0, index.lowerBound(3));
+        assertEquals(2, index.lowerBound(4));
+        assertEquals(4, index.lowerBound(10));
+    }
+
+    @Test
+    void rejectsOutputsOfAnotherLength() {
+        SortedIndex index = SortedIndex.of(new long[]{1, 2, 3});
+        assertThrows(IllegalArgumentException.class, () -> index.lowerBound(new long[2], new int[3]));
+        assertThrows(IllegalArgumentException.class, () -> index.contains(new long[2], new boolean[1]));
+    }
+}
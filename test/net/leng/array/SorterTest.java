@@ -0,0 +1,176 @@
+package net.leng.array;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+/** Checks every primitive sort against {@link Arrays#sort} on random, sorted, reversed and duplicate heavy inputs. */
+class SorterTest {
+    private static final int[] LENGTHS = {0, 1, 2, 3, 15, 16, 17, 100, 1000, 5000, 70000};
+
+    /** The values of one input, before they are narrowed to the type under test. */
+    private static long[][] inputs() {
+        Random random = new Random(42);
+        long[][] inputs = new long[LENGTHS.length * 4][];
+        int next = 0;
+        for (int n : LENGTHS) {
+            long[] randomValues = new long[n];
+            long[] sorted = new long[n];
+            long[] reversed = new long[n];
+            long[] duplicates = new long[n];
+            for (int i = 0; i < n; i++) {
+                randomValues[i] = random.nextLong();
+                sorted[i] = i - n / 2;
+                reversed[i] = n / 2 - i;
+                duplicates[i] = random.nextInt(4) - 2;
+            }
+            inputs[next++] = randomValues;
+            inputs[next++] = sorted;
+            inputs[next++] = reversed;
+            inputs[next++] = duplicates;
+        }
+        return inputs;
+    }
+
+    @Test
+    void sortsBytes() {
+        for (long[] input : inputs()) {
+            byte[] a = new byte[input.length];
+            for (int i = 0; i < a.length; i++) a[i] = (byte)input[i];
+            byte[] expected = a.clone();
+            Arrays.sort(expected);
+            assertArrayEquals(expected, ArrayMaker.makeSortedArray(a));
+            assertArrayEquals(expected, ArrayMaker.makeSortedArrayParallel(a, ForkJoinPool.commonPool(), 64));
+            byte[] inPlace = a.clone();
+            ArrayMaker.sortInPlace(inPlace);
+            assertArrayEquals(expected, inPlace);
+        }
+    }
+
+    @Test
+    void sortsChars() {
+        for (long[] input : inputs()) {
+            char[] a = new char[input.length];
+            for (int i = 0; i < a.length; i++) a[i] = (char)input[i];
+            char[] expected = a.clone();
+            Arrays.sort(expected);
+            assertArrayEquals(expected, ArrayMaker.makeSortedArray(a));
+            assertArrayEquals(expected, ArrayMaker.makeSortedArrayParallel(a, ForkJoinPool.commonPool(), 64));
+            char[] inPlace = a.clone();
+            ArrayMaker.sortInPlace(inPlace);
+            assertArrayEquals(expected, inPlace);
+        }
+    }
+
+    @Test
+    void sortsShorts() {
+        for (long[] input : inputs()) {
+            short[] a = new short[input.length];
+            for (int i = 0; i < a.length; i++) a[i] = (short)input[i];
+            short[] expected = a.clone();
+            Arrays.sort(expected);
+            assertArrayEquals(expected, ArrayMaker.makeSortedArray(a));
+            assertArrayEquals(expected, ArrayMaker.makeSortedArrayParallel(a, ForkJoinPool.commonPool(), 64));
+            short[] inPlace = a.clone();
+            ArrayMaker.sortInPlace(inPlace);
+            assertArrayEquals(expected, inPlace);
+        }
+    }
+
+    @Test
+    void sortsInts() {
+        for (long[] input : inputs()) {
+            int[] a = new int[input.length];
+            for (int i = 0; i < a.length; i++) a[i] = (int)input[i];
+            int[] expected = a.clone();
+            Arrays.sort(expected);
+            assertArrayEquals(expected, ArrayMaker.makeSortedArray(a));
+            assertArrayEquals(expected, ArrayMaker.makeSortedArrayParallel(a, ForkJoinPool.commonPool(), 64));
+            int[] inPlace = a.clone();
+            ArrayMaker.sortInPlace(inPlace);
+            assertArrayEquals(expected, inPlace);
+        }
+    }
+
+    @Test
+    void sortsLongs() {
+        for (long[] input : inputs()) {
+            long[] expected = input.clone();
+            Arrays.sort(expected);
+            assertArrayEquals(expected, ArrayMaker.makeSortedArray(input));
+            assertArrayEquals(expected, ArrayMaker.makeSortedArrayParallel(input, ForkJoinPool.commonPool(), 64));
+            long[] inPlace = input.clone();
+            ArrayMaker.sortInPlace(inPlace);
+            assertArrayEquals(expected, inPlace);
+        }
+    }
+
+    @Test
+    void sortsFloats() {
+        for (long[] input : inputs()) {
+            float[] a = new float[input.length];
+            for (int i = 0; i < a.length; i++) a[i] = input[i] / 7f;
+            float[] expected = a.clone();
+            Arrays.sort(expected);
+            assertArrayEquals(expected, ArrayMaker.makeSortedArray(a));
+            assertArrayEquals(expected, ArrayMaker.makeSortedArrayParallel(a, ForkJoinPool.commonPool(), 64));
+            float[] inPlace = a.clone();
+            ArrayMaker.sortInPlace(inPlace);
+            assertArrayEquals(expected, inPlace);
+        }
+    }
+
+    @Test
+    void sortsDoubles() {
+        for (long[] input : inputs()) {
+            double[] a = new double[input.length];
+            for (int i = 0; i < a.length; i++) a[i] = input[i] / 7.0;
+            double[] expected = a.clone();
+            Arrays.sort(expected);
+            assertArrayEquals(expected, ArrayMaker.makeSortedArray(a));
+            assertArrayEquals(expected, ArrayMaker.makeSortedArrayParallel(a, ForkJoinPool.commonPool(), 64));
+            double[] inPlace = a.clone();
+            ArrayMaker.sortInPlace(inPlace);
+            assertArrayEquals(expected, inPlace);
+        }
+    }
+
+    @Test
+    void ordersSpecialDoublesLikeDoubleCompare() {
+        double[] a = {Double.NaN, 0.0, -0.0, Double.NEGATIVE_INFINITY, 1, Double.POSITIVE_INFINITY, -1, Double.NaN, -0.0};
+        double[] expected = a.clone();
+        Arrays.sort(expected);
+        assertArrayEquals(expected, ArrayMaker.makeSortedArray(a));
+    }
+
+    @Test
+    void sortsSubranges() {
+        Random random = new Random(7);
+        int[] a = random.ints(1000).toArray();
+        int[] expected = a.clone();
+        Arrays.sort(expected, 100, 900);
+        ArrayMaker.sortInPlace(a, 100, 900);
+        assertArrayEquals(expected, a);
+    }
+
+    @Test
+    void sortsWithComparators() {
+        for (long[] input : inputs()) {
+            int[] a = new int[input.length];
+            for (int i = 0; i < a.length; i++) a[i] = (int)input[i];
+            int[] expected = a.clone();
+            Arrays.sort(expected);
+            for (int i = 0, j = expected.length - 1; i < j; i++, j--) {
+                int t = expected[i];
+                expected[i] = expected[j];
+                expected[j] = t;
+            }
+            ArrayMaker.sortInPlace(a, (x, y) -> Integer.compare(y, x));
+            assertArrayEquals(expected, a);
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package net.leng.math;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.function.DoubleUnaryOperator;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/** Checks derivatives of every order against closed forms, to the accuracy the class doc promises. */
+class CalculusTest {
+    private static final double[] POINTS = {-3, -0.5, 0, 0.7, 1, 2.5, 10, 100};
+
+    /** About 1e-13 relative to scale for the first derivative, and two digits fewer for every order above it. */
+    private static double tolerance(int order) {
+        return 1e-13 * Math.pow(100, order - 1);
+    }
+
+    @Test
+    void differentiatesExpToEveryOrder() {
+        for (double x : POINTS) {
+            for (int order = 1; order <= Calculus.MAX_DERIVATIVE_ORDER; order++) {
+                double expected = Math.exp(x);
+                assertEquals(expected, Calculus.derivative(Math::exp, x, order), tolerance(order) * expected,
+                        "order " + order + " at " + x);
+            }
+        }
+        assertEquals(1, Calculus.derivative(Math::exp, 0), tolerance(1));
+    }
+
+    @Test
+    void differentiatesSinToEveryOrder() {
+        for (double x : POINTS) {
+            double[] expected = {Math.cos(x), -Math.sin(x), -Math.cos(x), Math.sin(x)};
+            for (int order = 1; order <= Calculus.MAX_DERIVATIVE_ORDER; order++) {
+                assertEquals(expected[order - 1], Calculus.derivative(Math::sin, x, order), tolerance(order),
+                        "order " + order + " at " + x);
+            }
+        }
+        // A polynomial of the same degree as the order has a constant derivative.
+        assertEquals(24, Calculus.derivative(x -> x * x * x * x - 3 * x, 1.5, 4), 24 * tolerance(4));
+    }
+
+    @Test
+    void differentiatesInsideADerivative() {
+        // The inner derivative finds the thread's column taken and allocates its own, so the outer tableau is intact.
+        DoubleUnaryOperator cos = t -> Calculus.derivative(Math::sin, t);
+        double before = Calculus.derivative(Math::exp, 0.3);
+        for (double x : new double[]{-1, 0.9, 4}) {
+            assertEquals(-Math.sin(x), Calculus.derivative(cos, x), 1e-10, "at " + x);
+            assertEquals(-Math.cos(x), Calculus.derivative(t -> Calculus.derivative(cos, t), x), 1e-7, "at " + x);
+        }
+        assertEquals(before, Calculus.derivative(Math::exp, 0.3));
+
+        // Every thread has a column of its own.
+        double[] sequential = IntStream.range(0, 200).mapToDouble(i -> Calculus.derivative(Math::exp, i / 50.0, 2)).toArray();
+        double[] parallel = IntStream.range(0, 200).parallel()
+                .mapToDouble(i -> Calculus.derivative(Math::exp, i / 50.0, 2)).toArray();
+        assertArrayEquals(sequential, parallel);
+    }
+
+    @Test
+    void staysInsideTheDomain() {
+        // The first step would cross 0, so it is shrunk until it does not.
+        for (double x : new double[]{1e-3, 1e-6, 1e-10}) {
+            assertEquals(1 / x, Calculus.derivative(Math::log, x), tolerance(1) * 1e3 / x, "at " + x);
+            assertEquals(-1 / (x * x), Calculus.derivative(Math::log, x, 2), tolerance(2) * 1e3 / (x * x), "at " + x);
+            assertEquals(0.5 / Math.sqrt(x), Calculus.derivative(Math::sqrt, x), tolerance(1) * 1e3 / Math.sqrt(x));
+        }
+        assertTrue(Double.isNaN(Calculus.derivative(Math::log, 0)));
+        assertTrue(Double.isNaN(Calculus.derivative(Math::log, -1)));
+        assertTrue(Double.isNaN(Calculus.derivative(Math::sqrt, 0, 2)));
+        assertTrue(Double.isNaN(Calculus.derivative(Math::exp, Double.NaN)));
+        assertTrue(Double.isNaN(Calculus.derivative(Math::exp, Double.POSITIVE_INFINITY)));
+        // A hole at x is filled by the limit for the even orders and never looked at by the odd ones.
+        assertEquals(-1.0 / 3, Calculus.derivative(t -> Math.sin(t) / t, 0, 2), 1e-11);
+        assertEquals(0, Calculus.derivative(t -> Math.sin(t) / t, 0), 1e-13);
+    }
+
+    @Test
+    void rejectsOrdersItCannotTake() {
+        assertThrows(IllegalArgumentException.class, () -> Calculus.derivative(Math::sin, 1, 0));
+        assertThrows(IllegalArgumentException.class, () -> Calculus.derivative(Math::sin, 1, -1));
+        assertThrows(IllegalArgumentException.class,
+                () -> Calculus.derivative(Math::sin, 1, Calculus.MAX_DERIVATIVE_ORDER + 1));
+    }
+
+    @Test
+    void agreesWithMoreMath() {
+        for (double x : POINTS) {
+            assertEquals(Calculus.derivative(Math::cos, x), MoreMath.derivative(Math::cos, x));
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package net.leng.math;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/** Checks that a column split across buffers gives the measures of the same values in one array: the order
+ * statistics exactly, and the sums to rounding.
+ * */
+class ColumnStatisticsTest {
+    @TempDir
+    Path dir;
+
+    /** @return vals split into two buffers at a random point. */
+    private static DoubleBuffer[] split(Random random, double[] vals) {
+        int cut = random.nextInt(vals.length + 1);
+        return new DoubleBuffer[]{
+                DoubleBuffer.wrap(vals, 0, cut).slice(),
+                DoubleBuffer.wrap(vals, cut, vals.length - cut).slice()
+        };
+    }
+
+    @Test
+    void findsQuartilesLikeStatistics() {
+        Random random = new Random(41);
+        for (int n = 1; n <= 300; n++) {
+            double[] vals = new double[n];
+            for (int i = 0; i < n; i++) vals[i] = random.nextInt(2 * n) - n;
+            DoubleBuffer[] column = split(random, vals);
+            assertArrayEquals(Statistics.quartiles(vals), ColumnStatistics.quartiles(column), "length " + n);
+            assertEquals(Statistics.median(vals), ColumnStatistics.median(column));
+        }
+        assertArrayEquals(new double[]{5, 5, 5}, ColumnStatistics.quartiles(DoubleBuffer.wrap(new double[]{5})));
+        assertArrayEquals(new double[]{5, 6, 7}, ColumnStatistics.quartiles(DoubleBuffer.wrap(new double[]{7, 5, 6})));
+    }
+
+    @Test
+    void selectsInTheOrderOfDoubleCompare() {
+        Random random = new Random(42);
+        double[] vals = new double[100000];
+        for (int i = 0; i < vals.length; i++) {
+            vals[i] = i % 5000 == 0 ? -0.0 : random.nextGaussian();
+        }
+        double[] sorted = vals.clone();
+        Arrays.sort(sorted);
+        DoubleBuffer[] column = split(random, vals);
+        for (long k : new long[]{0, 1, 49999, 50000, 99999}) {
+            assertEquals(sorted[(int)k], ColumnStatistics.select(k, column));
+        }
+    }
+
+    /** @return vals cut at the given points into heap buffers, the first of which starts past some other doubles. */
+    private static DoubleBuffer[] heap(double[] vals, int... cuts) {
+        DoubleBuffer[] column = new DoubleBuffer[cuts.length + 1];
+        double[] padded = new double[vals.length + 3];
+        System.arraycopy(vals, 0, padded, 3, vals.length);
+        int from = 0;
+        for (int s = 0; s <= cuts.length; s++) {
+            int to = s == cuts.length ? vals.length : cuts[s];
+            column[s] = DoubleBuffer.wrap(padded, from + 3, to - from);
+            from = to;
+        }
+        return column;
+    }
+
+    /** @return vals cut at the given points into direct buffers. */
+    private static DoubleBuffer[] direct(double[] vals, int... cuts) {
+        DoubleBuffer all = ByteBuffer.allocateDirect(vals.length * Double.BYTES).order(ByteOrder.nativeOrder()).asDoubleBuffer();
+        all.put(vals);
+        return cut(all, vals.length, cuts);
+    }
+
+    /** @return vals written to a file, mapped whole and cut at the given points. */
+    private DoubleBuffer[] mapped(double[] vals, int... cuts) throws IOException {
+        ByteBuffer bytes = ByteBuffer.allocate(vals.length * Double.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        for (double v : vals) bytes.putDouble(v);
+        Path file = Files.createTempFile(dir, "column", ".bin");
+        Files.write(file, bytes.array());
+        DoubleBuffer[] whole = ColumnStatistics.map(file);
+        assertEquals(1, whole.length);
+        assertEquals(vals.length, ColumnStatistics.count(whole));
+        return cut(whole[0], vals.length, cuts);
+    }
+
+    private static DoubleBuffer[] cut(DoubleBuffer all, int n, int... cuts) {
+        DoubleBuffer[] column = new DoubleBuffer[cuts.length + 1];
+        int from = 0;
+        for (int s = 0; s <= cuts.length; s++) {
+            int to = s == cuts.length ? n : cuts[s];
+            column[s] = all.slice(from, to - from);
+            from = to;
+        }
+        return column;
+    }
+
+    private static void assertClose(double expected, double actual) {
+        assertEquals(expected, actual, 1e-14 * Math.abs(expected));
+    }
+
+    @Test
+    void measuresHeapDirectAndMappedColumnsLikeStatistics() throws IOException {
+        Random random = new Random(43);
+        int n = Statistics.PARALLEL_THRESHOLD * 3 + 777;
+        double[] a = new double[n];
+        double[] b = new double[n];
+        for (int i = 0; i < n; i++) {
+            a[i] = 1e6 + random.nextGaussian() * 5;
+            b[i] = a[i] * -2 + random.nextGaussian() * 3;
+        }
+        double[] sorted = a.clone();
+        Arrays.sort(sorted);
+        // A split at a chunk boundary, and splits at no boundary at all.
+        int[][] cutsList = {{}, {1 << 14}, {1, 12345, n - 1}, {n / 2, n / 2, n / 2 + 9999}};
+        ForkJoinPool pool = new ForkJoinPool(3);
+        try {
+            for (int[] cuts : cutsList) {
+                DoubleBuffer[][] columns = {heap(a, cuts), direct(a, cuts), mapped(a, cuts)};
+                DoubleBuffer[][] others = {heap(b, cuts), direct(b, cuts), mapped(b, cuts)};
+                for (int c = 0; c < columns.length; c++) {
+                    DoubleBuffer[] column = columns[c];
+                    String where = "column " + c + " cut at " + Arrays.toString(cuts);
+                    int position = column[0].position();
+                    assertEquals(n, ColumnStatistics.count(column), where);
+                    double variance = ColumnStatistics.variance(column);
+                    double r = ColumnStatistics.correlationCoefficient(column, others[c]);
+                    if (cuts.length == 0) {
+                        // One segment is chunked just like the array.
+                        assertEquals(Statistics.sum(a), ColumnStatistics.sum(column), where);
+                        assertEquals(Statistics.mean(a), ColumnStatistics.mean(column), where);
+                        assertEquals(Statistics.variance(a), variance, where);
+                        assertEquals(Statistics.correlationCoefficient(a, b), r, where);
+                    }
+                    assertClose(Statistics.mean(a), ColumnStatistics.mean(column));
+                    assertClose(Statistics.variance(a), variance);
+                    assertClose(Statistics.stdev(a), ColumnStatistics.stdev(column));
+                    assertClose(Statistics.correlationCoefficient(a, b), r);
+                    assertEquals(ColumnStatistics.sum(column), ColumnStatistics.sumParallel(column, pool), where);
+                    assertEquals(ColumnStatistics.mean(column), ColumnStatistics.meanParallel(column, pool), where);
+                    assertEquals(variance, ColumnStatistics.varianceParallel(column, pool), where);
+                    assertEquals(r, ColumnStatistics.correlationCoefficientParallel(column, others[c], pool), where);
+                    assertEquals(sorted[0], ColumnStatistics.smallest(column));
+                    assertEquals(sorted[n - 1], ColumnStatistics.largest(column));
+                    for (long k : new long[]{0, 17, n / 2, n - 1}) {
+                        assertEquals(sorted[(int)k], ColumnStatistics.select(k, column), where);
+                    }
+                    assertArrayEquals(Statistics.quartiles(a), ColumnStatistics.quartiles(column), where);
+                    assertEquals(position, column[0].position(), "the column is only read");
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+        assertThrows(IllegalArgumentException.class,
+                () -> ColumnStatistics.correlationCoefficient(heap(a, 10), heap(b, 11)));
+    }
+
+    @Test
+    void selectsAmongMoreEqualValuesThanItGathers() throws IOException {
+        // Far more copies of one double than fit in a gathered bucket, so its ranks are narrowed through all 64 bits.
+        Random random = new Random(44);
+        int n = 700000;
+        double[] vals = new double[n];
+        for (int i = 0; i < n; i++) {
+            int kind = random.nextInt(10);
+            vals[i] = kind < 6 ? 1.5 : kind < 8 ? Math.nextUp(1.5) : kind == 8 ? 0.0 : -0.0;
+        }
+        double[] sorted = vals.clone();
+        Arrays.sort(sorted);
+        long ones = Arrays.stream(vals).filter(v -> v == 1.5).count();
+        long negativeZeros = Arrays.stream(vals).filter(v -> Double.doubleToRawLongBits(v) == Long.MIN_VALUE).count();
+        long zeros = Arrays.stream(vals).filter(v -> v == 0).count();
+        for (DoubleBuffer[] column : new DoubleBuffer[][]{heap(vals, n / 3), direct(vals), mapped(vals, 1, n - 1)}) {
+            for (long k : new long[]{0, negativeZeros - 1, negativeZeros, zeros, zeros + ones / 2, zeros + ones - 1,
+                    zeros + ones, n - 1}) {
+                assertEquals(Double.doubleToRawLongBits(sorted[(int)k]),
+                        Double.doubleToRawLongBits(ColumnStatistics.select(k, column)), "rank " + k);
+            }
+            assertEquals(Statistics.median(vals), ColumnStatistics.median(column));
+            assertArrayEquals(Statistics.quartiles(vals), ColumnStatistics.quartiles(column));
+            assertThrows(IllegalArgumentException.class, () -> ColumnStatistics.select(n, column));
+        }
+    }
+
+    @Test
+    void measuresEmptyColumns() {
+        DoubleBuffer[] empty = {DoubleBuffer.allocate(0)};
+        assertEquals(0, ColumnStatistics.count(empty));
+        assertEquals(0, ColumnStatistics.sum(empty));
+        assertEquals(Double.NaN, ColumnStatistics.smallest(empty));
+        assertEquals(Double.NaN, ColumnStatistics.largest(empty));
+        assertThrows(IllegalArgumentException.class, () -> ColumnStatistics.select(0, empty));
+    }
+}
@@ -0,0 +1,115 @@
+package net.leng.math;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/** Checks the tables and caches against counts multiplied out the slow way, at the limits of each of them. */
+class CombinatoricsTest {
+    private static BigInteger naiveFactorial(int n) {
+        BigInteger result = BigInteger.ONE;
+        for (int i = 2; i <= n; i++) result = result.multiply(BigInteger.valueOf(i));
+        return result;
+    }
+
+    @Test
+    void readsFactorialsUpToTwenty() {
+        assertEquals(1, Combinatorics.factorial(0));
+        assertEquals(2432902008176640000L, Combinatorics.factorial(Combinatorics.MAX_LONG_FACTORIAL));
+        for (int n = 0; n <= Combinatorics.MAX_LONG_FACTORIAL; n++) {
+            assertEquals(naiveFactorial(n), BigInteger.valueOf(Combinatorics.factorial(n)));
+            assertEquals(Combinatorics.factorial(n), Combinatorics.permutations(n, n));
+        }
+        assertThrows(ArithmeticException.class, () -> Combinatorics.factorial(21));
+        assertThrows(ArithmeticException.class, () -> Combinatorics.permutations(21, 21));
+        assertEquals(21L * 20 * 19, Combinatorics.permutations(21, 3));
+        assertEquals(0, Combinatorics.permutations(5, 6));
+        assertEquals(BigInteger.ZERO, Combinatorics.bigPermutations(5, 6));
+    }
+
+    @Test
+    void growsTheFactorialCachePastItsLimit() {
+        int limit = Combinatorics.BIG_FACTORIAL_CACHE;
+        BigInteger[] expected = new BigInteger[limit + 1000];
+        expected[0] = BigInteger.ONE;
+        for (int i = 1; i < expected.length; i++) expected[i] = expected[i - 1].multiply(BigInteger.valueOf(i));
+        // Asked for from many threads at once and in no order, so the cache grows while it is being read.
+        List<Integer> ns = IntStream.range(0, expected.length).map(i -> (int)(i * 7919L % expected.length))
+                .boxed().collect(Collectors.toList());
+        ns.parallelStream().forEach(n -> assertEquals(expected[n], Combinatorics.bigFactorial(n), n + "!"));
+        for (int n : new int[]{limit - 1, limit, limit + 1, expected.length - 1}) {
+            assertEquals(expected[n], Combinatorics.bigFactorial(n), n + "!");
+        }
+        assertEquals(expected[limit + 999].divide(expected[limit + 499]), Combinatorics.bigPermutations(limit + 999, 500));
+    }
+
+    @Test
+    void readsPascalsTriangleUpToRow66() {
+        int last = Combinatorics.MAX_LONG_PASCAL_ROW;
+        assertEquals(7219428434016265740L, Combinatorics.choose(last, last / 2));
+        BigInteger[] big = Combinatorics.bigPascalRow(last);
+        long[] row = Combinatorics.pascalRow(last);
+        assertEquals(last + 1, row.length);
+        for (int k = 0; k <= last; k++) assertEquals(big[k], BigInteger.valueOf(row[k]));
+        // Past the table, the long coefficients are multiplied out until they overflow.
+        assertThrows(ArithmeticException.class, () -> Combinatorics.pascalRow(last + 1));
+        assertThrows(ArithmeticException.class, () -> Combinatorics.choose(last + 1, (last + 1) / 2));
+        for (int n = 0; n <= 200; n++) {
+            for (int k = 0; k <= n + 1; k++) {
+                BigInteger exact = Combinatorics.bigChoose(n, k);
+                int m = n;
+                int j = k;
+                if (exact.bitLength() < Long.SIZE) assertEquals(exact.longValueExact(), Combinatorics.choose(n, k), n + " choose " + k);
+                else assertThrows(ArithmeticException.class, () -> Combinatorics.choose(m, j), n + " choose " + k);
+            }
+        }
+        assertArrayEquals(new long[]{1}, Combinatorics.pascalRow(0));
+        assertArrayEquals(new long[]{1, 4, 6, 4, 1}, Combinatorics.pascalRow(4));
+    }
+
+    @Test
+    void choosesExactlyBothWays() {
+        // Rows long enough that the first and last entries are divided out of falling factorials, and the middle
+        // ones built from prime factors.
+        for (int n : new int[]{67, 150, 1000, 3000}) {
+            BigInteger[] row = Combinatorics.bigPascalRow(n);
+            for (int k = 0; k <= n; k++) assertEquals(row[k], Combinatorics.bigChoose(n, k), n + " choose " + k);
+        }
+        // Either side of the switch between the two ways, which is near k^2 = 16n.
+        int n = 100000;
+        for (int k : new int[]{1, 2, 1263, 1264, 1265, n / 2}) {
+            assertEquals(Combinatorics.bigChoose(n - 1, k - 1).add(Combinatorics.bigChoose(n - 1, k)),
+                    Combinatorics.bigChoose(n, k), n + " choose " + k);
+            assertEquals(Combinatorics.bigChoose(n, k), Combinatorics.bigChoose(n, n - k));
+        }
+        assertEquals(BigInteger.ZERO, Combinatorics.bigChoose(3, 4));
+        assertEquals(BigInteger.ONE, Combinatorics.bigChoose(0, 0));
+    }
+
+    @Test
+    void streamsTheRowsOfPascalsTriangle() {
+        List<BigInteger[]> rows = Combinatorics.pascalRows().limit(80).collect(Collectors.toList());
+        for (int n = 0; n < rows.size(); n++) {
+            assertArrayEquals(Combinatorics.bigPascalRow(n), rows.get(n), "row " + n);
+        }
+    }
+
+    @Test
+    void rejectsNegativeCounts() {
+        assertThrows(IllegalArgumentException.class, () -> Combinatorics.factorial(-1));
+        assertThrows(IllegalArgumentException.class, () -> Combinatorics.bigFactorial(-1));
+        assertThrows(IllegalArgumentException.class, () -> Combinatorics.permutations(3, -1));
+        assertThrows(IllegalArgumentException.class, () -> Combinatorics.bigPermutations(-3, 1));
+        assertThrows(IllegalArgumentException.class, () -> Combinatorics.choose(-1, 0));
+        assertThrows(IllegalArgumentException.class, () -> Combinatorics.bigChoose(4, -2));
+        assertThrows(IllegalArgumentException.class, () -> Combinatorics.pascalRow(-1));
+        assertThrows(IllegalArgumentException.class, () -> Combinatorics.bigPascalRow(-1));
+    }
+}
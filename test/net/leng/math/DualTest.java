@@ -0,0 +1,78 @@
+package net.leng.math;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.function.DoubleUnaryOperator;
+import java.util.function.UnaryOperator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/** Checks every rule against the derivative worked out by hand, and against finite differences. */
+class DualTest {
+    private static final double[] POINTS = {0.1, 0.45, 0.8};
+
+    /** Checks that the function carries both its value and its derivative to within a few ulps. */
+    private static void assertRule(UnaryOperator<Dual> function, DoubleUnaryOperator value,
+                                   DoubleUnaryOperator derivative) {
+        for (double x : POINTS) {
+            Dual result = function.apply(Dual.variable(x));
+            double v = value.applyAsDouble(x);
+            double d = derivative.applyAsDouble(x);
+            assertEquals(v, result.value(), 4 * Math.ulp(v), "value at " + x);
+            assertEquals(d, result.derivative(), 8 * Math.ulp(d), "derivative at " + x);
+            assertEquals(d, Dual.derivative(function, x), 8 * Math.ulp(d));
+            assertEquals(d, Calculus.derivative(value, x), 1e-12 * Math.max(1, Math.abs(d)), "differences at " + x);
+        }
+    }
+
+    @Test
+    void followsTheArithmeticRules() {
+        assertRule(x -> x.add(x.multiply(x)), x -> x + x * x, x -> 1 + 2 * x);
+        assertRule(x -> x.add(3).subtract(Dual.constant(2)), x -> x + 1, x -> 1);
+        assertRule(x -> x.subtract(1).negate(), x -> 1 - x, x -> -1);
+        assertRule(x -> x.multiply(5).divide(2), x -> x * 2.5, x -> 2.5);
+        assertRule(x -> x.divide(x.square().add(1)), x -> x / (x * x + 1), x -> (1 - x * x) / ((1 + x * x) * (1 + x * x)));
+        assertRule(Dual::reciprocal, x -> 1 / x, x -> -1 / (x * x));
+        assertRule(Dual::square, x -> x * x, x -> 2 * x);
+        assertRule(Dual::sqrt, Math::sqrt, x -> 0.5 / Math.sqrt(x));
+        assertRule(x -> x.subtract(0.5).abs(), x -> Math.abs(x - 0.5), x -> Math.signum(x - 0.5));
+    }
+
+    @Test
+    void followsThePowerRules() {
+        assertRule(x -> x.pow(3), x -> x * x * x, x -> 3 * x * x);
+        assertRule(x -> x.pow(-0.5), x -> 1 / Math.sqrt(x), x -> -0.5 / (x * Math.sqrt(x)));
+        assertRule(x -> x.pow(0), x -> 1, x -> 0);
+        assertRule(x -> x.pow(x), x -> Math.pow(x, x), x -> Math.pow(x, x) * (Math.log(x) + 1));
+        assertRule(x -> Dual.constant(2).pow(x), x -> Math.pow(2, x), x -> Math.pow(2, x) * Math.log(2));
+        // A power that does not vary takes the constant rule, which holds at 0 and below it too.
+        assertEquals(new Dual(-8, 12), Dual.variable(-2).pow(Dual.constant(3)));
+        assertEquals(new Dual(0, 0), Dual.variable(0).pow(Dual.constant(2)));
+    }
+
+    @Test
+    void followsTheChainRule() {
+        assertRule(Dual::exp, Math::exp, Math::exp);
+        assertRule(Dual::log, Math::log, x -> 1 / x);
+        assertRule(Dual::sin, Math::sin, Math::cos);
+        assertRule(Dual::cos, Math::cos, x -> -Math.sin(x));
+        assertRule(Dual::tan, Math::tan, x -> 1 / (Math.cos(x) * Math.cos(x)));
+        assertRule(Dual::asin, Math::asin, x -> 1 / Math.sqrt(1 - x * x));
+        assertRule(Dual::acos, Math::acos, x -> -1 / Math.sqrt(1 - x * x));
+        assertRule(Dual::atan, Math::atan, x -> 1 / (1 + x * x));
+        assertRule(Dual::sinh, Math::sinh, Math::cosh);
+        assertRule(Dual::cosh, Math::cosh, Math::sinh);
+        assertRule(Dual::tanh, Math::tanh, x -> 1 / (Math.cosh(x) * Math.cosh(x)));
+        assertRule(Dual::erf, MoreMath::erf, x -> 2 / Math.sqrt(Math.PI) * Math.exp(-x * x));
+        assertRule(x -> x.multiply(x).sin().exp(), x -> Math.exp(Math.sin(x * x)),
+                x -> Math.exp(Math.sin(x * x)) * Math.cos(x * x) * 2 * x);
+    }
+
+    @Test
+    void holdsConstantsStill() {
+        assertEquals(new Dual(3, 0), Dual.constant(3));
+        assertEquals(new Dual(3, 1), Dual.variable(3));
+        assertEquals(0, Dual.constant(2).exp().sin().derivative());
+        assertEquals(2 * 0.5 + Math.cos(0.5), Dual.derivative(x -> x.multiply(x).add(x.sin()), 0.5));
+    }
+}
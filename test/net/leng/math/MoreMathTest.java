@@ -0,0 +1,150 @@
+package net.leng.math;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntToDoubleFunction;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/** Checks the special functions against values worked out to 120 digits for the exact value of every argument. */
+class MoreMathTest {
+    /** Arguments and erf of them, in every range the approximation treats apart, up to where erf rounds to 1. */
+    private static final double[][] ERF = {
+            {1e-300, 1.1283791670955126e-300},
+            {1e-10, 1.1283791670955126e-10},
+            {0.1, 0.1124629160182849},
+            {0.5, 0.5204998778130465},
+            {0.84375, 0.7672256612323416},
+            {1, 0.8427007929497149},
+            {1.2, 0.9103139782296353},
+            {1.25, 0.9229001282564583},
+            {2, 0.9953222650189527},
+            {3, 0.9999779095030014},
+            {5, 0.9999999999984626},
+            {5.9, 0.9999999999999999},
+            {6, 1},
+    };
+
+    /** Arguments and erfc of them, out to where erfc is a subnormal double. */
+    private static final double[][] ERFC = {
+            {1e-10, 0.999999999887162},
+            {0.1, 0.887537083981715},
+            {0.5, 0.4795001221869535},
+            {0.84375, 0.23277433876765838},
+            {1, 0.15729920705028513},
+            {1.2, 0.08968602177036464},
+            {1.25, 0.07709987174354177},
+            {2, 0.004677734981047266},
+            {3, 2.209049699858544e-05},
+            {5, 1.537459794428035e-12},
+            {5.9, 7.190409783550478e-17},
+            {6, 2.1519736712498913e-17},
+            {10, 2.088487583762545e-45},
+            {20, 5.395865611607901e-176},
+            {26.5, 2.2109076642637343e-307},
+            {27, 5.23705e-319},
+            {-0.5, 1.5204998778130465},
+            {-3, 1.9999779095030015},
+    };
+
+    private static void assertRelative(double expected, double actual, double tolerance) {
+        assertEquals(expected, actual, tolerance * Math.abs(expected), "expected " + expected);
+    }
+
+    @Test
+    void findsErf() {
+        for (double[] row : ERF) {
+            assertRelative(row[1], MoreMath.erf(row[0]), 1e-15);
+            assertEquals(-MoreMath.erf(row[0]), MoreMath.erf(-row[0]));
+        }
+        assertEquals(0, MoreMath.erf(0));
+        assertEquals(1, MoreMath.erf(Double.POSITIVE_INFINITY));
+        assertEquals(-1, MoreMath.erf(Double.NEGATIVE_INFINITY));
+        assertTrue(Double.isNaN(MoreMath.erf(Double.NaN)));
+    }
+
+    @Test
+    void findsErfcFarIntoTheTail() {
+        for (double[] row : ERFC) {
+            assertRelative(row[1], MoreMath.erfc(row[0]), 1e-15);
+        }
+        for (double[] row : ERF) {
+            assertEquals(1, MoreMath.erf(row[0]) + MoreMath.erfc(row[0]), 2 * Math.ulp(1.0));
+        }
+        assertEquals(1, MoreMath.erfc(0));
+        assertEquals(0, MoreMath.erfc(28));
+        assertEquals(2, MoreMath.erfc(-6));
+        assertEquals(0, MoreMath.erfc(Double.POSITIVE_INFINITY));
+        assertEquals(2, MoreMath.erfc(Double.NEGATIVE_INFINITY));
+        assertTrue(Double.isNaN(MoreMath.erfc(Double.NaN)));
+    }
+
+    @Test
+    void sumsAlikeOnEveryPool() {
+        Random random = new Random(23);
+        double[] terms = new double[MoreMath.PARALLEL_THRESHOLD * 5 + 77];
+        for (int i = 0; i < terms.length; i++) terms[i] = random.nextGaussian() * Math.exp(10 * random.nextGaussian());
+        // Ranges that start below 0, one as long as the threshold and one split into several chunks.
+        int start = -1000;
+        for (int end : new int[]{start + MoreMath.PARALLEL_THRESHOLD - 1, start + terms.length - 1}) {
+            IntToDoubleFunction function = i -> terms[i - start];
+            double sum = MoreMath.sum(start, end, function);
+            BigDecimal exact = BigDecimal.ZERO;
+            for (int i = start; i <= end; i++) exact = exact.add(new BigDecimal(function.applyAsDouble(i)));
+            assertEquals(exact.doubleValue(), sum, 2 * Math.ulp(sum));
+            for (int parallelism : new int[]{1, 2, 3, 8}) {
+                ForkJoinPool pool = new ForkJoinPool(parallelism);
+                try {
+                    assertEquals(sum, MoreMath.sumParallel(start, end, function, pool));
+                } finally {
+                    pool.shutdown();
+                }
+            }
+            assertEquals(sum, MoreMath.sumParallel(start, end, function));
+            assertEquals(sum, MoreMath.summation(start, end, function::applyAsDouble));
+        }
+        assertEquals(0, MoreMath.sum(1, 0, i -> 1));
+        assertEquals(0, MoreMath.sumParallel(1, 0, i -> 1));
+    }
+
+    @Test
+    void multipliesPastTheRangeOfADouble() {
+        // The whole product overflows or underflows, but its log does not.
+        assertEquals(Double.POSITIVE_INFINITY, MoreMath.prod(1, 10, i -> 1e300));
+        assertRelative(10 * Math.log(1e300), MoreMath.logProduct(1, 10, i -> 1e300), 1e-15);
+        assertEquals(Double.NEGATIVE_INFINITY, MoreMath.prod(1, 11, i -> -1e300));
+        assertEquals(0, MoreMath.prod(1, 10, i -> 1e-300));
+        assertRelative(-10 * Math.log(1e300), MoreMath.logProduct(1, 10, i -> 1e-300), 1e-15);
+        assertRelative(MoreMath.sum(1, 1000, Math::log), MoreMath.logProduct(1, 1000, i -> i), 1e-15);
+        assertRelative(MoreMath.logGamma(1001), MoreMath.logProduct(1, 1000, i -> i), 1e-14);
+
+        // A product that leaves the range of a double along the way but comes back into it is not lost.
+        BigDecimal exact = BigDecimal.ONE;
+        for (int i = 1; i <= 10; i++) exact = exact.multiply(new BigDecimal(i <= 5 ? 1e300 : -1e-300));
+        assertRelative(exact.doubleValue(), MoreMath.prod(1, 10, i -> i <= 5 ? 1e300 : -1e-300), 1e-15);
+        assertRelative(Combinatorics.bigFactorial(170).doubleValue(), MoreMath.prod(1, 170, i -> i), 1e-14);
+        assertEquals(Double.POSITIVE_INFINITY, MoreMath.prod(1, 171, i -> i));
+        assertRelative(Combinatorics.bigFactorial(170).doubleValue(), MoreMath.prod(-170, -1, i -> i), 1e-14);
+        // Into the subnormals, where the result is rounded once more.
+        assertEquals(1e-200 * 1e-120, MoreMath.prod(0, 1, i -> i == 0 ? 1e-200 : 1e-120), Double.MIN_VALUE);
+    }
+
+    @Test
+    void multipliesZerosAndEmptyRanges() {
+        assertEquals(1, MoreMath.prod(1, 0, i -> 5));
+        assertEquals(1, MoreMath.product(1, 0, i -> 5.0));
+        assertEquals(0, MoreMath.logProduct(1, 0, i -> 5));
+        assertEquals(120, MoreMath.product(1, 5, i -> (double)i));
+        // A 0 wins over an overflow that came before it.
+        assertEquals(0, MoreMath.prod(0, 20, i -> i == 20 ? 0 : 1e300));
+        assertEquals(Double.NEGATIVE_INFINITY, MoreMath.logProduct(0, 20, i -> i == 20 ? 0 : 1e300));
+        assertEquals(Double.NEGATIVE_INFINITY, MoreMath.logProduct(0, 3, i -> i));
+        assertEquals(Double.POSITIVE_INFINITY, MoreMath.logProduct(0, 3, i -> i == 1 ? Double.POSITIVE_INFINITY : 2));
+        assertTrue(Double.isNaN(MoreMath.prod(0, 3, i -> i == 1 ? Double.NaN : 2)));
+        assertTrue(Double.isNaN(MoreMath.prod(0, 1, i -> i == 1 ? Double.POSITIVE_INFINITY : 0)));
+    }
+}
@@ -0,0 +1,138 @@
+package net.leng.math;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.DoubleUnaryOperator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/** Checks integrals with known values over every kind of range, and that the error estimate covers the error. */
+class QuadratureTest {
+    private static void assertIntegral(double expected, Quadrature.Result result) {
+        assertTrue(result.converged(), result.toString());
+        assertEquals(expected, result.value(), 1e-10 * Math.max(1, Math.abs(expected)), result.toString());
+        assertTrue(Math.abs(result.value() - expected) <= result.error() + 4 * Math.ulp(expected), result.toString());
+        assertTrue(result.evaluations() <= Quadrature.DEFAULT_MAX_EVALUATIONS);
+    }
+
+    @Test
+    void integratesSmoothFunctionsInOneRule() {
+        // The 15 point Kronrod rule is exact for polynomials up to degree 22.
+        Quadrature.Result polynomial = Quadrature.integrate(x -> x * x * x * x * x, 0, 2);
+        assertIntegral(64.0 / 6, polynomial);
+        assertEquals(15, polynomial.evaluations());
+        assertIntegral(2, Quadrature.integrate(Math::sin, 0, Math.PI));
+        assertIntegral(Math.E - 1, Quadrature.integrate(Math::exp, 0, 1));
+        assertIntegral(Math.log(3), Quadrature.integrate(x -> 1 / x, 1, 3));
+        // A narrow peak has to be found by halving.
+        Quadrature.Result peak = Quadrature.integrate(x -> 1e-3 / (x * x + 1e-6), -1, 1);
+        assertIntegral(2 * Math.atan(1000), peak);
+        assertTrue(peak.evaluations() > 15);
+    }
+
+    @Test
+    void integratesFunctionsThatBlowUpAtAnEnd() {
+        assertIntegral(2, Quadrature.integrate(x -> 1 / Math.sqrt(x), 0, 1));
+        assertIntegral(-1, Quadrature.integrate(Math::log, 0, 1));
+        // Doubles near 1 are too coarse for the tolerance, so the intervals stop halving short of it, but the nodes
+        // never land on the end and the error estimate still covers the error.
+        Quadrature.Result coarse = Quadrature.integrate(x -> 1 / Math.sqrt(1 - x * x), -1, 1);
+        assertFalse(coarse.converged());
+        assertTrue(Math.abs(coarse.value() - Math.PI) <= coarse.error(), coarse.toString());
+        assertTrue(coarse.error() < 1e-5, coarse.toString());
+    }
+
+    @Test
+    void integratesOverInfiniteRanges() {
+        double inf = Double.POSITIVE_INFINITY;
+        assertIntegral(1, Quadrature.integrate(x -> Math.exp(-x), 0, inf));
+        assertIntegral(1, Quadrature.integrate(x -> 1 / (x * x), 1, inf));
+        assertIntegral(Math.exp(-3), Quadrature.integrate(x -> Math.exp(-x), 3, inf));
+        assertIntegral(1, Quadrature.integrate(Math::exp, -inf, 0));
+        assertIntegral(0.5, Quadrature.integrate(x -> 1 / (x * x), -inf, -2));
+        assertIntegral(Math.sqrt(Math.PI), Quadrature.integrate(x -> Math.exp(-x * x), -inf, inf));
+        assertIntegral(Math.PI, Quadrature.integrate(x -> 1 / (1 + x * x), -inf, inf));
+        // A function that underflows to 0 stays 0, however large the substitution makes its weight.
+        assertIntegral(Math.sqrt(2 * Math.PI), Quadrature.integrate(x -> Math.exp(-x * x / 2), -inf, inf));
+    }
+
+    @Test
+    void negatesReversedRanges() {
+        double inf = Double.POSITIVE_INFINITY;
+        assertIntegral(-2, Quadrature.integrate(Math::sin, Math.PI, 0));
+        assertIntegral(-1, Quadrature.integrate(x -> Math.exp(-x), inf, 0));
+        assertIntegral(-1, Quadrature.integrate(Math::exp, 0, -inf));
+        assertIntegral(-Math.PI, Quadrature.integrate(x -> 1 / (1 + x * x), inf, -inf));
+        DoubleUnaryOperator f = x -> Math.cos(3 * x) + x * x;
+        Quadrature.Result forwards = Quadrature.integrate(f, -0.5, 2);
+        Quadrature.Result backwards = Quadrature.integrate(f, 2, -0.5);
+        assertEquals(-forwards.value(), backwards.value());
+        assertEquals(forwards.error(), backwards.error());
+        assertEquals(forwards.evaluations(), backwards.evaluations());
+    }
+
+    @Test
+    void stopsWhenTheEvaluationsRunOut() {
+        AtomicInteger calls = new AtomicInteger();
+        // No tolerance can be met, so every evaluation allowed is used.
+        Quadrature.Result result = Quadrature.integrate(x -> {
+            calls.incrementAndGet();
+            return Math.sqrt(x);
+        }, 0, 1, 0, 0, 100);
+        assertFalse(result.converged());
+        assertTrue(result.evaluations() <= 100);
+        assertEquals(calls.get(), result.evaluations());
+        assertTrue(Math.abs(result.value() - 2.0 / 3) <= result.error(), result.toString());
+
+        // Nor can an integral that diverges, however many evaluations it gets.
+        Quadrature.Result divergent = Quadrature.integrate(x -> 1 / x, 0, 1);
+        assertFalse(divergent.converged());
+        assertTrue(divergent.evaluations() <= Quadrature.DEFAULT_MAX_EVALUATIONS);
+
+        Quadrature.Result oneRule = Quadrature.integrate(x -> Math.sin(50 * x), 0, 10, 1e-12, 1e-12, 15);
+        assertFalse(oneRule.converged());
+        assertEquals(15, oneRule.evaluations());
+    }
+
+    @Test
+    void givesUpOnFunctionsThatAreNotFinite() {
+        // The middle node of [-1, 1] is 0.
+        Quadrature.Result result = Quadrature.integrate(x -> 1 / x, -1, 1);
+        assertFalse(result.converged());
+        assertFalse(Double.isFinite(result.value()));
+        assertFalse(Quadrature.integrate(x -> x > 0.7 ? Double.NaN : x, 0, 1).converged());
+    }
+
+    @Test
+    void handlesEmptyAndNaNRanges() {
+        AtomicInteger calls = new AtomicInteger();
+        DoubleUnaryOperator f = x -> {
+            calls.incrementAndGet();
+            return x;
+        };
+        for (double[] range : new double[][]{{Double.NaN, 1}, {0, Double.NaN}, {Double.NaN, Double.NaN}}) {
+            Quadrature.Result result = Quadrature.integrate(f, range[0], range[1]);
+            assertTrue(Double.isNaN(result.value()));
+            assertTrue(Double.isNaN(result.error()));
+            assertEquals(0, result.evaluations());
+            assertFalse(result.converged());
+        }
+        Quadrature.Result empty = Quadrature.integrate(f, 3, 3);
+        assertEquals(0, empty.value());
+        assertEquals(0, empty.evaluations());
+        assertTrue(empty.converged());
+        assertEquals(0, calls.get());
+    }
+
+    @Test
+    void rejectsBadArguments() {
+        DoubleUnaryOperator f = Math::sin;
+        assertThrows(IllegalArgumentException.class, () -> Quadrature.integrate(f, 0, 1, -1e-12, 1e-10, 1000));
+        assertThrows(IllegalArgumentException.class, () -> Quadrature.integrate(f, 0, 1, 1e-12, Double.NaN, 1000));
+        assertThrows(IllegalArgumentException.class, () -> Quadrature.integrate(f, 0, 1, 1e-12, 1e-10, 14));
+    }
+}
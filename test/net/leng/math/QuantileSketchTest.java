@@ -0,0 +1,173 @@
+package net.leng.math;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/** Checks the estimated quantiles by the rank they take among the sorted data points, which is what the sketch
+ * bounds, rather than by their values.
+ * */
+class QuantileSketchTest {
+    private static final double[] QS = {0, 1e-4, 1e-3, 0.01, 0.1, 0.25, 0.5, 0.75, 0.9, 0.99, 0.999, 1 - 1e-4, 1};
+
+    /** The rank error the class doc gives for the default compression, with some room to spare. */
+    private static final double RANK_ERROR = 4e-3;
+
+    private static double[] data(Random random, int kind, int n) {
+        double[] vals = new double[n];
+        for (int i = 0; i < n; i++) {
+            vals[i] = switch (kind) {
+                case 0 -> random.nextGaussian();
+                case 1 -> Math.exp(2 * random.nextGaussian());
+                default -> random.nextDouble();
+            };
+        }
+        return vals;
+    }
+
+    /** @return How far, as a fraction of all the points, the rank of the estimate lies from the quantile asked for. */
+    private static double rankError(double[] sorted, double q, double estimate) {
+        int lo = lowerBound(sorted, estimate);
+        int hi = lowerBound(sorted, Math.nextUp(estimate));
+        // Any rank among the points equal to the estimate will do.
+        double rank = Math.min(Math.max(q * sorted.length, lo), hi);
+        return Math.abs(rank / sorted.length - q);
+    }
+
+    private static int lowerBound(double[] sorted, double key) {
+        int i = Arrays.binarySearch(sorted, key);
+        if (i < 0) return -i - 1;
+        while (i > 0 && sorted[i - 1] == key) i--;
+        return i;
+    }
+
+    private static void assertRanksClose(double[] sorted, QuantileSketch sketch) {
+        for (double q : QS) {
+            double estimate = sketch.quantile(q);
+            // On few points a rank is also only as fine as a single point.
+            assertTrue(rankError(sorted, q, estimate) <= RANK_ERROR + 1.0 / sorted.length,
+                    sorted.length + " points, quantile " + q + " estimated as " + estimate);
+        }
+    }
+
+    @Test
+    void estimatesQuantilesWithinTheRankError() {
+        Random random = new Random(81);
+        for (int kind = 0; kind < 3; kind++) {
+            for (int n : new int[]{1, 2, 10, 1000, 1000000}) {
+                double[] vals = data(random, kind, n);
+                QuantileSketch sketch = new QuantileSketch().addAll(vals);
+                double[] sorted = vals.clone();
+                Arrays.sort(sorted);
+                assertEquals(n, sketch.count());
+                assertEquals(sorted[0], sketch.smallest());
+                assertEquals(sorted[n - 1], sketch.largest());
+                // The extreme quantiles are the extremes the sketch keeps, however many points there are.
+                assertEquals(sorted[0], sketch.quantile(0));
+                assertEquals(sorted[n - 1], sketch.quantile(1));
+                if (n > 1) assertRanksClose(sorted, sketch);
+            }
+        }
+    }
+
+    @Test
+    void mergesLikeOneSketch() {
+        Random random = new Random(82);
+        double[] vals = data(random, 1, 200000);
+        double[] sorted = vals.clone();
+        Arrays.sort(sorted);
+        QuantileSketch whole = new QuantileSketch().addAll(vals);
+        QuantileSketch merged = new QuantileSketch();
+        for (int from = 0; from < vals.length; from += 12345) {
+            QuantileSketch shard = new QuantileSketch().addAll(Arrays.copyOfRange(vals, from, Math.min(vals.length, from + 12345)));
+            long count = shard.count();
+            merged.merge(shard);
+            assertEquals(count, shard.count());
+        }
+        assertEquals(whole.count(), merged.count());
+        assertEquals(whole.smallest(), merged.smallest());
+        assertEquals(whole.largest(), merged.largest());
+        assertRanksClose(sorted, merged);
+        for (double q : QS) {
+            assertTrue(Math.abs(rankError(sorted, q, whole.quantile(q)) - rankError(sorted, q, merged.quantile(q)))
+                    <= RANK_ERROR, "quantile " + q);
+        }
+    }
+
+    @Test
+    void mergesWithItself() {
+        Random random = new Random(83);
+        double[] vals = data(random, 0, 50000);
+        double[] doubled = Arrays.copyOf(vals, 2 * vals.length);
+        System.arraycopy(vals, 0, doubled, vals.length, vals.length);
+        Arrays.sort(doubled);
+        QuantileSketch sketch = new QuantileSketch().addAll(vals);
+        sketch.merge(sketch);
+        assertEquals(2 * vals.length, sketch.count());
+        assertRanksClose(doubled, sketch);
+    }
+
+    @Test
+    void readsBackWhatItWrites() {
+        Random random = new Random(84);
+        for (int n : new int[]{0, 1, 7, 100000}) {
+            QuantileSketch sketch = new QuantileSketch(250).addAll(data(random, 1, n));
+            QuantileSketch copy = QuantileSketch.fromBytes(sketch.toBytes());
+            assertEquals(sketch.compression(), copy.compression());
+            assertEquals(sketch.count(), copy.count());
+            assertEquals(sketch.smallest(), copy.smallest());
+            assertEquals(sketch.largest(), copy.largest());
+            for (double q : QS) assertEquals(sketch.quantile(q), copy.quantile(q));
+            assertEquals(sketch.trimmedMean(0.1), copy.trimmedMean(0.1));
+            // A copy goes on taking points like the original.
+            sketch.addAll(1, 2, 3);
+            copy.addAll(1, 2, 3);
+            assertEquals(sketch.median(), copy.median());
+        }
+        byte[] bytes = new QuantileSketch().toBytes();
+        bytes[0] = 99;
+        assertThrows(IllegalArgumentException.class, () -> QuantileSketch.fromBytes(bytes));
+    }
+
+    @Test
+    void reportsNaNWhenEmpty() {
+        QuantileSketch empty = new QuantileSketch();
+        assertEquals(0, empty.count());
+        assertTrue(Double.isNaN(empty.smallest()));
+        assertTrue(Double.isNaN(empty.largest()));
+        assertTrue(Double.isNaN(empty.median()));
+        assertTrue(Double.isNaN(empty.quantile(0)));
+        assertTrue(Double.isNaN(empty.trimmedMean(0.1)));
+        for (double q : empty.quartiles()) assertTrue(Double.isNaN(q));
+        empty.merge(new QuantileSketch());
+        assertEquals(0, empty.count());
+        assertTrue(Double.isNaN(empty.smallest()));
+    }
+
+    @Test
+    void estimatesTrimmedMeansLikeStatistics() {
+        Random random = new Random(85);
+        for (int kind = 0; kind < 3; kind++) {
+            double[] vals = data(random, kind, 100000);
+            QuantileSketch sketch = new QuantileSketch().addAll(vals);
+            double spread = Statistics.stdev(vals);
+            for (double p : new double[]{0, 0.05, 0.1, 0.25, 0.4}) {
+                assertEquals(Statistics.trimmedMean(p, vals), sketch.trimmedMean(p), 1e-3 * spread, "kind " + kind + ", " + p);
+            }
+            assertEquals(Statistics.mean(vals), sketch.trimmedMean(0), 1e-12 * spread);
+        }
+    }
+
+    @Test
+    void rejectsBadArguments() {
+        assertThrows(IllegalArgumentException.class, () -> new QuantileSketch(5));
+        assertThrows(IllegalArgumentException.class, () -> new QuantileSketch().add(Double.NaN));
+        assertThrows(IllegalArgumentException.class, () -> new QuantileSketch().quantile(1.5));
+        assertThrows(IllegalArgumentException.class, () -> new QuantileSketch().trimmedMean(0.5));
+    }
+}
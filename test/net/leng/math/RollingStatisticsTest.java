@@ -0,0 +1,146 @@
+package net.leng.math;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/** Checks every window of a series against {@link Statistics} run over a copy of that window. */
+class RollingStatisticsTest {
+    private static final int[] WINDOWS = {1, 2, 3, 5, 16, 100};
+
+    /** @return Calm noise broken by spikes of many orders of magnitude, runs of one repeated value and ties. */
+    private static double[] spiky(Random random, int n) {
+        double[] vals = new double[n];
+        for (int i = 0; i < n; i++) {
+            int kind = random.nextInt(50);
+            if (kind == 0) vals[i] = (random.nextBoolean() ? 1 : -1) * Math.pow(10, random.nextInt(12));
+            else if (kind < 5 && i > 0) vals[i] = vals[i - 1];
+            else if (kind < 10) vals[i] = random.nextInt(4);
+            else vals[i] = 1000 + random.nextGaussian();
+        }
+        for (int from = n / 3; from < n / 3 + 250 && from < n; from++) vals[from] = 42;
+        return vals;
+    }
+
+    private static double quantile(double[] sorted, double q) {
+        double rank = q * (sorted.length - 1);
+        int lo = (int)rank;
+        if (lo == sorted.length - 1) return sorted[lo];
+        return sorted[lo] + (sorted[lo + 1] - sorted[lo]) * (rank - lo);
+    }
+
+    /** The mean and variance are updated rather than recomputed, so they round relative to the size of the data
+     * points rather than to their spread: the variance of a window of close values far from 0 keeps fewer digits.
+     * */
+    private static void assertClose(double expected, double actual, double scale) {
+        assertEquals(expected, actual, 1e-9 * (Math.abs(expected) + scale));
+    }
+
+    @Test
+    void agreesWithStatisticsOverEveryWindow() {
+        Random random = new Random(91);
+        double[] vals = spiky(random, 3000);
+        for (int window : WINDOWS) {
+            double[] means = RollingStatistics.movingMean(vals, window);
+            double[] variances = RollingStatistics.movingVariance(vals, window);
+            double[] stdevs = RollingStatistics.movingStdev(vals, window);
+            double[] medians = RollingStatistics.movingMedian(vals, window);
+            double[] deciles = RollingStatistics.movingQuantile(vals, window, 0.1);
+            assertEquals(vals.length - window + 1, means.length);
+            RollingStatistics rolling = new RollingStatistics(window);
+            for (int i = 0; i < vals.length; i++) {
+                rolling.push(vals[i]);
+                double[] copy = Arrays.copyOfRange(vals, Math.max(0, i - window + 1), i + 1);
+                assertEquals(copy.length, rolling.count());
+                assertEquals(copy.length == window, rolling.isFull());
+                double mean = Statistics.mean(copy);
+                double variance = Statistics.variance(copy);
+                assertClose(mean, rolling.mean(), Math.sqrt(variance));
+                // A window of equal values may keep a variance of a rounding error rather than 0.
+                assertClose(variance, rolling.variance(), Math.abs(mean) * (Math.sqrt(variance) + Math.ulp(mean)));
+                assertEquals(Statistics.median(copy), rolling.median(), "window " + window + " ending at " + i);
+                Arrays.sort(copy);
+                for (double q : new double[]{0, 0.1, 0.25, 0.9, 1}) {
+                    assertEquals(quantile(copy, q), rolling.quantile(q));
+                }
+                if (i >= window - 1) {
+                    int w = i - window + 1;
+                    assertEquals(rolling.mean(), means[w]);
+                    assertEquals(rolling.variance(), variances[w]);
+                    assertEquals(Math.sqrt(rolling.variance()), stdevs[w]);
+                    assertEquals(rolling.median(), medians[w]);
+                    assertEquals(rolling.quantile(0.1), deciles[w]);
+                }
+            }
+        }
+    }
+
+    @Test
+    void forgetsASpikeOnceItLeaves() {
+        RollingStatistics rolling = new RollingStatistics(10);
+        rolling.push(1e15);
+        for (int i = 0; i < 9; i++) rolling.push(i % 2);
+        assertTrue(rolling.variance() > 1e28);
+        rolling.push(0);
+        double[] calm = {1, 0, 1, 0, 1, 0, 1, 0, 0, 0};
+        assertEquals(Statistics.variance(calm), rolling.variance(), 1e-15);
+        assertEquals(0.4, rolling.mean(), 1e-15);
+        assertEquals(0, rolling.median());
+    }
+
+    @Test
+    void holdsOnePointInAWindowOfOne() {
+        RollingStatistics rolling = new RollingStatistics(1);
+        for (double v : new double[]{3, -7, 1e300, 0}) {
+            rolling.push(v);
+            assertEquals(1, rolling.count());
+            assertEquals(v, rolling.mean());
+            assertEquals(0, rolling.variance());
+            assertEquals(v, rolling.median());
+            assertEquals(v, rolling.quantile(0.3));
+        }
+        double[] vals = {4, 5, 6};
+        assertEquals(Arrays.toString(vals), Arrays.toString(RollingStatistics.movingMedian(vals, 1)));
+        assertEquals(Arrays.toString(new double[3]), Arrays.toString(RollingStatistics.movingVariance(vals, 1)));
+    }
+
+    @Test
+    void givesNothingForASeriesShorterThanTheWindow() {
+        double[] vals = {1, 2, 3};
+        assertEquals(0, RollingStatistics.movingMean(vals, 4).length);
+        assertEquals(0, RollingStatistics.movingStdev(vals, 4).length);
+        assertEquals(0, RollingStatistics.movingMedian(vals, 10).length);
+        assertEquals(0, RollingStatistics.movingQuantile(new double[0], 1, 0.5).length);
+        assertEquals(1, RollingStatistics.movingMean(vals, 3).length);
+
+        RollingStatistics rolling = new RollingStatistics(5);
+        assertTrue(Double.isNaN(rolling.mean()));
+        assertTrue(Double.isNaN(rolling.variance()));
+        assertTrue(Double.isNaN(rolling.median()));
+        assertTrue(Double.isNaN(rolling.quantile(0.5)));
+        rolling.push(1).push(2);
+        assertFalse(rolling.isFull());
+        assertEquals(1.5, rolling.median());
+        assertEquals(0.25, rolling.variance());
+    }
+
+    @Test
+    void rejectsNaNAndBadArguments() {
+        RollingStatistics rolling = new RollingStatistics(3).push(1);
+        assertThrows(IllegalArgumentException.class, () -> rolling.push(Double.NaN));
+        assertEquals(1, rolling.count());
+        assertEquals(1, rolling.mean());
+        assertThrows(IllegalArgumentException.class, () -> RollingStatistics.movingMean(new double[]{1, Double.NaN}, 1));
+        assertThrows(IllegalArgumentException.class, () -> RollingStatistics.movingMedian(new double[]{Double.NaN}, 2));
+        assertThrows(IllegalArgumentException.class, () -> new RollingStatistics(0));
+        assertThrows(IllegalArgumentException.class, () -> RollingStatistics.movingVariance(new double[3], 0));
+        assertThrows(IllegalArgumentException.class, () -> RollingStatistics.movingQuantile(new double[3], 2, -0.1));
+        assertThrows(IllegalArgumentException.class, () -> rolling.quantile(1.1));
+    }
+}
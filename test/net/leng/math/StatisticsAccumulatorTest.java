@@ -0,0 +1,119 @@
+package net.leng.math;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/** Checks that accumulators, alone or merged from shards, agree with {@link Statistics} over the same data. */
+class StatisticsAccumulatorTest {
+    private static double[] data(Random random, int n) {
+        double[] vals = new double[n];
+        for (int i = 0; i < n; i++) vals[i] = 1e6 + random.nextGaussian() * 3;
+        return vals;
+    }
+
+    private static void assertClose(double expected, double actual) {
+        assertEquals(expected, actual, 1e-12 * Math.max(1, Math.abs(expected)));
+    }
+
+    /** Welford's update rounds once per data point, so on data far from 0 it keeps a few digits fewer than the
+     * compensated two-pass variance of {@link Statistics}.
+     * */
+    private static void assertVarianceClose(double expected, double actual) {
+        assertEquals(expected, actual, 1e-9 * expected);
+    }
+
+    @Test
+    void agreesWithStatistics() {
+        Random random = new Random(71);
+        for (int n : new int[]{1, 2, 10, 1000, 100000}) {
+            double[] vals = data(random, n);
+            StatisticsAccumulator acc = new StatisticsAccumulator().addAll(vals);
+            assertEquals(n, acc.count());
+            assertClose(Statistics.mean(vals), acc.mean());
+            assertVarianceClose(Statistics.variance(vals), acc.variance());
+            assertClose(Statistics.sum(vals), acc.sum());
+            assertEquals(Arrays.stream(vals).min().getAsDouble(), acc.smallest());
+            assertEquals(Arrays.stream(vals).max().getAsDouble(), acc.largest());
+            if (n > 1) assertClose(acc.variance() * n / (n - 1), acc.sampleVariance());
+        }
+    }
+
+    @Test
+    void mergesShardsLikeOneAccumulator() {
+        Random random = new Random(72);
+        double[] vals = data(random, 50000);
+        StatisticsAccumulator whole = new StatisticsAccumulator().addAll(vals);
+        for (int shards : new int[]{2, 7, 64}) {
+            StatisticsAccumulator merged = new StatisticsAccumulator();
+            int from = 0;
+            for (int s = 0; s < shards; s++) {
+                // Uneven shards, some of them empty.
+                int to = s == shards - 1 ? vals.length : Math.min(vals.length, from + random.nextInt(2 * vals.length / shards));
+                StatisticsAccumulator shard = new StatisticsAccumulator().addAll(Arrays.copyOfRange(vals, from, to));
+                assertSame(merged, merged.merge(shard));
+                from = to;
+            }
+            assertEquals(whole.count(), merged.count());
+            assertClose(whole.mean(), merged.mean());
+            assertVarianceClose(whole.variance(), merged.variance());
+            assertClose(whole.sum(), merged.sum());
+            assertEquals(whole.smallest(), merged.smallest());
+            assertEquals(whole.largest(), merged.largest());
+            assertVarianceClose(Statistics.variance(vals), merged.variance());
+        }
+    }
+
+    @Test
+    void mergesIntoAndFromEmptyAccumulators() {
+        StatisticsAccumulator filled = new StatisticsAccumulator().addAll(1, 2, 3, 4);
+        StatisticsAccumulator empty = new StatisticsAccumulator().merge(filled);
+        assertEquals(4, empty.count());
+        assertEquals(2.5, empty.mean());
+        assertEquals(1.25, empty.variance());
+        assertEquals(10, empty.sum());
+        assertEquals(1, empty.smallest());
+        assertEquals(4, empty.largest());
+        filled.merge(new StatisticsAccumulator());
+        assertEquals(4, filled.count());
+        assertEquals(1.25, filled.variance());
+        // The accumulator merged from is left untouched.
+        empty.add(100);
+        assertEquals(4, filled.count());
+    }
+
+    @Test
+    void reportsNaNWhenEmpty() {
+        StatisticsAccumulator empty = new StatisticsAccumulator();
+        assertEquals(0, empty.count());
+        assertEquals(0, empty.sum());
+        assertTrue(Double.isNaN(empty.mean()));
+        assertTrue(Double.isNaN(empty.variance()));
+        assertTrue(Double.isNaN(empty.stdev()));
+        assertTrue(Double.isNaN(empty.smallest()));
+        assertTrue(Double.isNaN(empty.largest()));
+        assertTrue(Double.isNaN(empty.range()));
+        StatisticsAccumulator one = new StatisticsAccumulator().add(3);
+        assertEquals(0, one.variance());
+        assertTrue(Double.isNaN(one.sampleVariance()));
+    }
+
+    @Test
+    void propagatesNaN() {
+        StatisticsAccumulator acc = new StatisticsAccumulator().addAll(1, Double.NaN, 3);
+        assertTrue(Double.isNaN(acc.mean()));
+        assertTrue(Double.isNaN(acc.variance()));
+        assertTrue(Double.isNaN(acc.smallest()));
+        assertTrue(Double.isNaN(acc.largest()));
+        StatisticsAccumulator clean = new StatisticsAccumulator().addAll(1, 2);
+        clean.merge(new StatisticsAccumulator().add(Double.NaN));
+        assertTrue(Double.isNaN(clean.smallest()));
+        assertTrue(Double.isNaN(clean.largest()));
+        assertTrue(Double.isNaN(clean.mean()));
+    }
+}
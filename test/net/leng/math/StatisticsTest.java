@@ -0,0 +1,463 @@
+package net.leng.math;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.MathContext;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/** Checks the statistics against definitions worked out on a sorted copy, or on exact arithmetic. */
+class StatisticsTest {
+    @TempDir
+    Path dir;
+
+    private static double median(double[] sorted, int from, int to) {
+        int n = to - from;
+        int mid = from + n / 2;
+        return (n & 1) == 1 ? sorted[mid] : (sorted[mid - 1] + sorted[mid]) / 2;
+    }
+
+    /** @return q1, the median and q3, where q1 and q3 are the medians of the lower and upper halves. */
+    private static double[] expectedQuartiles(double[] vals) {
+        double[] s = vals.clone();
+        Arrays.sort(s);
+        int n = s.length;
+        if (n == 1) return new double[]{s[0], s[0], s[0]};
+        return new double[]{median(s, 0, n / 2), median(s, 0, n), median(s, n - n / 2, n)};
+    }
+
+    private static double[] ascending(int n) {
+        double[] vals = new double[n];
+        for (int i = 0; i < n; i++) vals[i] = i + 1;
+        return vals;
+    }
+
+    @Test
+    void takesQ3FromTheUpperHalf() {
+        assertArrayEquals(new double[]{5, 5, 5}, Statistics.quartiles(5));
+        assertArrayEquals(new double[]{5, 5.5, 6}, Statistics.quartiles(5, 6));
+        assertArrayEquals(new double[]{5, 6, 7}, Statistics.quartiles(7, 6, 5));
+        assertArrayEquals(new double[]{1.5, 2.5, 3.5}, Statistics.quartiles(ascending(4)));
+        assertArrayEquals(new double[]{2, 4, 6}, Statistics.quartiles(ascending(7)));
+        assertArrayEquals(new double[]{3, 5.5, 8}, Statistics.quartiles(ascending(10)));
+    }
+
+    @Test
+    void findsQuartilesOfEveryLength() {
+        Random random = new Random(31);
+        for (int n = 1; n <= 300; n++) {
+            double[] vals = new double[n];
+            for (int i = 0; i < n; i++) vals[i] = random.nextInt(n);
+            double[] copy = vals.clone();
+            assertArrayEquals(expectedQuartiles(vals), Statistics.quartiles(vals), "length " + n);
+            assertArrayEquals(copy, vals);
+            double[] s = vals.clone();
+            Arrays.sort(s);
+            assertEquals(median(s, 0, n), Statistics.median(vals));
+        }
+        assertThrows(IllegalArgumentException.class, () -> Statistics.quartiles());
+    }
+
+    @Test
+    void readsQuartilesOffASortedFile() throws IOException {
+        Random random = new Random(33);
+        for (int n = 1; n <= 40; n++) {
+            double[] vals = new double[n];
+            for (int i = 0; i < n; i++) vals[i] = random.nextInt(20);
+            Arrays.sort(vals);
+            ByteBuffer buffer = ByteBuffer.allocate(n * Double.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            for (double v : vals) buffer.putDouble(v);
+            Path file = dir.resolve("column" + n);
+            Files.write(file, buffer.array());
+            assertArrayEquals(Statistics.quartiles(vals), Statistics.sortedFileQuartiles(file), "length " + n);
+            assertEquals(Statistics.median(vals), Statistics.sortedFileMedian(file));
+        }
+    }
+
+    @Test
+    void trimsTheSmallestAndLargestValues() {
+        double[] vals = {100, 1, 2, 3, 4, 5, 6, 7, 8, -100};
+        assertEquals(4.5, Statistics.trimmedMean(0.1, vals));
+        assertEquals(4.5, Statistics.trimmedMean(0.2, vals));
+        assertEquals(Arrays.stream(vals).sum() / vals.length, Statistics.trimmedMean(0, vals));
+        double[] cancelling = {1e17, 1, -1e17, 3, 1e17, -1e17};
+        assertEquals(4.0 / 6, Statistics.trimmedMean(0, cancelling));
+    }
+
+    @Test
+    void describesFewValues() {
+        Statistics.Summary one = Statistics.describe(new double[]{5});
+        assertEquals(1, one.count());
+        assertEquals(5, one.q1());
+        assertEquals(5, one.median());
+        assertEquals(5, one.q3());
+        assertEquals(5, one.trimmedMean());
+        assertEquals(0, one.iqr());
+        assertEquals(1, Statistics.describe(new double[]{5, 6}).iqr());
+        assertEquals(2, Statistics.describe(new double[]{5, 6, 7}).iqr());
+        assertThrows(IllegalArgumentException.class, () -> Statistics.describe(new double[0]));
+    }
+
+    @Test
+    void describesLikeTheSeparateMeasures() {
+        Random random = new Random(32);
+        for (int n = 1; n <= 200; n++) {
+            double[] vals = new double[n];
+            for (int i = 0; i < n; i++) vals[i] = random.nextGaussian() * 100;
+            double[] copy = vals.clone();
+            Statistics.Summary summary = Statistics.describe(vals, 0.1);
+            assertArrayEquals(copy, vals);
+            double[] quartiles = expectedQuartiles(vals);
+            assertEquals(n, summary.count());
+            assertEquals(quartiles[0], summary.q1());
+            assertEquals(quartiles[1], summary.median());
+            assertEquals(quartiles[2], summary.q3());
+            assertEquals(Statistics.trimmedMean(0.1, vals), summary.trimmedMean());
+            assertEquals(Arrays.stream(vals).min().getAsDouble(), summary.min());
+            assertEquals(Arrays.stream(vals).max().getAsDouble(), summary.max());
+            assertEquals(Statistics.mean(vals), summary.mean(), 1e-12 * (1 + Math.abs(summary.mean())));
+        }
+    }
+
+    @Test
+    void reducesAlikeOnEveryPool() {
+        Random random = new Random(34);
+        int n = Statistics.PARALLEL_THRESHOLD * 7 + 123;
+        double[] a = new double[n];
+        double[] b = new double[n];
+        for (int i = 0; i < n; i++) {
+            a[i] = random.nextGaussian() * Math.exp(10 * random.nextGaussian());
+            b[i] = a[i] * 0.5 + random.nextGaussian();
+        }
+        double sum = Statistics.sum(a);
+        double mean = Statistics.mean(a);
+        double variance = Statistics.variance(a);
+        double stdev = Statistics.stdev(a);
+        double r = Statistics.correlationCoefficient(a, b);
+        for (int parallelism : new int[]{1, 2, 3, 8}) {
+            ForkJoinPool pool = new ForkJoinPool(parallelism);
+            try {
+                assertEquals(sum, Statistics.sumParallel(a, pool));
+                assertEquals(mean, Statistics.meanParallel(a, pool));
+                assertEquals(variance, Statistics.varianceParallel(a, pool));
+                assertEquals(stdev, Statistics.stdevParallel(a, pool));
+                assertEquals(r, Statistics.correlationCoefficientParallel(a, b, pool));
+            } finally {
+                pool.shutdown();
+            }
+        }
+        assertEquals(variance, Statistics.varianceParallel(a));
+        assertEquals(r, Statistics.correlationCoefficientParallel(a, b));
+    }
+
+    @Test
+    void keepsPrecisionFarFromZero() {
+        Random random = new Random(35);
+        int n = 100000;
+        double[] a = new double[n];
+        double[] b = new double[n];
+        for (int i = 0; i < n; i++) {
+            a[i] = 1e9 + random.nextGaussian() * 1e-2;
+            b[i] = -3e8 + (a[i] - 1e9) + random.nextGaussian() * 1e-2;
+        }
+        // Worked out exactly on the values as they were rounded to doubles.
+        MathContext context = MathContext.DECIMAL128;
+        BigDecimal count = BigDecimal.valueOf(n);
+        BigDecimal aMean = exactSum(a).divide(count, context);
+        BigDecimal bMean = exactSum(b).divide(count, context);
+        BigDecimal sxx = BigDecimal.ZERO, syy = BigDecimal.ZERO, sxy = BigDecimal.ZERO;
+        for (int i = 0; i < n; i++) {
+            BigDecimal dx = new BigDecimal(a[i]).subtract(aMean);
+            BigDecimal dy = new BigDecimal(b[i]).subtract(bMean);
+            sxx = sxx.add(dx.multiply(dx));
+            syy = syy.add(dy.multiply(dy));
+            sxy = sxy.add(dx.multiply(dy));
+        }
+        double variance = sxx.divide(count, context).doubleValue();
+        double r = sxy.divide(sxx.multiply(syy).sqrt(context), context).doubleValue();
+        double sum = exactSum(a).doubleValue();
+        assertEquals(sum, Statistics.sum(a), Math.ulp(sum));
+        assertEquals(aMean.doubleValue(), Statistics.mean(a), Math.ulp(1e9));
+        assertEquals(variance, Statistics.variance(a), 1e-14 * variance);
+        assertEquals(r, Statistics.correlationCoefficient(a, b), 1e-14);
+    }
+
+    private static BigDecimal exactSum(double[] vals) {
+        BigDecimal sum = BigDecimal.ZERO;
+        for (double v : vals) sum = sum.add(new BigDecimal(v));
+        return sum;
+    }
+
+    @Test
+    void findsKnownSpreadsAndCorrelations() {
+        double[] vals = {2, 4, 4, 4, 5, 5, 7, 9};
+        assertEquals(5, Statistics.mean(vals));
+        assertEquals(4, Statistics.variance(vals));
+        assertEquals(2, Statistics.stdev(vals));
+        assertEquals(0, Statistics.variance(7));
+        double[] x = {1, 2, 3, 4, 5};
+        assertEquals(Math.sqrt(0.6), Statistics.correlationCoefficient(x, new double[]{2, 4, 5, 4, 5}), 1e-15);
+        assertEquals(1, Statistics.correlationCoefficient(x, new double[]{4, 7, 10, 13, 16}), 1e-15);
+        assertEquals(-1, Statistics.correlationCoefficient(x, new double[]{-1, -2, -3, -4, -5}), 1e-15);
+        assertEquals(0, Statistics.correlationCoefficient(x, new double[]{1, -1, 0, -1, 1}), 1e-15);
+        assertThrows(IllegalArgumentException.class, () -> Statistics.correlationCoefficient(x, new double[4]));
+    }
+
+    /** Standard normal outcomes and the probability of an outcome no greater, worked out to 120 digits. */
+    private static final double[][] PHI = {
+            {-38, 2.88542835e-316},
+            {-37.5, 4.605353009581955e-308},
+            {-20, 2.7536241186062337e-89},
+            {-8, 6.220960574271784e-16},
+            {-1, 0.15865525393145705},
+            {-0x1p-10, 0.4996104079912195},
+            {0, 0.5},
+            {1.5, 0.9331927987311419},
+            {8, 0.9999999999999993},
+    };
+
+    /** Probabilities and the standard normal outcomes they are the probability of, worked out to 120 digits. */
+    private static final double[][] INVERSE_PHI = {
+            {1e-300, -37.0470962993612},
+            {1e-100, -21.273453560965326},
+            {1e-10, -6.361340902404057},
+            {0.025, -1.9599639845400543},
+            {0.3, -0.5244005127080408},
+            {0.5, 0},
+            {0.975, 1.9599639845400538},
+    };
+
+    @Test
+    void findsNormalProbabilitiesFarIntoTheTails() {
+        for (double[] row : PHI) {
+            double x = row[0];
+            double p = row[1];
+            double tolerance = 1e-15 * p;
+            assertEquals(p, Statistics.normalCdf(0, 1, x), tolerance, "x = " + x);
+            assertEquals(p, Statistics.normalSf(0, 1, -x), tolerance, "x = " + x);
+            // Exactly the same outcomes measured in other units, some of them far from 0.
+            assertEquals(p, Statistics.normalCdf(3, 2, 3 + 2 * x), tolerance, "x = " + x);
+            assertEquals(p, Statistics.normalSf(-1024, 0.125, -1024 - 0.125 * x), tolerance, "x = " + x);
+        }
+        assertEquals(2.7536241153269555e-89, Statistics.normalCdf(0, 1, -21, -20), 1e-15 * 2.7536241153269555e-89);
+        assertEquals(2.7536241153269555e-89, Statistics.normalCdf(0, 1, 20, 21), 1e-15 * 2.7536241153269555e-89);
+        assertEquals(0.6826894921370859, Statistics.normalCdf(0, 1, -1, 1), 1e-15);
+        assertEquals(0, Statistics.normalCdf(0, 1, Double.NEGATIVE_INFINITY));
+        assertEquals(1, Statistics.normalCdf(0, 1, Double.POSITIVE_INFINITY));
+    }
+
+    @Test
+    void invertsTheNormalCdf() {
+        for (double[] row : INVERSE_PHI) {
+            double p = row[0];
+            double x = row[1];
+            assertEquals(x, Statistics.normalInverseCdf(0, 1, p), 1e-15 * Math.abs(x), "p = " + p);
+            assertEquals(10 + 4 * x, Statistics.normalInverseCdf(10, 4, p), 1e-15 * (10 + 4 * Math.abs(x)), "p = " + p);
+        }
+        assertEquals(Double.NEGATIVE_INFINITY, Statistics.normalInverseCdf(0, 1, 0));
+        assertEquals(Double.POSITIVE_INFINITY, Statistics.normalInverseCdf(0, 1, 1));
+        assertThrows(IllegalArgumentException.class, () -> Statistics.normalInverseCdf(0, 1, 1.5));
+        assertThrows(IllegalArgumentException.class, () -> Statistics.normalInverseCdf(0, 1, Double.NaN));
+
+        Random random = new Random(36);
+        for (int i = 0; i < 10000; i++) {
+            double p = Math.pow(10, -300 * random.nextDouble());
+            double x = Statistics.normalInverseCdf(0, 1, p);
+            // The cdf magnifies the error of x by about x^2 relative to p.
+            assertEquals(p, Statistics.normalCdf(0, 1, x), 2e-15 * (1 + x * x) * p, "p = " + p);
+            assertEquals(p, Statistics.normalSf(0, 1, -x), 2e-15 * (1 + x * x) * p, "p = " + p);
+            double y = -37 * random.nextDouble();
+            assertEquals(y, Statistics.normalInverseCdf(0, 1, Statistics.normalCdf(0, 1, y)), 1e-15 * Math.max(1, -y));
+        }
+    }
+
+    @Test
+    void findsNormalProbabilitiesOfWholeArrays() {
+        Random random = new Random(37);
+        double[] x = new double[1000];
+        for (int i = 0; i < x.length; i++) x[i] = random.nextGaussian() * 10;
+        double[] cdf = new double[x.length];
+        double[] sf = new double[x.length];
+        Statistics.normalCdf(2, 3, x, cdf);
+        Statistics.normalSf(2, 3, x, sf);
+        double[] inverse = new double[x.length];
+        Statistics.normalInverseCdf(2, 3, cdf, inverse);
+        for (int i = 0; i < x.length; i++) {
+            assertEquals(Statistics.normalCdf(2, 3, x[i]), cdf[i]);
+            assertEquals(Statistics.normalSf(2, 3, x[i]), sf[i]);
+            assertEquals(Statistics.normalInverseCdf(2, 3, cdf[i]), inverse[i]);
+        }
+        // Written over their input.
+        double[] inPlace = x.clone();
+        Statistics.normalCdf(2, 3, inPlace, inPlace);
+        assertArrayEquals(cdf, inPlace);
+        Statistics.normalInverseCdf(2, 3, inPlace, inPlace);
+        assertArrayEquals(inverse, inPlace);
+        assertThrows(IllegalArgumentException.class, () -> Statistics.normalCdf(0, 1, new double[2], new double[3]));
+        assertThrows(IllegalArgumentException.class, () -> Statistics.normalSf(0, 1, new double[2], new double[1]));
+        assertThrows(IllegalArgumentException.class,
+                () -> Statistics.normalInverseCdf(0, 1, new double[2], new double[1]));
+    }
+
+    private static final MathContext DIGITS = new MathContext(40);
+
+    /** A probability found from its logarithm keeps the relative error of a few ulps of that logarithm, and one
+     * found as 1 minus a sum keeps an absolute error of a few ulps of 1.
+     * */
+    private static void assertProbability(double expected, double actual, String where) {
+        double tolerance = expected <= 0.5 ? 1e-14 * (1 - Math.log(expected)) * expected : 4 * Math.ulp(1.0);
+        assertEquals(expected, actual, tolerance, where);
+    }
+
+    @Test
+    void findsBinomialProbabilitiesExactly() {
+        for (int n : new int[]{1, 2, 7, 50, 51, 120, 400}) {
+            for (double p : new double[]{0.5, 0.3, 0.01, 0.001, 0.999, 1e-5}) {
+                // Summed exactly on p as it was rounded to a double, with 1 - p worked out exactly.
+                BigDecimal success = new BigDecimal(p);
+                BigDecimal failure = BigDecimal.ONE.subtract(success);
+                BigInteger choose = BigInteger.ONE;
+                BigDecimal cdf = BigDecimal.ZERO;
+                for (int x = 0; x <= n; x++) {
+                    BigDecimal pmf = new BigDecimal(choose).multiply(success.pow(x, DIGITS)).multiply(failure.pow(n - x, DIGITS), DIGITS);
+                    cdf = cdf.add(pmf, DIGITS);
+                    choose = choose.multiply(BigInteger.valueOf(n - x)).divide(BigInteger.valueOf(x + 1));
+                    String where = "n = " + n + ", p = " + p + ", x = " + x;
+                    double expected = pmf.doubleValue();
+                    if (expected >= 1e-240) {
+                        assertProbability(expected, Statistics.binomialPdf(n, p, x), where);
+                        assertEquals(Math.log(expected), Statistics.binomialLogPmf(n, p, x),
+                                5e-15 * (1 - Math.log(expected)), where);
+                    }
+                    if (cdf.doubleValue() >= 1e-240) assertProbability(cdf.doubleValue(), Statistics.binomialCdf(n, p, x), where);
+                }
+            }
+        }
+        // Small cases come out exact.
+        assertEquals(252.0 / 1024, Statistics.binomialPdf(10, 0.5, 5));
+        assertEquals(0.5, Statistics.binomialCdf(9, 0.5, 4));
+    }
+
+    /** Trials, p, an outcome and the probability of one no greater, from the continued fraction's side of the
+     * switch, summed exactly.
+     * */
+    private static final double[][] BINOMIAL_CDF = {
+            {1048576, 0.5, 523776, 0.15889166888529888},
+            {1048576, 0.5, 524544, 0.6918061805957544},
+            {1048576, 0.1, 102400, 5.035602009010345e-16},
+            {1048576, 1e-5, 7, 0.1796065726222238},
+            {1048576, 0.9999, 1048476, 0.6954459806748203},
+            {100000000, 1e-5, 976, 0.22941143441870232},
+            {100000000, 3e-6, 248, 0.001124408335368009},
+            {100000000, 0.001, 99051, 0.0013272401692949241},
+            {2147483647, 3e-9, 3, 0.11587161073190261},
+            {2147483647, 1e-7, 170, 8.998604409172062e-4},
+    };
+
+    @Test
+    void findsBinomialProbabilitiesOfMillionsOfTrials() {
+        for (double[] row : BINOMIAL_CDF) {
+            int n = (int)row[0];
+            double p = row[1];
+            int x = (int)row[2];
+            assertProbability(row[3], Statistics.binomialCdf(n, p, x), "n = " + n + ", p = " + p + ", x = " + x);
+        }
+    }
+
+    @Test
+    void joinsTheContinuedFractionWhereItTakesOverFromTheSum() {
+        // One trial more takes x out of reach with probability p: cdf(n, x) = cdf(n - 1, x) - p pmf(n - 1, x).
+        int n = 1 << 20;
+        for (double p : new double[]{0.5, 0.3, 0.01, 1e-3, 1e-5, 0.9999}) {
+            double mean = (n - 1) * p;
+            double stdev = Math.sqrt(mean * (1 - p));
+            for (double z = -30; z <= 30; z += 0.25) {
+                int x = (int)Math.floor(mean + z * stdev);
+                if (x < 0 || x >= n - 1) continue;
+                double expected = Statistics.binomialCdf(n - 1, p, x) - p * Statistics.binomialPdf(n - 1, p, x);
+                if (expected < Double.MIN_NORMAL) continue;
+                double tolerance = expected <= 0.5 ? 1e-14 * (1 - Math.log(expected)) * expected : 1e-13;
+                assertEquals(expected, Statistics.binomialCdf(n, p, x), tolerance, "p = " + p + ", x = " + x);
+            }
+        }
+    }
+
+    @Test
+    void findsBinomialProbabilitiesAtTheEdges() {
+        for (int n : new int[]{0, 1, 10, 2000, 1 << 21}) {
+            String where = n + " trials";
+            assertEquals(1, Statistics.binomialPdf(n, 0, 0), where);
+            assertEquals(1, Statistics.binomialPdf(n, 1, n), where);
+            assertEquals(0, Statistics.binomialLogPmf(n, 0, 0), where);
+            assertEquals(0, Statistics.binomialLogPmf(n, 1, n), where);
+            assertEquals(1, Statistics.binomialCdf(n, 0, 0), where);
+            assertEquals(1, Statistics.binomialCdf(n, 1, n), where);
+            assertEquals(1, Statistics.binomialCdf(n, 0.3, n), where);
+            assertEquals(0, Statistics.binomialPdf(n, 0.3, -1), where);
+            assertEquals(0, Statistics.binomialPdf(n, 0.3, n + 1), where);
+            assertEquals(Double.NEGATIVE_INFINITY, Statistics.binomialLogPmf(n, 0.3, n + 1), where);
+            assertEquals(0, Statistics.binomialCdf(n, 0.3, -1), where);
+            if (n == 0) continue;
+            assertEquals(0, Statistics.binomialPdf(n, 0, 1), where);
+            assertEquals(0, Statistics.binomialPdf(n, 1, n - 1), where);
+            assertEquals(Double.NEGATIVE_INFINITY, Statistics.binomialLogPmf(n, 0, n), where);
+            assertEquals(Double.NEGATIVE_INFINITY, Statistics.binomialLogPmf(n, 1, 0), where);
+            assertEquals(0, Statistics.binomialCdf(n, 1, n - 1), where);
+            // No successes and nothing but successes, down to where their probabilities underflow.
+            assertEquals(n * Math.log(0.5), Statistics.binomialLogPmf(n, 0.5, 0), 1e-15 * n, where);
+            assertEquals(n * Math.log(0.25), Statistics.binomialLogPmf(n, 0.25, n), 1e-15 * n, where);
+            assertEquals(Math.pow(0.5, n), Statistics.binomialPdf(n, 0.5, n), 1e-15 * Math.pow(0.5, n), where);
+            assertEquals(Math.pow(0.5, n), Statistics.binomialCdf(n, 0.5, 0), 1e-14 * Math.pow(0.5, n), where);
+            assertEquals(n * Math.log1p(-1e-9), Statistics.binomialLogPmf(n, 1e-9, 0), 1e-15 * n * 1e-9, where);
+        }
+        assertThrows(IllegalArgumentException.class, () -> Statistics.binomialPdf(-1, 0.5, 0));
+        assertThrows(IllegalArgumentException.class, () -> Statistics.binomialPdf(10, 1.5, 3));
+        assertThrows(IllegalArgumentException.class, () -> Statistics.binomialLogPmf(10, -0.1, 3));
+        assertThrows(IllegalArgumentException.class, () -> Statistics.binomialCdf(10, Double.NaN, 3));
+        assertThrows(IllegalArgumentException.class, () -> Statistics.binomialCdf(1 << 21, Double.NaN, 3));
+    }
+
+    @Test
+    void findsGeometricProbabilitiesExactly() {
+        for (double p : new double[]{0.5, 0.3, 0.1, 1e-3, 1e-10, 0.999, 1}) {
+            BigDecimal success = new BigDecimal(p);
+            BigDecimal failure = BigDecimal.ONE.subtract(success);
+            for (int x : new int[]{1, 2, 3, 10, 100, 10000, 1000000, 100000000}) {
+                String where = "p = " + p + ", x = " + x;
+                double pmf = success.multiply(failure.pow(x - 1, DIGITS), DIGITS).doubleValue();
+                double cdf = BigDecimal.ONE.subtract(failure.pow(x, DIGITS), DIGITS).doubleValue();
+                if (pmf >= 1e-240) {
+                    assertProbability(pmf, Statistics.geometricPdf(p, x), where);
+                    assertEquals(Math.log(pmf), Statistics.geometricLogPmf(p, x), 5e-15 * (1 - Math.log(pmf)), where);
+                } else {
+                    assertTrue(Statistics.geometricLogPmf(p, x) < Math.log(1e-240), where);
+                }
+                assertProbability(cdf, Statistics.geometricCdf(p, x), where);
+            }
+        }
+        assertEquals(0.125, Statistics.geometricPdf(0.5, 3));
+        assertEquals(0.875, Statistics.geometricCdf(0.5, 3));
+        assertEquals(0, Statistics.geometricPdf(0.5, 0));
+        assertEquals(Double.NEGATIVE_INFINITY, Statistics.geometricLogPmf(0.5, 0));
+        assertEquals(0, Statistics.geometricCdf(0.5, 0));
+        assertEquals(0, Statistics.geometricPdf(1, 2));
+        assertEquals(1, Statistics.geometricCdf(1, 2));
+        assertThrows(IllegalArgumentException.class, () -> Statistics.geometricPdf(0, 3));
+        assertThrows(IllegalArgumentException.class, () -> Statistics.geometricLogPmf(1.5, 3));
+        assertThrows(IllegalArgumentException.class, () -> Statistics.geometricCdf(Double.NaN, 3));
+    }
+}
@@ -0,0 +1,51 @@
+package net.leng.math.solver;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntFunction;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/** Checks that a batch comes back in order and the same on every pool as on the calling thread. */
+class BatchSolverTest {
+    /** Problem i finds the cube root of i, by a method that depends on i. */
+    private static final IntFunction<Solution> CUBE_ROOTS = i -> switch (i % 4) {
+        case 0 -> RootFinder.brent(x -> x * x * x - i, -1, i + 1);
+        case 1 -> RootFinder.newton(x -> x * x * x - i, x -> 3 * x * x, -1, i + 1);
+        case 2 -> RootFinder.illinois(x -> x * x * x - i, -1, i + 1);
+        default -> Minimizer.brent(x -> Math.abs(x * x * x - i), -1, i + 1);
+    };
+
+    @Test
+    void solvesInOrderOnEveryPool() {
+        int count = 5000;
+        Solution[] expected = new Solution[count];
+        for (int i = 0; i < count; i++) expected[i] = CUBE_ROOTS.apply(i);
+        for (int i = 0; i < count; i++) assertEquals(Math.cbrt(i), expected[i].x(), 1e-6 * Math.max(1, Math.cbrt(i)));
+        assertArrayEquals(expected, BatchSolver.solve(count, CUBE_ROOTS, null));
+        assertArrayEquals(expected, BatchSolver.solve(count, CUBE_ROOTS));
+        for (int parallelism : new int[]{1, 2, 3, 8}) {
+            ForkJoinPool pool = new ForkJoinPool(parallelism);
+            try {
+                assertArrayEquals(expected, BatchSolver.solve(count, CUBE_ROOTS, pool));
+                // Counts that do not split evenly, and one batch or less.
+                for (int n : new int[]{0, 1, BatchSolver.BATCH, BatchSolver.BATCH + 1, 1001}) {
+                    Solution[] solutions = BatchSolver.solve(n, CUBE_ROOTS, pool);
+                    assertEquals(n, solutions.length);
+                    for (int i = 0; i < n; i++) assertEquals(expected[i], solutions[i]);
+                }
+            } finally {
+                pool.shutdown();
+            }
+        }
+    }
+
+    @Test
+    void rejectsNegativeCounts() {
+        assertThrows(IllegalArgumentException.class, () -> BatchSolver.solve(-1, CUBE_ROOTS));
+        assertThrows(IllegalArgumentException.class, () -> BatchSolver.solve(-1, CUBE_ROOTS, null));
+    }
+}
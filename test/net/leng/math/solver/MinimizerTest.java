@@ -0,0 +1,93 @@
+package net.leng.math.solver;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.function.DoubleUnaryOperator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/** Checks both methods on smooth, kinked and monotonic functions, to the square root of the machine epsilon. */
+class MinimizerTest {
+    /** A way of finding a minimum in an interval with the given tolerance and iterations. */
+    private interface Method {
+        Solution solve(DoubleUnaryOperator function, double a, double b, double tolerance, int maxIterations);
+    }
+
+    private static final List<Method> METHODS = List.of(Minimizer::goldenSection, Minimizer::brent);
+
+    private static void assertMinimum(double expected, double value, Solution solution) {
+        assertTrue(solution.converged(), solution.toString());
+        // The function is flat to rounding within about sqrt(epsilon) of the minimum.
+        assertEquals(expected, solution.x(), 1e-7 * Math.max(1, Math.abs(expected)), solution.toString());
+        assertEquals(value, solution.value(), 1e-14 * Math.max(1, Math.abs(value)), solution.toString());
+        assertTrue(solution.lower() <= solution.x() && solution.x() <= solution.upper(), solution.toString());
+    }
+
+    @Test
+    void findsMinimaOfSmoothFunctions() {
+        for (Method method : METHODS) {
+            assertMinimum(2, 1, method.solve(x -> (x - 2) * (x - 2) + 1, 0, 5, 1e-10, 200));
+            assertMinimum(Math.PI, -1, method.solve(Math::cos, 2, 5, 1e-10, 200));
+            assertMinimum(Math.log(2), 2 - 2 * Math.log(2), method.solve(x -> Math.exp(x) - 2 * x, -3, 3, 1e-10, 200));
+            assertMinimum(1000, 0, method.solve(x -> Math.pow(x / 1000 - 1, 2), 0, 5000, 1e-10, 200));
+        }
+        assertMinimum(2, 1, Minimizer.goldenSection(x -> (x - 2) * (x - 2) + 1, 0, 5));
+        assertMinimum(2, 1, Minimizer.brent(x -> (x - 2) * (x - 2) + 1, 0, 5));
+        // Parabolic steps find the minimum of a smooth function in far fewer evaluations than golden sections do.
+        DoubleUnaryOperator smooth = x -> Math.cosh(x - 0.3);
+        assertTrue(Minimizer.brent(smooth, -4, 4).evaluations() < Minimizer.goldenSection(smooth, -4, 4).evaluations());
+    }
+
+    @Test
+    void findsMinimaOfKinksAndEnds() {
+        for (Method method : METHODS) {
+            // At a kink the value rises as fast as x strays, rather than with its square.
+            for (Solution kink : new Solution[]{method.solve(x -> Math.abs(x - 1.3), -2, 7, 1e-10, 200),
+                    method.solve(x -> x < 0.25 ? 0.25 - x : 2 * (x - 0.25), 0, 1, 1e-10, 200)}) {
+                assertTrue(kink.converged(), kink.toString());
+                assertTrue(kink.value() <= 2e-7, kink.toString());
+                assertTrue(kink.width() <= 1e-7, kink.toString());
+            }
+            // A function that only rises has its minimum at the lower end.
+            Solution end = method.solve(x -> x, 0, 1, 1e-10, 200);
+            assertTrue(end.converged(), end.toString());
+            assertEquals(0, end.x(), 1e-9, end.toString());
+        }
+    }
+
+    @Test
+    void acceptsReversedIntervals() {
+        for (Method method : METHODS) {
+            Solution forwards = method.solve(Math::cos, 2, 5, 1e-10, 200);
+            Solution backwards = method.solve(Math::cos, 5, 2, 1e-10, 200);
+            assertEquals(forwards, backwards);
+            assertMinimum(Math.PI, -1, backwards);
+        }
+    }
+
+    @Test
+    void reportsRunningOutOfIterations() {
+        for (Method method : METHODS) {
+            Solution solution = method.solve(x -> (x - 2) * (x - 2), 0, 5, 0, 5);
+            assertFalse(solution.converged(), solution.toString());
+            assertEquals(5, solution.iterations());
+            assertTrue(solution.lower() <= 2 && 2 <= solution.upper(), solution.toString());
+            assertTrue(solution.width() < 5, solution.toString());
+        }
+    }
+
+    @Test
+    void rejectsBadArguments() {
+        for (Method method : METHODS) {
+            assertThrows(IllegalArgumentException.class, () -> method.solve(Math::cos, Double.NaN, 5, 1e-10, 200));
+            assertThrows(IllegalArgumentException.class,
+                    () -> method.solve(Math::cos, 2, Double.NEGATIVE_INFINITY, 1e-10, 200));
+            assertThrows(IllegalArgumentException.class, () -> method.solve(Math::cos, 2, 5, Double.NaN, 200));
+            assertThrows(IllegalArgumentException.class, () -> method.solve(Math::cos, 2, 5, 1e-10, 0));
+        }
+    }
+}
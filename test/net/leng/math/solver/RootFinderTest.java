@@ -0,0 +1,154 @@
+package net.leng.math.solver;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.DoubleUnaryOperator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/** Checks every method on smooth and step functions, and that the bracket it reports still holds the root. */
+class RootFinderTest {
+    /** A way of finding a root in a bracket with the given tolerance and iterations. */
+    private interface Method {
+        Solution solve(DoubleUnaryOperator function, double a, double b, double tolerance, int maxIterations);
+    }
+
+    /** Every method that needs only the function. Newton's method with a derivative given is checked on its own. */
+    private static final List<Method> METHODS = List.of(RootFinder::brent, RootFinder::newton, RootFinder::illinois);
+
+    private static final DoubleUnaryOperator CUBIC = x -> x * x * x - 2 * x - 5;
+    private static final DoubleUnaryOperator CUBIC_SLOPE = x -> 3 * x * x - 2;
+    private static final double CUBIC_ROOT = 2.0945514815423265;
+
+    private static void assertRoot(double root, double tolerance, Solution solution) {
+        assertTrue(solution.converged(), solution.toString());
+        assertEquals(root, solution.x(), tolerance, solution.toString());
+        assertTrue(solution.lower() <= solution.upper(), solution.toString());
+        assertTrue(solution.lower() <= root + tolerance && root - tolerance <= solution.upper(), solution.toString());
+    }
+
+    @Test
+    void findsRootsOfSmoothFunctions() {
+        double tolerance = 4e-12;
+        for (Method method : METHODS) {
+            assertRoot(CUBIC_ROOT, tolerance, method.solve(CUBIC, 2, 3, RootFinder.DEFAULT_TOLERANCE, 100));
+            assertRoot(0.7390851332151607, tolerance, method.solve(x -> Math.cos(x) - x, 0, 1, 1e-12, 100));
+            assertRoot(Math.log(10), tolerance, method.solve(x -> Math.exp(x) - 10, 0, 5, 1e-12, 100));
+            assertRoot(-1e-3, tolerance, method.solve(x -> Math.atan(1000 * x + 1), -1, 4, 1e-12, 100));
+        }
+        assertRoot(CUBIC_ROOT, tolerance, RootFinder.newton(CUBIC, CUBIC_SLOPE, 2, 3));
+        assertRoot(CUBIC_ROOT, tolerance, RootFinder.brent(CUBIC, 2, 3));
+        assertRoot(CUBIC_ROOT, tolerance, RootFinder.newton(CUBIC, 2, 3));
+        assertRoot(CUBIC_ROOT, tolerance, RootFinder.illinois(CUBIC, 2, 3));
+        // Newton's method with the exact derivative converges quadratically from the middle of the bracket.
+        assertTrue(RootFinder.newton(CUBIC, CUBIC_SLOPE, 2, 3).iterations() <= 6);
+    }
+
+    @Test
+    void countsEveryEvaluation() {
+        AtomicInteger calls = new AtomicInteger();
+        AtomicInteger slopes = new AtomicInteger();
+        DoubleUnaryOperator f = x -> {
+            calls.incrementAndGet();
+            return CUBIC.applyAsDouble(x);
+        };
+        DoubleUnaryOperator df = x -> {
+            slopes.incrementAndGet();
+            return CUBIC_SLOPE.applyAsDouble(x);
+        };
+        for (Method method : METHODS) {
+            calls.set(0);
+            Solution solution = method.solve(f, 2, 3, 1e-12, 100);
+            assertEquals(calls.get(), solution.evaluations());
+        }
+        calls.set(0);
+        Solution solution = RootFinder.newton(f, df, 2, 3);
+        assertEquals(calls.get() + slopes.get(), solution.evaluations());
+        assertTrue(slopes.get() > 0);
+    }
+
+    @Test
+    void acceptsReversedBrackets() {
+        for (Method method : METHODS) {
+            Solution forwards = method.solve(CUBIC, 2, 3, 1e-12, 100);
+            Solution backwards = method.solve(CUBIC, 3, 2, 1e-12, 100);
+            assertRoot(CUBIC_ROOT, 4e-12, backwards);
+            assertEquals(forwards.x(), backwards.x(), 4e-12);
+        }
+        assertRoot(CUBIC_ROOT, 4e-12, RootFinder.newton(CUBIC, CUBIC_SLOPE, 3, 2));
+    }
+
+    @Test
+    void closesInOnSteps() {
+        // A step has no root, but it has a sign change that the bracket closes in on.
+        DoubleUnaryOperator step = x -> x < 0.3 ? -1 : 1;
+        for (Method method : METHODS) {
+            Solution solution = method.solve(step, 0, 1, 1e-12, 100);
+            assertTrue(solution.converged(), solution.toString());
+            assertTrue(solution.lower() < 0.3 && 0.3 <= solution.upper(), solution.toString());
+            assertTrue(solution.width() <= 1e-11, solution.toString());
+        }
+        Solution flat = RootFinder.newton(step, x -> 0, 1, 0, 1e-12, 100);
+        assertTrue(flat.converged(), flat.toString());
+        assertTrue(flat.lower() < 0.3 && 0.3 <= flat.upper(), flat.toString());
+        assertTrue(flat.width() <= 1e-11, flat.toString());
+    }
+
+    @Test
+    void stopsAtARootOnTheBracket() {
+        for (Method method : METHODS) {
+            AtomicInteger calls = new AtomicInteger();
+            DoubleUnaryOperator f = x -> {
+                calls.incrementAndGet();
+                return x * x - 4;
+            };
+            Solution atA = method.solve(f, 2, 5, 1e-12, 100);
+            assertEquals(new Solution(2, 0, 2, 2, 0, 2, true), atA);
+            Solution atB = method.solve(f, -5, -2, 1e-12, 100);
+            assertEquals(new Solution(-2, 0, -2, -2, 0, 2, true), atB);
+            assertEquals(4, calls.get());
+        }
+        assertEquals(new Solution(2, 0, 2, 2, 0, 2, true), RootFinder.newton(x -> x * x - 4, x -> 2 * x, 0, 2));
+    }
+
+    @Test
+    void rejectsBracketsWithoutASignChange() {
+        for (Method method : METHODS) {
+            assertThrows(IllegalArgumentException.class, () -> method.solve(CUBIC, 3, 4, 1e-12, 100));
+            assertThrows(IllegalArgumentException.class, () -> method.solve(x -> Double.NaN, 0, 1, 1e-12, 100));
+            assertThrows(IllegalArgumentException.class, () -> method.solve(CUBIC, Double.NaN, 3, 1e-12, 100));
+            assertThrows(IllegalArgumentException.class,
+                    () -> method.solve(CUBIC, 2, Double.POSITIVE_INFINITY, 1e-12, 100));
+            assertThrows(IllegalArgumentException.class, () -> method.solve(CUBIC, 2, 3, -1, 100));
+            assertThrows(IllegalArgumentException.class, () -> method.solve(CUBIC, 2, 3, 1e-12, 0));
+        }
+        assertThrows(IllegalArgumentException.class, () -> RootFinder.newton(CUBIC, CUBIC_SLOPE, 3, 4));
+    }
+
+    @Test
+    void reportsRunningOutOfIterations() {
+        double root = 0.7390851332151607;
+        for (Method method : METHODS) {
+            Solution solution = method.solve(x -> Math.cos(x) - x, 0, 1, 0, 3);
+            assertFalse(solution.converged(), solution.toString());
+            assertEquals(3, solution.iterations());
+            // The bracket still holds the root wherever the iterations run out, including just after a step that
+            // crossed it.
+            for (int maxIterations = 1; maxIterations <= 12; maxIterations++) {
+                solution = method.solve(x -> Math.cos(x) - x, 1, 0, 0, maxIterations);
+                assertTrue(solution.converged() ? solution.iterations() <= maxIterations
+                        : solution.iterations() == maxIterations, solution.toString());
+                assertTrue(solution.lower() <= root && root <= solution.upper(), solution.toString());
+                assertTrue(solution.lower() <= solution.x() && solution.x() <= solution.upper(), solution.toString());
+            }
+        }
+        Solution solution = RootFinder.newton(x -> Math.cos(x) - x, x -> -Math.sin(x) - 1, 0, 1, 0, 1);
+        assertFalse(solution.converged(), solution.toString());
+        assertEquals(1, solution.iterations());
+    }
+}